@@ -0,0 +1,108 @@
+package IndexingSystem.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import IndexingSystem.models.News;
+import IndexingSystem.repository.ConnectionDBRepository;
+import IndexingSystem.repository.H2Repository;
+import IndexingSystem.repository.UrlCanonicalizer;
+import IndexingSystem.repository.UrlFilter;
+
+/**
+ * Latency of the repository against an in-memory H2 database behind a Hikari
+ * pool, as in the application
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class H2RepositoryBenchmark {
+
+    @Param({ "1000", "100000" })
+    public int rows;
+
+    private HikariDataSource dataSource;
+    private H2Repository repository;
+    private final AtomicLong created = new AtomicLong();
+
+    @Setup
+    public void setUp() throws Exception {
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:h2:mem:h2_repository_benchmark_" + System.nanoTime() + ";DB_CLOSE_DELAY=-1");
+        dataSource.setUsername("sa");
+        dataSource.setMaximumPoolSize(4);
+
+        ConnectionDBRepository connection = new ConnectionDBRepository();
+        ReflectionTestUtils.setField(connection, "dataSource", dataSource);
+
+        repository = new H2Repository();
+        ReflectionTestUtils.setField(repository, "connection", connection);
+        ReflectionTestUtils.setField(repository, "urlFilter", new UrlFilter());
+        ReflectionTestUtils.setField(repository, "urlCanonicalizer", new UrlCanonicalizer());
+        repository.createTable();
+
+        for (int start = 0; start < rows; start += 1000) {
+            List<News> news = new ArrayList<>();
+            List<Boolean> found = new ArrayList<>();
+            for (int i = start; i < Math.min(rows, start + 1000); i++) {
+                news.add(new News(url(i), true));
+                found.add(false);
+            }
+            repository.createAll(news, found);
+        }
+        repository.rebuildUrlFilter();
+    }
+
+    @TearDown
+    public void tearDown() {
+        dataSource.close();
+    }
+
+    @Benchmark
+    public News readIndexed() throws Exception {
+        return repository.read(url(ThreadLocalRandom.current().nextInt(rows)));
+    }
+
+    // Answered by the URL filter without a query
+    @Benchmark
+    public News readMissing() throws Exception {
+        return repository.read("http://missing.example.com/" + ThreadLocalRandom.current().nextInt(rows));
+    }
+
+    @Benchmark
+    public int create() throws Exception {
+        return repository.create(new News("http://new.example.com/" + created.incrementAndGet(), true), false);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public int readAll() throws Exception {
+        return repository.readAll().size();
+    }
+
+    private static String url(int i) {
+        return "http://example.com/news/" + i;
+    }
+}
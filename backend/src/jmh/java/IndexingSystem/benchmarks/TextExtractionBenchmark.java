@@ -0,0 +1,81 @@
+package IndexingSystem.benchmarks;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.Node;
+import org.jsoup.nodes.TextNode;
+import org.jsoup.parser.Parser;
+import org.jsoup.parser.StreamParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Jsoup text extraction on the saved pages in src/jmh/resources/fixtures, as a
+ * whole document and block by block as the streaming scan reads it
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class TextExtractionBenchmark {
+
+    private static final String BASE_URI = "http://example.com/";
+
+    @Param({ "short-news.html", "article.html", "front-page.html" })
+    public String fixture;
+
+    private String html;
+
+    @Setup
+    public void setUp() throws IOException {
+        try (InputStream in = TextExtractionBenchmark.class.getResourceAsStream("/fixtures/" + fixture)) {
+            if (in == null) {
+                throw new IllegalStateException("Fixture not found: " + fixture);
+            }
+            html = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    @Benchmark
+    public String bodyText() {
+        return Jsoup.parse(html, BASE_URI).body().text();
+    }
+
+    @Benchmark
+    public long streamBlocks() throws IOException {
+        long length = 0;
+        try (StreamParser parser = new StreamParser(Parser.htmlParser()).parse(html, BASE_URI)) {
+            Iterator<Element> elements = parser.iterator();
+            while (elements.hasNext()) {
+                Element element = elements.next();
+                if (!element.isBlock() || element.closest("body") == null) {
+                    continue;
+                }
+                for (Node node : element.childNodes()) {
+                    if (node instanceof TextNode) {
+                        length += ((TextNode) node).getWholeText().length();
+                    }
+                }
+                element.empty();
+            }
+        }
+        return length;
+    }
+}
@@ -0,0 +1,112 @@
+package IndexingSystem.benchmarks;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.sun.net.httpserver.HttpServer;
+
+import IndexingSystem.IndexingSystemApplication;
+import IndexingSystem.services.BoundedExecutor;
+import IndexingSystem.services.NewsCheck;
+import IndexingSystem.services.WordMatcher;
+
+/**
+ * Throughput of checks against a slow upstream page, with a pool of platform
+ * threads sized like Tomcat's default (200) and with virtual threads limited
+ * only by a semaphore.
+ *
+ * Run with:
+ * mvn -Pjmh test-compile exec:java@fetch -Dexec.args="2000 1000"
+ *
+ * Arguments: number of checks, upstream latency in milliseconds.
+ */
+public class VirtualThreadFetchBenchmark {
+
+    private static final int PLATFORM_THREADS = 200;
+    private static final int VIRTUAL_CONCURRENCY = 2000;
+
+    public static void main(String[] args) throws Exception {
+        int checks = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        long latencyMillis = args.length > 1 ? Long.parseLong(args[1]) : 1000;
+
+        HttpServer server = slowServer(latencyMillis);
+        String url = "http://localhost:" + server.getAddress().getPort() + "/page";
+
+        // The application without its web server builds NewsCheck with its real dependencies.
+        // Every download returns the same page, so the caches are disabled to measure the fetches
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(IndexingSystemApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("indexing.check.max-concurrent-fetches=" + VIRTUAL_CONCURRENCY,
+                        "indexing.verdict-cache.enabled=false",
+                        "indexing.rejections.enabled=false")
+                .run();
+        NewsCheck newsCheck = context.getBean(NewsCheck.class);
+        WordMatcher matcher = WordMatcher.compile(List.of("blocked", "forbidden"));
+
+        try {
+            // Warm up the HTTP client and the JIT
+            run(newsCheck, matcher, url, new BoundedExecutor(false, PLATFORM_THREADS, -1), 200);
+
+            double platform = run(newsCheck, matcher, url, new BoundedExecutor(false, PLATFORM_THREADS, -1),
+                    checks);
+            double virtual = run(newsCheck, matcher, url, new BoundedExecutor(true, VIRTUAL_CONCURRENCY, -1),
+                    checks);
+
+            System.out.printf("checks=%d upstream latency=%dms%n", checks, latencyMillis);
+            System.out.printf("platform threads (%d): %.1f checks/s%n", PLATFORM_THREADS, platform);
+            System.out.printf("virtual threads (semaphore %d): %.1f checks/s%n", VIRTUAL_CONCURRENCY, virtual);
+        } finally {
+            server.stop(0);
+            context.close();
+        }
+    }
+
+    private static double run(NewsCheck newsCheck, WordMatcher matcher, String url, BoundedExecutor executor,
+            int checks) throws Exception {
+        try {
+            long start = System.nanoTime();
+            List<Future<String>> results = new ArrayList<>(checks);
+            for (int i = 0; i < checks; i++) {
+                results.add(executor.submit(() -> newsCheck.scan(url, matcher)));
+            }
+            for (Future<String> result : results) {
+                result.get();
+            }
+            return checks / ((System.nanoTime() - start) / 1e9);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static HttpServer slowServer(long latencyMillis) throws IOException {
+        byte[] page = ("<html><body>" + "<p>Some news text without any listed word.</p>".repeat(200)
+                + "</body></html>").getBytes(StandardCharsets.UTF_8);
+
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 4096);
+        server.createContext("/page", exchange -> {
+            try {
+                Thread.sleep(latencyMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.getResponseHeaders().add("Content-Type", "text/html; charset=utf-8");
+            exchange.sendResponseHeaders(200, page.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(page);
+            }
+        });
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.start();
+        return server;
+    }
+}
@@ -0,0 +1,96 @@
+package IndexingSystem.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import IndexingSystem.services.WordMatcher;
+
+/**
+ * Matching throughput by page size and word list size. The page never
+ * contains a word, so the whole text is scanned as in an accepted check.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class WordMatcherBenchmark {
+
+    private static final int CHUNK = 4096;
+
+    @Param({ "1024", "65536", "1048576" })
+    public int pageSize;
+
+    @Param({ "1", "10", "100", "1000" })
+    public int wordCount;
+
+    private String page;
+    private WordMatcher matcher;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+
+        // Words use letters that the page never contains
+        List<String> words = new ArrayList<>(wordCount);
+        for (int i = 0; i < wordCount; i++) {
+            words.add(randomWord(random, "qxzjkv", 5 + random.nextInt(6)));
+        }
+        matcher = WordMatcher.compile(words);
+
+        StringBuilder text = new StringBuilder(pageSize + 16);
+        while (text.length() < pageSize) {
+            String word = randomWord(random, "abcdefghilmnoprstuwy", 2 + random.nextInt(9));
+            text.append(random.nextInt(8) == 0 ? word.toUpperCase() : word).append(' ');
+        }
+        page = text.substring(0, pageSize);
+    }
+
+    // What NewsCheck does with a buffered page, the text is folded while scanned
+    @Benchmark
+    public String match() {
+        return matcher.firstMatch(page);
+    }
+
+    // Baseline: a lowercased copy of the page before the scan
+    @Benchmark
+    public String lowercaseAndMatch() {
+        return matcher.firstMatch(page.toLowerCase(Locale.ROOT));
+    }
+
+    // Text fed in pieces, as the streaming scan does
+    @Benchmark
+    public String scanner() {
+        WordMatcher.Scanner scanner = matcher.scanner();
+        for (int start = 0; start < page.length(); start += CHUNK) {
+            if (scanner.feed(page.subSequence(start, Math.min(page.length(), start + CHUNK)))) {
+                break;
+            }
+        }
+        return scanner.match();
+    }
+
+    private static String randomWord(Random random, String letters, int length) {
+        StringBuilder word = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            word.append(letters.charAt(random.nextInt(letters.length())));
+        }
+        return word.toString();
+    }
+}
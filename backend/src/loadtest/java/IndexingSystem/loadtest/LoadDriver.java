@@ -0,0 +1,163 @@
+package IndexingSystem.loadtest;
+
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+/**
+ * Closed-loop driver of POST /api/v1/content/check. Each worker sends a check
+ * of a new stub page as soon as the previous one is answered. Requests
+ * finished during the warm-up are not recorded.
+ */
+public class LoadDriver {
+    private static final long MAX_LATENCY_MICROS = Duration.ofMinutes(2).toNanos() / 1000;
+
+    private final URI checkUri;
+    private final String pageBase;
+    private final int hosts;
+    private final int pagePort;
+    private final int concurrency;
+
+    private final HttpClient client;
+    private final AtomicLong sequence = new AtomicLong();
+    private final Histogram latencies = new ConcurrentHistogram(MAX_LATENCY_MICROS, 3);
+    private final Map<String, LongAdder> outcomes = new ConcurrentHashMap<>();
+
+    private volatile boolean recording;
+    private volatile boolean stopped;
+
+    /**
+     * @param target      base URL of the application, e.g. http://localhost:80
+     * @param pagePort    port of the stub page server
+     * @param hosts       number of 127.0.0.x addresses the pages are spread on
+     * @param concurrency requests in flight
+     */
+    public LoadDriver(String target, int pagePort, int hosts, int concurrency) {
+        this.checkUri = URI.create(target.replaceAll("/+$", "") + "/api/v1/content/check");
+        this.pageBase = "/news/" + Long.toString(System.currentTimeMillis(), 36) + "/";
+        this.pagePort = pagePort;
+        this.hosts = hosts;
+        this.concurrency = concurrency;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+    }
+
+    /**
+     * Run the load and return the results of the measured period
+     */
+    public Result run(Duration warmup, Duration duration) throws InterruptedException {
+        List<Thread> workers = new ArrayList<>(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            workers.add(Thread.ofVirtual().name("load-" + i).start(this::work));
+        }
+
+        Thread.sleep(warmup.toMillis());
+        latencies.reset();
+        outcomes.clear();
+        recording = true;
+
+        long start = System.nanoTime();
+        Thread.sleep(duration.toMillis());
+        recording = false;
+        long elapsed = System.nanoTime() - start;
+
+        stopped = true;
+        for (Thread worker : workers) {
+            worker.join(Duration.ofSeconds(30));
+        }
+
+        Map<String, Long> counts = new TreeMap<>();
+        outcomes.forEach((outcome, count) -> counts.put(outcome, count.sum()));
+        return new Result(latencies.copy(), counts, elapsed);
+    }
+
+    private void work() {
+        while (!stopped) {
+            long n = sequence.incrementAndGet();
+            String page = "http://127.0.0." + (1 + n % hosts) + ":" + pagePort + pageBase + n;
+            String body = "{\"url\":\"" + page + "\",\"words\":[\"" + StubPageServer.WORD + "\"]}";
+            HttpRequest request = HttpRequest.newBuilder(checkUri)
+                    .timeout(Duration.ofMinutes(1))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build();
+
+            long started = System.nanoTime();
+            String outcome;
+            try {
+                HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                outcome = Integer.toString(response.statusCode());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                outcome = e.getClass().getSimpleName();
+            }
+
+            if (recording) {
+                long micros = (System.nanoTime() - started) / 1000;
+                latencies.recordValue(Math.min(Math.max(micros, 1), MAX_LATENCY_MICROS));
+                outcomes.computeIfAbsent(outcome, key -> new LongAdder()).increment();
+            }
+        }
+    }
+
+    public static class Result {
+        private final Histogram latencies;
+        private final Map<String, Long> outcomes;
+        private final long elapsedNanos;
+
+        Result(Histogram latencies, Map<String, Long> outcomes, long elapsedNanos) {
+            this.latencies = latencies;
+            this.outcomes = outcomes;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public long getRequests() {
+            return latencies.getTotalCount();
+        }
+
+        public double getThroughput() {
+            return getRequests() / (elapsedNanos / 1e9);
+        }
+
+        public Histogram getLatencies() {
+            return latencies;
+        }
+
+        public Map<String, Long> getOutcomes() {
+            return outcomes;
+        }
+
+        public void print(PrintStream out) {
+            out.printf("Requests:    %d in %.1f s%n", getRequests(), elapsedNanos / 1e9);
+            out.printf("Throughput:  %.1f checks/s%n", getThroughput());
+            out.println("Outcomes:    " + outcomes);
+            out.printf("Latency ms:  p50 %.2f  p90 %.2f  p99 %.2f  p99.9 %.2f  max %.2f%n",
+                    percentile(50), percentile(90), percentile(99), percentile(99.9),
+                    latencies.getMaxValue() / 1000.0);
+            out.println();
+            out.println("Latency histogram (ms):");
+            latencies.outputPercentileDistribution(out, 5, 1000.0);
+        }
+
+        private double percentile(double percentile) {
+            return latencies.getValueAtPercentile(percentile) / 1000.0;
+        }
+    }
+}
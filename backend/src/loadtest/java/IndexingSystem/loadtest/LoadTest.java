@@ -0,0 +1,71 @@
+package IndexingSystem.loadtest;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Load test of the check endpoint against a running application. Starts the
+ * stub page server and drives the application with checks of its pages.
+ *
+ * Options (--name=value): target, concurrency, warmup, duration, hosts,
+ * stub-port, page-size, latency, word-density. With --stub-only the stub server
+ * runs until the process is stopped.
+ */
+public class LoadTest {
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+
+        String target = options.getOrDefault("target", "http://localhost:80");
+        int concurrency = Integer.parseInt(options.getOrDefault("concurrency", "16"));
+        Duration warmup = Duration.parse("PT" + options.getOrDefault("warmup", "10s"));
+        Duration duration = Duration.parse("PT" + options.getOrDefault("duration", "30s"));
+        int hosts = Integer.parseInt(options.getOrDefault("hosts", "16"));
+        int stubPort = Integer.parseInt(options.getOrDefault("stub-port", "0"));
+        int pageSize = Integer.parseInt(options.getOrDefault("page-size", "32768"));
+        long latency = Long.parseLong(options.getOrDefault("latency", "50"));
+        double wordDensity = Double.parseDouble(options.getOrDefault("word-density", "0.1"));
+
+        if (hosts < 1 || hosts > 254) {
+            throw new IllegalArgumentException("The hosts must be between 1 and 254");
+        }
+
+        StubPageServer stub = new StubPageServer(pageSize, latency, wordDensity);
+        stub.start(stubPort);
+        System.out.println("Stub pages on port " + stub.getPort() + ": " + pageSize + " bytes, " + latency
+                + " ms, word density " + wordDensity);
+
+        if (options.containsKey("stub-only")) {
+            Runtime.getRuntime().addShutdownHook(new Thread(stub::stop));
+            Thread.currentThread().join();
+        }
+
+        try {
+            System.out.println("Driving " + target + " with " + concurrency + " requests in flight on " + hosts
+                    + " hosts, warm-up " + warmup.toSeconds() + " s, measuring " + duration.toSeconds() + " s");
+            LoadDriver driver = new LoadDriver(target, stub.getPort(), hosts, concurrency);
+            LoadDriver.Result result = driver.run(warmup, duration);
+            System.out.println();
+            result.print(System.out);
+        } finally {
+            stub.stop();
+        }
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Unknown argument: " + arg);
+            }
+            int equals = arg.indexOf('=');
+            if (equals < 0) {
+                options.put(arg.substring(2), "true");
+            } else {
+                options.put(arg.substring(2, equals), arg.substring(equals + 1));
+            }
+        }
+        return options;
+    }
+}
@@ -0,0 +1,145 @@
+package IndexingSystem.loadtest;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Local HTTP server of synthetic news pages for load tests. Every path returns
+ * a page of the configured size after the configured latency, and a share of
+ * the pages (the word density) contains the test word. Pages are generated at
+ * start so serving them costs no CPU.
+ */
+public class StubPageServer {
+    public static final String WORD = "loadtestword";
+
+    private static final int VARIANTS = 64;
+    private static final String[] FILLER = { "gobierno", "ciudad", "empresa", "mercado", "partido", "equipo",
+            "informe", "servicio", "proyecto", "usuarios", "semana", "acuerdo", "precio", "ministerio" };
+
+    private final int pageSize;
+    private final long latencyMillis;
+    private final double wordDensity;
+
+    private final byte[][] cleanPages = new byte[VARIANTS][];
+    private final byte[][] wordPages = new byte[VARIANTS][];
+    private final AtomicLong served = new AtomicLong();
+
+    private HttpServer server;
+    private ExecutorService executor;
+
+    /**
+     * @param pageSize      bytes of each page
+     * @param latencyMillis delay before each response
+     * @param wordDensity   share of pages that contain the test word, 0 to 1
+     */
+    public StubPageServer(int pageSize, long latencyMillis, double wordDensity) {
+        if (wordDensity < 0 || wordDensity > 1) {
+            throw new IllegalArgumentException("The word density must be between 0 and 1");
+        }
+        this.pageSize = pageSize;
+        this.latencyMillis = latencyMillis;
+        this.wordDensity = wordDensity;
+
+        Random random = new Random(42);
+        for (int i = 0; i < VARIANTS; i++) {
+            cleanPages[i] = page(random, false);
+            wordPages[i] = page(random, true);
+        }
+    }
+
+    /**
+     * Start listening on all interfaces, so any 127.x.y.z address reaches the
+     * server and can be used as a separate host
+     *
+     * @param port port, 0 for any free one
+     */
+    public void start(int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(port), 1024);
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    public void stop() {
+        if (server != null) {
+            server.stop(0);
+            executor.shutdownNow();
+        }
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public long getServed() {
+        return served.get();
+    }
+
+    /**
+     * @return whether the page at the path contains the test word
+     */
+    public boolean containsWord(String path) {
+        return (bucket(path) % 1000) < wordDensity * 1000;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            if (latencyMillis > 0) {
+                Thread.sleep(latencyMillis);
+            }
+
+            String path = exchange.getRequestURI().getPath();
+            int variant = bucket(path) % VARIANTS;
+            byte[] body = containsWord(path) ? wordPages[variant] : cleanPages[variant];
+
+            exchange.getResponseHeaders().set("Content-Type", "text/html; charset=utf-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+            served.incrementAndGet();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            exchange.close();
+        }
+    }
+
+    // Same page for the same path, whatever the order of the requests
+    private static int bucket(String path) {
+        int hash = path.hashCode() * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & Integer.MAX_VALUE;
+    }
+
+    private byte[] page(Random random, boolean withWord) {
+        StringBuilder html = new StringBuilder(pageSize + 256);
+        html.append("<!DOCTYPE html><html><head><meta charset=\"utf-8\"><title>Noticia</title></head><body>");
+        int wordAt = withWord ? random.nextInt(Math.max(1, pageSize - 128)) : -1;
+        String end = "</p></body></html>";
+
+        html.append("<p>");
+        while (html.length() < pageSize - end.length()) {
+            if (wordAt >= 0 && html.length() >= wordAt) {
+                html.append(WORD).append(' ');
+                wordAt = -1;
+            }
+            html.append(FILLER[random.nextInt(FILLER.length)]);
+            html.append(random.nextInt(12) == 0 ? ".</p><p>" : " ");
+        }
+        if (wordAt >= 0) {
+            html.append(WORD);
+        }
+        html.append(end);
+        return html.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,230 @@
+package IndexingSystem.controllers;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import IndexingSystem.models.Blocklist;
+import IndexingSystem.repository.BlocklistRepository;
+import IndexingSystem.services.BlocklistRegistry;
+import jakarta.annotation.PostConstruct;
+
+@RestController
+@RequestMapping("/api/v1/blocklists")
+public class BlocklistController {
+
+    private static final int MAX_NAME_LENGTH = 255;
+
+    // Wait for a new list to be compiled before answering its creation
+    private static final long CREATE_REFRESH_TIMEOUT_SECONDS = 10;
+
+    @Autowired
+    private BlocklistRepository blocklistRepository;
+
+    @Autowired
+    private BlocklistRegistry blocklistRegistry;
+
+    @PostConstruct
+    public void init() {
+
+        try {
+            blocklistRepository.createTable();
+        } catch (Exception e) {
+            System.out.println("Error creating blocklist tables: " + e);
+        }
+
+        try {
+            blocklistRegistry.load();
+        } catch (Exception e) {
+            System.out.println("Error loading blocklists: " + e);
+        }
+    }
+
+    /**
+     * Get every blocklist, without the words
+     *
+     * @return blocklists with their size, 204 if there are none or 500 if error
+     */
+    @GetMapping
+    public ResponseEntity<?> getBlocklists() {
+        try {
+            List<Blocklist> blocklists = blocklistRepository.readAll();
+
+            if (blocklists.isEmpty()) {
+                return ResponseEntity.status(HttpStatus.NO_CONTENT).build();
+            }
+
+            return ResponseEntity.ok(Map.of("blocklists", blocklists));
+        } catch (Exception e) {
+            System.out.println("Error getting blocklists: " + e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("Error", "Error getting blocklists: " + e));
+        }
+    }
+
+    /**
+     * Get a blocklist with its words
+     *
+     * @param id
+     * @return blocklist, 404 if not found or 500 if error
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<?> getBlocklist(@PathVariable int id) {
+        try {
+            Blocklist blocklist = blocklistRepository.read(id);
+
+            if (blocklist == null) {
+                return notFound(id);
+            }
+
+            return ResponseEntity.ok(blocklist);
+        } catch (Exception e) {
+            System.out.println("Error getting blocklist: " + e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("Error", "Error getting blocklist: " + e));
+        }
+    }
+
+    /**
+     * Create a blocklist. The words are validated before it is stored and it is
+     * compiled before the response, so checks can reference it as soon as the id
+     * is returned. If the compilation takes too long the list is created anyway
+     * and becomes usable when it finishes.
+     *
+     * @param entity Request body containing the name and the words
+     * @return 201 with the id, 400 if the name or the words are not valid, 409 if
+     *         the name already exists or 500 if error
+     */
+    @PostMapping
+    public ResponseEntity<?> postBlocklist(@RequestBody Map<String, ?> entity) {
+        Blocklist blocklist;
+        try {
+            blocklist = new Blocklist(name(entity), blocklistRegistry.normalize((List<String>) entity.get("words")));
+        } catch (IllegalArgumentException | ClassCastException e) {
+            return ResponseEntity.badRequest().body(Map.of("Error", e.getMessage()));
+        }
+
+        try {
+            int id = blocklistRepository.create(blocklist);
+
+            if (id < 0) {
+                return conflict(blocklist.getName());
+            }
+
+            try {
+                blocklistRegistry.refresh(id).get(CREATE_REFRESH_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            } catch (TimeoutException e) {
+                System.out.println("Blocklist " + id + " is still being compiled");
+            }
+
+            URI location = ServletUriComponentsBuilder.fromCurrentRequest()
+                    .path("/{id}")
+                    .buildAndExpand(id)
+                    .toUri();
+
+            return ResponseEntity.created(location).body(Map.of("id", id));
+        } catch (Exception e) {
+            System.out.println("Error creating blocklist: " + e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("Error", "Error creating blocklist: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Replace the name and the words of a blocklist. Checks in progress finish
+     * with the previous words, the new ones are compiled in the background and
+     * used by the checks that start after that.
+     *
+     * @param id
+     * @param entity Request body containing the name and the words
+     * @return 200 if updated, 400 if the name or the words are not valid, 404 if
+     *         not found, 409 if the name belongs to another list or 500 if error
+     */
+    @PutMapping("/{id}")
+    public ResponseEntity<?> putBlocklist(@PathVariable int id, @RequestBody Map<String, ?> entity) {
+        Blocklist blocklist;
+        try {
+            blocklist = new Blocklist(name(entity), blocklistRegistry.normalize((List<String>) entity.get("words")));
+        } catch (IllegalArgumentException | ClassCastException e) {
+            return ResponseEntity.badRequest().body(Map.of("Error", e.getMessage()));
+        }
+
+        try {
+            int updated = blocklistRepository.update(id, blocklist);
+
+            if (updated == 0) {
+                return notFound(id);
+            }
+            if (updated < 0) {
+                return conflict(blocklist.getName());
+            }
+
+            blocklistRegistry.refresh(id);
+            return ResponseEntity.ok().build();
+        } catch (Exception e) {
+            System.out.println("Error updating blocklist: " + e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("Error", "Error updating blocklist: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Delete a blocklist
+     *
+     * @param id
+     * @return 200 if deleted, 204 if not found or 500 if error
+     */
+    @DeleteMapping("/{id}")
+    public ResponseEntity<?> deleteBlocklist(@PathVariable int id) {
+        try {
+            int deleted = blocklistRepository.delete(id);
+            blocklistRegistry.refresh(id);
+
+            if (deleted == 0) {
+                return ResponseEntity.status(HttpStatus.NO_CONTENT).build();
+            }
+
+            return ResponseEntity.ok().build();
+        } catch (Exception e) {
+            System.out.println("Error deleting blocklist: " + e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("Error", "Error deleting blocklist: " + e.getMessage()));
+        }
+    }
+
+    private String name(Map<String, ?> entity) {
+        Object name = entity.get("name");
+        if (!(name instanceof String) || ((String) name).trim().isEmpty()) {
+            throw new IllegalArgumentException("The blocklist name cannot be empty");
+        }
+        if (((String) name).trim().length() > MAX_NAME_LENGTH) {
+            throw new IllegalArgumentException("The blocklist name exceeds " + MAX_NAME_LENGTH + " characters");
+        }
+        return ((String) name).trim();
+    }
+
+    private ResponseEntity<?> notFound(int id) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(Map.of("Error", "The blocklist '" + id + "' does not exist"));
+    }
+
+    private ResponseEntity<?> conflict(String name) {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(Map.of("Error", "The blocklist '" + name + "' already exists"));
+    }
+}
@@ -1,31 +1,60 @@
 package IndexingSystem.controllers;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Timer;
+
+import IndexingSystem.models.CheckJob;
+import IndexingSystem.models.CheckVerdict;
 import IndexingSystem.models.News;
+import IndexingSystem.models.RescanJob;
 import IndexingSystem.repository.H2Repository;
+import IndexingSystem.repository.RejectionRepository;
+import IndexingSystem.repository.StorageMaintenance;
+import IndexingSystem.services.BlocklistRegistry;
+import IndexingSystem.services.CheckJobService;
+import IndexingSystem.services.CheckMetrics;
+import IndexingSystem.services.NewsBatchCheck;
 import IndexingSystem.services.NewsCheck;
+import IndexingSystem.services.RescanService;
+import IndexingSystem.services.TermIndexer;
+import IndexingSystem.services.WordListCache;
+import IndexingSystem.services.WordMatcher;
 import jakarta.annotation.PostConstruct;
 
 @RestController
 @RequestMapping("/api/v1/content")
 public class NewsController {
 
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final String NDJSON = "application/x-ndjson";
+
     @Autowired
     private H2Repository h2Repository;
 
@@ -33,6 +62,39 @@ public class NewsController {
     @Lazy
     private NewsCheck newsCheck;
 
+    @Autowired
+    @Lazy
+    private NewsBatchCheck newsBatchCheck;
+
+    @Autowired
+    @Lazy
+    private CheckJobService checkJobService;
+
+    @Autowired
+    @Lazy
+    private RescanService rescanService;
+
+    @Autowired
+    private TermIndexer termIndexer;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private StorageMaintenance storageMaintenance;
+
+    @Autowired
+    private CheckMetrics checkMetrics;
+
+    @Autowired
+    private BlocklistRegistry blocklistRegistry;
+
+    @Autowired
+    private WordListCache wordListCache;
+
+    @Autowired
+    private RejectionRepository rejectionRepository;
+
     @PostConstruct
     public void init() {
 
@@ -41,23 +103,53 @@ public class NewsController {
         } catch (Exception e) {
             System.out.println("Error creating table: " + e);
         }
+
+        try {
+            rejectionRepository.createTable();
+        } catch (Exception e) {
+            System.out.println("Error creating rejected URLs table: " + e);
+        }
+
+        try {
+            storageMaintenance.warmUp();
+        } catch (Exception e) {
+            System.out.println("Error building URL filter: " + e);
+        }
     }
 
     /**
-     * Get all news
+     * Get a page of news. The "next" cursor of the response is passed as "after"
+     * to get the following page.
      * 
-     * @return List of news, 204 if the list is empty or 500 if error
+     * @param after id of the last news of the previous page
+     * @param limit page size, up to 1000
+     * @return Page of news, 204 if the page is empty, 400 if the limit is not
+     *         valid or 500 if error
      */
     @GetMapping
-    public ResponseEntity<?> GetAllNews() {
+    public ResponseEntity<?> GetAllNews(@RequestParam(required = false) Integer after,
+            @RequestParam(required = false) Integer limit) {
+        int pageSize = limit != null ? limit : DEFAULT_PAGE_SIZE;
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("Error", "The limit must be between 1 and " + MAX_PAGE_SIZE));
+        }
+
         try {
-            List<News> news = h2Repository.readAll();
+            List<News> news = h2Repository.readPage(after, pageSize);
 
             if (news.isEmpty()) {
                 return ResponseEntity.status(HttpStatus.NO_CONTENT).build();
             }
 
-            return ResponseEntity.ok(Map.of("All news", news));
+            // The list goes first, the frontend reads the first value
+            Map<String, Object> body = new LinkedHashMap<>();
+            body.put("All news", news);
+            if (news.size() == pageSize) {
+                body.put("next", news.get(news.size() - 1).getId());
+            }
+
+            return ResponseEntity.ok(body);
         } catch (Exception e) {
             System.out.println("Error getting all news: " + e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -65,6 +157,33 @@ public class NewsController {
         }
     }
 
+    /**
+     * Export all news as NDJSON, one news per line. Rows are written to the
+     * response as they are read from the database.
+     * 
+     * @return streamed news
+     */
+    @GetMapping(value = "/export", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> exportNews() {
+        StreamingResponseBody body = out -> {
+            try {
+                h2Repository.forEach(news -> {
+                    try {
+                        out.write(objectMapper.writeValueAsBytes(news));
+                        out.write('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (Exception e) {
+                System.out.println("Error exporting news: " + e);
+                throw new IOException("Error exporting news: " + e.getMessage(), e);
+            }
+        };
+
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON)).body(body);
+    }
+
     /**
      * Get a new by url
      * 
@@ -92,7 +211,8 @@ public class NewsController {
      * Check if a word is in a URL. If found, return a message, otherwise, add the
      * news to the database.
      *
-     * @param entity Request body containing the URL and words to check.
+     * @param entity Request body containing the URL and the words to check, or
+     *               the id of a stored blocklist.
      * @return 201 if created, 409 if already exists, 500 if an error occurs, 200 if
      *         the word is in the URL.
      */
@@ -101,15 +221,21 @@ public class NewsController {
         boolean found;
         String word;
         News news = new News();
+        Timer.Sample check = checkMetrics.start();
 
         try {
-            ArrayList<Object> aux = newsCheck.searchWordsInUrl((String) entity.get("url"),
-                    (ArrayList<String>) entity.get("words"));
+            ArrayList<Object> aux = entity.get("blocklist") != null
+                    ? newsCheck.searchInUrl((String) entity.get("url"),
+                            blocklistRegistry.require(entity.get("blocklist")))
+                    : newsCheck.searchWordsInUrl((String) entity.get("url"),
+                            (ArrayList<String>) entity.get("words"));
             found = (Boolean) aux.get(0);
             word = (String) aux.get(1);
+            news.setText(aux.size() > 2 ? (String) aux.get(2) : null);
 
         } catch (Exception e) {
             System.out.println("Error checking word in URL: " + e);
+            checkMetrics.checked((String) entity.get("url"), check, HttpStatus.INTERNAL_SERVER_ERROR.value());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(Map.of("Error", "Error checking word in URL: " + e.getMessage()));
         }
@@ -117,39 +243,304 @@ public class NewsController {
         news.setUrl(entity.get("url").toString());
         news.setAuthorized(true);
 
+        Timer.Sample store = checkMetrics.start();
         try {
             int aux = h2Repository.create(news, found);
+            checkMetrics.stored("create", store, true);
+            CheckVerdict verdict = CheckVerdict.fromOutcome(news.getUrl(), aux, word);
+            checkMetrics.checked(news.getUrl(), check, verdict.getStatus());
 
-            switch (aux) {
-                case -2:
-                    return ResponseEntity.status(HttpStatus.CONFLICT)
-                            .body(Map.of("Error", "ALERT: '" + word + "' was found in an indexed URL"));
-                case -1:
-                    return ResponseEntity.ok(Map.of("state", "Rejected because '" + word + "' found"));
-                case 0:
-                    return ResponseEntity.status(HttpStatus.CONFLICT)
-                            .body(Map.of("Error", "The news with URL '" + news.getUrl() + "' already exists"));
-                case 1:
-                    URI location = ServletUriComponentsBuilder.fromCurrentRequest()
-                            .path("/{url}")
-                            .buildAndExpand(news.getUrl())
-                            .toUri();
-
-                    return ResponseEntity.created(location).body(Map.of("state", "Accepted."));
-
-                default:
-                    return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                            .body(Map.of("Error", "Error creating news: Unknown error"));
+            if (verdict.getStatus() == HttpStatus.CREATED.value()) {
+                URI location = ServletUriComponentsBuilder.fromCurrentRequest()
+                        .path("/{url}")
+                        .buildAndExpand(news.getUrl())
+                        .toUri();
+
+                return ResponseEntity.created(location).body(verdict.toBody());
             }
 
+            return ResponseEntity.status(verdict.getStatus()).body(verdict.toBody());
+
         } catch (Exception e) {
             System.out.println("Error creating news: " + e);
+            checkMetrics.stored("create", store, false);
+            checkMetrics.checked(news.getUrl(), check, HttpStatus.INTERNAL_SERVER_ERROR.value());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(Map.of("Error", "Error creating news: " + e.getMessage()));
         }
 
     }
 
+    /**
+     * Check many URLs against the same words. Accepted URLs are added to the
+     * database in a single transaction.
+     *
+     * @param entity Request body containing the URLs and the words to check, or
+     *               the id of a stored blocklist.
+     * @return 200 with the verdict of each URL, 400 if the lists are not valid or
+     *         500 if an error occurs
+     */
+    @PostMapping("/check/batch")
+    public ResponseEntity<?> postNewsBatch(@RequestBody Map<String, ?> entity) {
+        try {
+            List<CheckVerdict> results = entity.get("blocklist") != null
+                    ? newsBatchCheck.check((List<String>) entity.get("urls"),
+                            blocklistRegistry.require(entity.get("blocklist")))
+                    : newsBatchCheck.check((List<String>) entity.get("urls"), (List<String>) entity.get("words"));
+
+            return ResponseEntity.ok(Map.of("results", results));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("Error", e.getMessage()));
+        } catch (Exception e) {
+            System.out.println("Error checking batch: " + e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("Error", "Error checking batch: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Queue the check of a URL. The verdict is polled at the returned location.
+     *
+     * @param entity Request body containing the URL and the words to check, or
+     *               the id of a stored blocklist.
+     * @return 202 with the job id, 400 if the request is not valid, 503 if too
+     *         many jobs are pending or 500 if an error occurs
+     */
+    @PostMapping("/check/async")
+    public ResponseEntity<?> postNewsAsync(@RequestBody Map<String, ?> entity) {
+        try {
+            CheckJob job = entity.get("blocklist") != null
+                    ? checkJobService.submit((String) entity.get("url"),
+                            blocklistRegistry.require(entity.get("blocklist")))
+                    : checkJobService.submit((String) entity.get("url"), (List<String>) entity.get("words"));
+
+            URI location = ServletUriComponentsBuilder.fromCurrentContextPath()
+                    .path("/api/v1/content/check/jobs/{id}")
+                    .buildAndExpand(job.getId())
+                    .toUri();
+
+            return ResponseEntity.accepted().location(location).body(Map.of("jobId", job.getId()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("Error", e.getMessage()));
+        } catch (IllegalStateException | RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(Map.of("Error", "Too many pending checks, try again later"));
+        } catch (Exception e) {
+            System.out.println("Error queuing check: " + e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("Error", "Error queuing check: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Get the state of a check job
+     *
+     * @param id job id
+     * @return job with its verdict once done, or 404 if not found or expired
+     */
+    @GetMapping("/check/jobs/{id}")
+    public ResponseEntity<?> getCheckJob(@PathVariable String id) {
+        CheckJob job = checkJobService.get(id);
+
+        if (job == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("Error", "The job '" + id + "' does not exist or has expired"));
+        }
+
+        return ResponseEntity.ok(job);
+    }
+
+    /**
+     * Check an indexed URL again against its stored page text, without
+     * downloading it. The news is not modified.
+     *
+     * @param entity Request body containing the URL and the words to check, or
+     *               the id of a stored blocklist.
+     * @return 200 with whether a word was found and the word, 404 if the URL has
+     *         no snapshot, 400 if the request is not valid or 500 if an error
+     *         occurs
+     */
+    @PostMapping("/recheck")
+    public ResponseEntity<?> recheckNews(@RequestBody Map<String, ?> entity) {
+        try {
+            String url = (String) entity.get("url");
+            if (url == null || url.isBlank()) {
+                throw new IllegalArgumentException("URL cannot be null or empty");
+            }
+
+            WordMatcher matcher = entity.get("blocklist") != null
+                    ? blocklistRegistry.require(entity.get("blocklist"))
+                    : wordListCache.get((List<String>) entity.get("words"));
+
+            String text = h2Repository.readSnapshot(url);
+            if (text == null) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(Map.of("Error", "The URL '" + url + "' has no stored snapshot"));
+            }
+
+            Timer.Sample phase = checkMetrics.start();
+            String word = matcher.firstMatch(text);
+            checkMetrics.matched(url, phase, word != null, text.length());
+
+            return ResponseEntity.ok(Map.of("url", url, "found", word != null, "word", word != null ? word : ""));
+        } catch (IllegalArgumentException | ClassCastException e) {
+            return ResponseEntity.badRequest().body(Map.of("Error", e.getMessage()));
+        } catch (Exception e) {
+            System.out.println("Error rechecking new: " + e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("Error", "Error rechecking new: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Find the indexed pages that contain some terms, with the term index and
+     * without downloading them
+     *
+     * @param term  terms to search, whole words
+     * @param mode  "all" if every term must be found, "any" for one of them
+     * @param limit maximum number of news returned, up to 1000
+     * @return 200 with the total and the first news found, 400 if the terms are
+     *         not valid, 503 if the term index is disabled or 500 if an error
+     *         occurs
+     */
+    @GetMapping("/search")
+    public ResponseEntity<?> searchTerms(@RequestParam(required = false) List<String> term,
+            @RequestParam(required = false, defaultValue = "all") String mode,
+            @RequestParam(required = false) Integer limit) {
+        if (!termIndexer.isEnabled()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(Map.of("Error", "The term index is disabled"));
+        }
+        if (!mode.equals("all") && !mode.equals("any")) {
+            return ResponseEntity.badRequest().body(Map.of("Error", "The mode must be all or any"));
+        }
+
+        try {
+            return searchResults(termIndexer.search(term, mode.equals("all")), limit);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("Error", e.getMessage()));
+        } catch (Exception e) {
+            System.out.println("Error searching terms: " + e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("Error", "Error searching terms: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Find the indexed pages where a check would find a word of a list, with the
+     * term index and without downloading them
+     *
+     * @param entity Request body containing the words, or the id of a stored
+     *               blocklist, and optionally the limit.
+     * @return 200 with the total and the first news found, 400 if the words are
+     *         not valid, 503 if the term index is disabled or 500 if an error
+     *         occurs
+     */
+    @PostMapping("/search")
+    public ResponseEntity<?> searchWords(@RequestBody Map<String, ?> entity) {
+        if (!termIndexer.isEnabled()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(Map.of("Error", "The term index is disabled"));
+        }
+
+        try {
+            WordMatcher matcher = entity.get("blocklist") != null
+                    ? blocklistRegistry.require(entity.get("blocklist"))
+                    : wordListCache.get((List<String>) entity.get("words"));
+
+            return searchResults(termIndexer.containing(matcher), (Integer) entity.get("limit"));
+        } catch (IllegalArgumentException | ClassCastException e) {
+            return ResponseEntity.badRequest().body(Map.of("Error", e.getMessage()));
+        } catch (Exception e) {
+            System.out.println("Error searching words: " + e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("Error", "Error searching words: " + e.getMessage()));
+        }
+    }
+
+    private ResponseEntity<?> searchResults(int[] ids, Integer limit) throws Exception {
+        int size = limit != null ? limit : DEFAULT_PAGE_SIZE;
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("The limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("total", ids.length);
+        body.put("indexedUpTo", termIndexer.indexedUpTo());
+        body.put("results", h2Repository.readByIds(Arrays.copyOf(ids, Math.min(ids.length, size))));
+        return ResponseEntity.ok(body);
+    }
+
+    /**
+     * Start a rescan of every authorized news with the words added to a list.
+     * News where one of them is found are marked as not authorized.
+     *
+     * @param entity Request body containing the new words, or the id of a stored
+     *               blocklist to search all its words.
+     * @return 202 with the job, 400 if the words are not valid, 409 if a rescan
+     *         is already running or 500 if an error occurs
+     */
+    @PostMapping("/rescan")
+    public ResponseEntity<?> postRescan(@RequestBody Map<String, ?> entity) {
+        try {
+            RescanJob job;
+            if (entity.get("blocklist") != null) {
+                WordMatcher matcher = blocklistRegistry.require(entity.get("blocklist"));
+                job = rescanService.start(matcher, matcher.size());
+            } else {
+                job = rescanService.start((List<String>) entity.get("words"));
+            }
+
+            URI location = ServletUriComponentsBuilder.fromCurrentContextPath()
+                    .path("/api/v1/content/rescan")
+                    .build()
+                    .toUri();
+
+            return ResponseEntity.accepted().location(location).body(job);
+        } catch (IllegalArgumentException | ClassCastException e) {
+            return ResponseEntity.badRequest().body(Map.of("Error", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("Error", e.getMessage()));
+        } catch (Exception e) {
+            System.out.println("Error starting rescan: " + e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("Error", "Error starting rescan: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Get the progress of the running rescan, or the result of the last one
+     *
+     * @return job with its counters, throughput and ETA, 404 if no rescan was
+     *         started
+     */
+    @GetMapping("/rescan")
+    public ResponseEntity<?> getRescan() {
+        RescanJob job = rescanService.current();
+
+        if (job == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("Error", "No rescan has been started"));
+        }
+
+        return ResponseEntity.ok(job);
+    }
+
+    /**
+     * Stop the running rescan. News already marked stay marked.
+     *
+     * @return 200 with the job, 404 if no rescan is running
+     */
+    @DeleteMapping("/rescan")
+    public ResponseEntity<?> deleteRescan() {
+        RescanJob job = rescanService.cancel();
+
+        if (job == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("Error", "No rescan is running"));
+        }
+
+        return ResponseEntity.ok(job);
+    }
+
     /**
      * Delete a new by id
      * 
@@ -0,0 +1,89 @@
+package IndexingSystem.models;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Named word list stored on the server. Check requests reference it by id
+ * instead of sending the words. Listings carry the size but not the words.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class Blocklist {
+    private Integer id;
+    private String name;
+    private List<String> words;
+    private Integer size;
+    private Long version;
+    private LocalDateTime updatedAt;
+
+    public Blocklist() {
+    }
+
+    public Blocklist(String name, List<String> words) {
+        this.name = name;
+        this.words = words;
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    public void setId(Integer id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public List<String> getWords() {
+        return words;
+    }
+
+    public void setWords(List<String> words) {
+        this.words = words;
+    }
+
+    public Integer getSize() {
+        return size;
+    }
+
+    public void setSize(Integer size) {
+        this.size = size;
+    }
+
+    /**
+     * @return number increased on every update of the list
+     */
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    @Override
+    public String toString() {
+        return "Blocklist{" +
+                "id=" + id +
+                ", name='" + name + '\'' +
+                ", size=" + size +
+                ", version=" + version +
+                '}';
+    }
+}
@@ -0,0 +1,104 @@
+package IndexingSystem.models;
+
+import java.time.Instant;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Check of a URL that runs in the background. The verdict is set when the job
+ * is done.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CheckJob {
+
+    public enum Status {
+        PENDING, RUNNING, DONE
+    }
+
+    private String id;
+    private String url;
+    private volatile Status status;
+    private volatile CheckVerdict verdict;
+    private Instant createdAt;
+    private volatile Instant finishedAt;
+
+    public CheckJob() {
+    }
+
+    public CheckJob(String id, String url, Instant createdAt) {
+        this.id = id;
+        this.url = url;
+        this.status = Status.PENDING;
+        this.createdAt = createdAt;
+    }
+
+    /**
+     * Mark the job as done with its verdict
+     * 
+     * @param verdict
+     * @param finishedAt
+     */
+    public void finish(CheckVerdict verdict, Instant finishedAt) {
+        this.verdict = verdict;
+        this.finishedAt = finishedAt;
+        this.status = Status.DONE;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public void setUrl(String url) {
+        this.url = url;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public CheckVerdict getVerdict() {
+        return verdict;
+    }
+
+    public void setVerdict(CheckVerdict verdict) {
+        this.verdict = verdict;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(Instant finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+
+    @Override
+    public String toString() {
+        return "CheckJob{" +
+                "id='" + id + '\'' +
+                ", url='" + url + '\'' +
+                ", status=" + status +
+                ", verdict=" + verdict +
+                '}';
+    }
+}
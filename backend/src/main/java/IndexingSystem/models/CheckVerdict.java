@@ -0,0 +1,104 @@
+package IndexingSystem.models;
+
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Result of checking a URL, with the HTTP status and message that POST
+ * /api/v1/content/check answers for it
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CheckVerdict {
+    private String url;
+    private int status;
+    private String state;
+    private String error;
+
+    public CheckVerdict() {
+    }
+
+    public CheckVerdict(String url, int status, String state, String error) {
+        this.url = url;
+        this.status = status;
+        this.state = state;
+        this.error = error;
+    }
+
+    /**
+     * Build the verdict of a value returned by H2Repository.create
+     *
+     * @param url
+     * @param outcome 1 if created, -1 if found, -2 if found and already exists, 0
+     *                if already exists
+     * @param word    word found in the page
+     * @return verdict
+     */
+    public static CheckVerdict fromOutcome(String url, int outcome, String word) {
+        switch (outcome) {
+            case -2:
+                return new CheckVerdict(url, 409, null, "ALERT: '" + word + "' was found in an indexed URL");
+            case -1:
+                return new CheckVerdict(url, 200, "Rejected because '" + word + "' found", null);
+            case 0:
+                return new CheckVerdict(url, 409, null, "The news with URL '" + url + "' already exists");
+            case 1:
+                return new CheckVerdict(url, 201, "Accepted.", null);
+            default:
+                return error(url, "Error creating news: Unknown error");
+        }
+    }
+
+    public static CheckVerdict error(String url, String error) {
+        return new CheckVerdict(url, 500, null, error);
+    }
+
+    /**
+     * @return body of the single check response
+     */
+    public Map<String, String> toBody() {
+        return state != null ? Map.of("state", state) : Map.of("Error", error);
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public void setUrl(String url) {
+        this.url = url;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public void setStatus(int status) {
+        this.status = status;
+    }
+
+    public String getState() {
+        return state;
+    }
+
+    public void setState(String state) {
+        this.state = state;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    @Override
+    public String toString() {
+        return "CheckVerdict{" +
+                "url='" + url + '\'' +
+                ", status=" + status +
+                ", state='" + state + '\'' +
+                ", error='" + error + '\'' +
+                '}';
+    }
+}
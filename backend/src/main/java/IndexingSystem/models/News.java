@@ -1,8 +1,18 @@
 package IndexingSystem.models;
 
+import java.time.LocalDateTime;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 public class News {
+    private Integer id;
     private String url;
     private Boolean authorized;
+    private LocalDateTime createdAt;
+
+    // Page text to store as a snapshot when the new is created
+    @JsonIgnore
+    private String text;
 
     public News() {
     }
@@ -12,6 +22,14 @@ public class News {
         this.authorized = authorized;
     }
 
+    public Integer getId() {
+        return id;
+    }
+
+    public void setId(Integer id) {
+        this.id = id;
+    }
+
     public String getUrl() {
         return url;
     }
@@ -28,6 +46,22 @@ public class News {
         this.authorized = authorized;
     }
 
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public void setText(String text) {
+        this.text = text;
+    }
+
     @Override
     public String toString() {
         return "New{" +
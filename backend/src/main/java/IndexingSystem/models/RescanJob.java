@@ -0,0 +1,190 @@
+package IndexingSystem.models;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Rescan of the authorized news with a word list. The counters are updated by
+ * the workers while the job runs, throughput and ETA are derived from them.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class RescanJob {
+
+    public enum Status {
+        RUNNING, DONE, CANCELLED, FAILED
+    }
+
+    private final String id;
+    private final int terms;
+    private final long total;
+    private final Instant startedAt;
+    private volatile Status status;
+    private volatile Instant finishedAt;
+    private volatile String error;
+
+    private final AtomicLong scanned = new AtomicLong();
+    private final AtomicLong fromSnapshot = new AtomicLong();
+    private final AtomicLong fetched = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private final AtomicLong revoked = new AtomicLong();
+
+    /**
+     * @param id        job id
+     * @param terms     number of words searched
+     * @param total     authorized news when the job started
+     * @param startedAt
+     */
+    public RescanJob(String id, int terms, long total, Instant startedAt) {
+        this.id = id;
+        this.terms = terms;
+        this.total = total;
+        this.startedAt = startedAt;
+        this.status = Status.RUNNING;
+    }
+
+    /**
+     * Count a news checked against its stored page text
+     */
+    public void scannedFromSnapshot() {
+        fromSnapshot.incrementAndGet();
+        scanned.incrementAndGet();
+    }
+
+    /**
+     * Count a news whose page was downloaded again
+     */
+    public void scannedFromFetch() {
+        fetched.incrementAndGet();
+        scanned.incrementAndGet();
+    }
+
+    /**
+     * Count a news that has no snapshot and was not downloaded
+     */
+    public void skipped() {
+        skipped.incrementAndGet();
+        scanned.incrementAndGet();
+    }
+
+    /**
+     * Count a news whose page could not be downloaded
+     */
+    public void failed() {
+        errors.incrementAndGet();
+        scanned.incrementAndGet();
+    }
+
+    public void revoked(long count) {
+        revoked.addAndGet(count);
+    }
+
+    /**
+     * Mark the job as finished
+     *
+     * @param status     DONE, CANCELLED or FAILED
+     * @param error      cause of a failure, null otherwise
+     * @param finishedAt
+     */
+    public void finish(Status status, String error, Instant finishedAt) {
+        this.error = error;
+        this.finishedAt = finishedAt;
+        this.status = status;
+    }
+
+    @JsonIgnore
+    public boolean isRunning() {
+        return status == Status.RUNNING;
+    }
+
+    /**
+     * @return news scanned per second, up to now or to the end of the job
+     */
+    public double getThroughput() {
+        Instant end = finishedAt != null ? finishedAt : Instant.now();
+        double seconds = Duration.between(startedAt, end).toMillis() / 1000.0;
+        if (seconds <= 0) {
+            return 0;
+        }
+        return Math.round(scanned.get() / seconds * 10) / 10.0;
+    }
+
+    /**
+     * @return estimated seconds left at the current throughput, null if the job
+     *         is not running or nothing was scanned yet
+     */
+    public Long getEtaSeconds() {
+        double throughput = getThroughput();
+        if (!isRunning() || throughput == 0) {
+            return null;
+        }
+        // News inserted after the start are scanned too, so the total is a floor
+        return Math.round(Math.max(0, total - scanned.get()) / throughput);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public int getTerms() {
+        return terms;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public long getScanned() {
+        return scanned.get();
+    }
+
+    public long getFromSnapshot() {
+        return fromSnapshot.get();
+    }
+
+    public long getFetched() {
+        return fetched.get();
+    }
+
+    public long getSkipped() {
+        return skipped.get();
+    }
+
+    public long getErrors() {
+        return errors.get();
+    }
+
+    public long getRevoked() {
+        return revoked.get();
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    @Override
+    public String toString() {
+        return "RescanJob{" +
+                "id='" + id + '\'' +
+                ", status=" + status +
+                ", scanned=" + scanned +
+                ", revoked=" + revoked +
+                '}';
+    }
+}
@@ -0,0 +1,256 @@
+package IndexingSystem.repository;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+
+import IndexingSystem.models.Blocklist;
+
+/**
+ * Blocklists stored in the same database as the indexed news. The words of a
+ * list are rows of blocklist_words in list order.
+ */
+@Repository
+public class BlocklistRepository {
+
+    private static final String UNIQUE_VIOLATION = "23505";
+
+    @Autowired
+    private ConnectionDBRepository connection;
+
+    public void createTable() throws Exception {
+        try (Connection conn = connection.getConnection();
+                Statement stmt = conn.createStatement()) {
+            stmt.execute(
+                    "CREATE TABLE IF NOT EXISTS blocklists (id INT AUTO_INCREMENT PRIMARY KEY, name VARCHAR(255) NOT NULL UNIQUE, version BIGINT DEFAULT 1 NOT NULL, updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP)");
+            stmt.execute(
+                    "CREATE TABLE IF NOT EXISTS blocklist_words (blocklist_id INT NOT NULL REFERENCES blocklists(id) ON DELETE CASCADE, word_order INT NOT NULL, word VARCHAR(255) NOT NULL, PRIMARY KEY (blocklist_id, word_order))");
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Create a blocklist with its words in one transaction
+     *
+     * @param blocklist name and words
+     * @return id of the new list, -1 if the name already exists
+     * @throws Exception
+     */
+    public int create(Blocklist blocklist) throws Exception {
+        try (Connection conn = connection.getConnection()) {
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+
+            try {
+                int id;
+                try (PreparedStatement stmt = conn.prepareStatement("INSERT INTO blocklists (name) VALUES (?)",
+                        Statement.RETURN_GENERATED_KEYS)) {
+                    stmt.setString(1, blocklist.getName());
+                    stmt.executeUpdate();
+                    try (ResultSet keys = stmt.getGeneratedKeys()) {
+                        keys.next();
+                        id = keys.getInt(1);
+                    }
+                }
+
+                insertWords(conn, id, blocklist.getWords());
+                conn.commit();
+                return id;
+            } catch (SQLException e) {
+                conn.rollback();
+                if (UNIQUE_VIOLATION.equals(e.getSQLState())) {
+                    return -1;
+                }
+                throw e;
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Read a blocklist with its words
+     *
+     * @param id
+     * @return blocklist or null if not found
+     * @throws Exception
+     */
+    public Blocklist read(int id) throws Exception {
+        try (Connection conn = connection.getConnection();
+                PreparedStatement stmt = conn
+                        .prepareStatement("SELECT id, name, version, updated_at FROM blocklists WHERE id = ?")) {
+
+            stmt.setInt(1, id);
+            Blocklist blocklist;
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (!rs.next()) {
+                    return null;
+                }
+                blocklist = mapRow(rs);
+            }
+
+            List<String> words = new ArrayList<>();
+            try (PreparedStatement wordsStmt = conn
+                    .prepareStatement("SELECT word FROM blocklist_words WHERE blocklist_id = ? ORDER BY word_order")) {
+                wordsStmt.setInt(1, id);
+                try (ResultSet rs = wordsStmt.executeQuery()) {
+                    while (rs.next()) {
+                        words.add(rs.getString(1));
+                    }
+                }
+            }
+            blocklist.setWords(words);
+            blocklist.setSize(words.size());
+            return blocklist;
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Read every blocklist without its words
+     *
+     * @return blocklists ordered by id, with their size
+     * @throws Exception
+     */
+    public List<Blocklist> readAll() throws Exception {
+        String sql = "SELECT b.id, b.name, b.version, b.updated_at, COUNT(w.word) AS size FROM blocklists b "
+                + "LEFT JOIN blocklist_words w ON w.blocklist_id = b.id GROUP BY b.id, b.name, b.version, b.updated_at ORDER BY b.id";
+
+        try (Connection conn = connection.getConnection();
+                Statement stmt = conn.createStatement();
+                ResultSet rs = stmt.executeQuery(sql)) {
+            List<Blocklist> blocklists = new ArrayList<>();
+
+            while (rs.next()) {
+                Blocklist blocklist = mapRow(rs);
+                blocklist.setSize(rs.getInt("size"));
+                blocklists.add(blocklist);
+            }
+            return blocklists;
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Read the version of every blocklist, to find the lists changed since they
+     * were loaded
+     *
+     * @return version of each list by id
+     * @throws Exception
+     */
+    public Map<Integer, Long> readVersions() throws Exception {
+        try (Connection conn = connection.getConnection();
+                Statement stmt = conn.createStatement();
+                ResultSet rs = stmt.executeQuery("SELECT id, version FROM blocklists")) {
+            Map<Integer, Long> versions = new HashMap<>();
+
+            while (rs.next()) {
+                versions.put(rs.getInt("id"), rs.getLong("version"));
+            }
+            return versions;
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Replace the name and the words of a blocklist in one transaction and
+     * increase its version
+     *
+     * @param id
+     * @param blocklist new name and words
+     * @return 1 if updated, 0 if not found, -1 if the name belongs to another list
+     * @throws Exception
+     */
+    public int update(int id, Blocklist blocklist) throws Exception {
+        try (Connection conn = connection.getConnection()) {
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+
+            try {
+                try (PreparedStatement stmt = conn.prepareStatement(
+                        "UPDATE blocklists SET name = ?, version = version + 1, updated_at = CURRENT_TIMESTAMP WHERE id = ?")) {
+                    stmt.setString(1, blocklist.getName());
+                    stmt.setInt(2, id);
+                    if (stmt.executeUpdate() == 0) {
+                        conn.rollback();
+                        return 0;
+                    }
+                }
+
+                try (PreparedStatement stmt = conn.prepareStatement("DELETE FROM blocklist_words WHERE blocklist_id = ?")) {
+                    stmt.setInt(1, id);
+                    stmt.executeUpdate();
+                }
+                insertWords(conn, id, blocklist.getWords());
+                conn.commit();
+                return 1;
+            } catch (SQLException e) {
+                conn.rollback();
+                if (UNIQUE_VIOLATION.equals(e.getSQLState())) {
+                    return -1;
+                }
+                throw e;
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Delete a blocklist and its words
+     *
+     * @param id
+     * @return 1 if deleted, 0 if not found
+     * @throws Exception
+     */
+    public int delete(int id) throws Exception {
+        try (Connection conn = connection.getConnection();
+                PreparedStatement stmt = conn.prepareStatement("DELETE FROM blocklists WHERE id = ?")) {
+
+            stmt.setInt(1, id);
+            return stmt.executeUpdate();
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private void insertWords(Connection conn, int id, List<String> words) throws SQLException {
+        try (PreparedStatement stmt = conn
+                .prepareStatement("INSERT INTO blocklist_words (blocklist_id, word_order, word) VALUES (?, ?, ?)")) {
+            for (int i = 0; i < words.size(); i++) {
+                stmt.setInt(1, id);
+                stmt.setInt(2, i);
+                stmt.setString(3, words.get(i));
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+    }
+
+    private Blocklist mapRow(ResultSet rs) throws SQLException {
+        Blocklist blocklist = new Blocklist();
+        blocklist.setId(rs.getInt("id"));
+        blocklist.setName(rs.getString("name"));
+        blocklist.setVersion(rs.getLong("version"));
+        blocklist.setUpdatedAt(rs.getObject("updated_at", LocalDateTime.class));
+        return blocklist;
+    }
+}
@@ -0,0 +1,129 @@
+package IndexingSystem.repository;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size Bloom filter of strings. Adding and testing are lock-free, so it
+ * can be read while other threads add to it.
+ */
+public class BloomFilter {
+    private static final double LN2 = Math.log(2);
+
+    private final AtomicLongArray words;
+    private final long bits;
+    private final int hashes;
+
+    /**
+     * @param expected          number of strings the filter is sized for
+     * @param falsePositiveRate wanted probability of a false positive once
+     *                          expected strings are added
+     */
+    public BloomFilter(long expected, double falsePositiveRate) {
+        if (expected < 1) {
+            expected = 1;
+        }
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("The false positive rate must be between 0 and 1");
+        }
+
+        long optimal = (long) Math.ceil(-expected * Math.log(falsePositiveRate) / (LN2 * LN2));
+        int length = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(1, (optimal + 63) / 64));
+
+        this.words = new AtomicLongArray(length);
+        this.bits = (long) length * 64;
+        this.hashes = (int) Math.max(1, Math.round((double) bits / expected * LN2));
+    }
+
+    private BloomFilter(AtomicLongArray words, int hashes) {
+        this.words = words;
+        this.bits = (long) words.length() * 64;
+        this.hashes = hashes;
+    }
+
+    public void put(String value) {
+        long h1 = hash(value);
+        long h2 = mix(h1 ^ 0x9E3779B97F4A7C15L) | 1;
+
+        for (int i = 0; i < hashes; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bits);
+            int index = (int) (bit >>> 6);
+            long mask = 1L << bit;
+
+            long word = words.get(index);
+            while ((word & mask) == 0 && !words.compareAndSet(index, word, word | mask)) {
+                word = words.get(index);
+            }
+        }
+    }
+
+    /**
+     * @return false if the value was never added, true if it probably was
+     */
+    public boolean mightContain(String value) {
+        long h1 = hash(value);
+        long h2 = mix(h1 ^ 0x9E3779B97F4A7C15L) | 1;
+
+        for (int i = 0; i < hashes; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bits);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public long bitSize() {
+        return bits;
+    }
+
+    public int hashCount() {
+        return hashes;
+    }
+
+    /**
+     * Write the filter, values added while writing may be left out
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeInt(hashes);
+        out.writeInt(words.length());
+        for (int i = 0; i < words.length(); i++) {
+            out.writeLong(words.get(i));
+        }
+    }
+
+    public static BloomFilter readFrom(DataInput in) throws IOException {
+        int hashes = in.readInt();
+        int length = in.readInt();
+        if (hashes < 1 || length < 1) {
+            throw new IOException("Invalid Bloom filter");
+        }
+
+        AtomicLongArray words = new AtomicLongArray(length);
+        for (int i = 0; i < length; i++) {
+            words.set(i, in.readLong());
+        }
+        return new BloomFilter(words, hashes);
+    }
+
+    // FNV-1a over the chars, finished with the MurmurHash3 mixer
+    private static long hash(String value) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            h ^= value.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        return mix(h);
+    }
+
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
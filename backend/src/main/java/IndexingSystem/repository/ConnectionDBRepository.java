@@ -2,6 +2,9 @@ package IndexingSystem.repository;
 
 import java.sql.Connection;
 
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Repository;
 
@@ -13,11 +16,19 @@ public class ConnectionDBRepository {
     private String username;
     private String password;
 
+    // Pool configured by Spring Boot from the same spring.datasource.* properties
+    @Autowired
+    private DataSource dataSource;
+
+    /**
+     * Borrow a connection from the pool. It must be closed to return it.
+     * 
+     * @return connection or null if error
+     */
     public Connection getConnection() {
         Connection connection = null;
         try {
-            Class.forName(driverClassName);
-            connection = java.sql.DriverManager.getConnection(url, username, password);
+            connection = dataSource.getConnection();
         } catch (Exception e) {
             System.out.println("Error getting connection: " + e);
         }
@@ -1,11 +1,24 @@
 package IndexingSystem.repository;
 
+import java.nio.file.Path;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -14,21 +27,154 @@ import IndexingSystem.models.News;
 @Repository
 public class H2Repository {
 
+    private static final String UNIQUE_VIOLATION = "23505";
+
+    private static final int FETCH_SIZE = 1000;
+
+    private static final String MERGE_SQL = "MERGE INTO authorized_news t USING (VALUES (CAST(? AS BINARY(16)), CAST(? AS VARCHAR(2048)), CAST(? AS BOOLEAN))) "
+            + "s(url_hash, url, authorized) ON t.url_hash = s.url_hash WHEN NOT MATCHED THEN "
+            + "INSERT (url_hash, url, authorized) VALUES (s.url_hash, s.url, s.authorized)";
+
+    // The snapshot is appended once the row is inserted, so a duplicate does
+    // not write a copy that no row points to
+    private static final String SNAPSHOT_SQL = "UPDATE authorized_news SET snapshot_segment = ?, snapshot_offset = ? WHERE url_hash = ?";
+
     @Autowired
     private ConnectionDBRepository connection;
 
+    @Autowired
+    private UrlFilter urlFilter;
+
+    @Autowired
+    private UrlCanonicalizer urlCanonicalizer;
+
+    @Autowired
+    private SnapshotStore snapshotStore;
+
     public void createTable() throws Exception {
-        try {
-            connection.getConnection().createStatement().execute(
-                    "CREATE TABLE IF NOT EXISTS authorized_news (id INT AUTO_INCREMENT PRIMARY KEY, url VARCHAR(255), authorized BOOLEAN, created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP)");
+        try (Connection conn = connection.getConnection();
+                Statement stmt = conn.createStatement()) {
+            stmt.execute(
+                    "CREATE TABLE IF NOT EXISTS authorized_news (id INT AUTO_INCREMENT PRIMARY KEY, url_hash BINARY(16) NOT NULL UNIQUE, url VARCHAR(2048), authorized BOOLEAN, created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP, snapshot_segment INT, snapshot_offset BIGINT)");
+            // Tables created before the snapshots were stored
+            stmt.execute("ALTER TABLE authorized_news ADD COLUMN IF NOT EXISTS snapshot_segment INT");
+            stmt.execute("ALTER TABLE authorized_news ADD COLUMN IF NOT EXISTS snapshot_offset BIGINT");
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Load every indexed URL into a new Bloom filter and replace the current one,
+     * dropping the URLs deleted since the last build
+     * 
+     * @throws Exception
+     */
+    @Scheduled(fixedDelayString = "${indexing.url-filter.rebuild-interval:1h}", initialDelayString = "${indexing.url-filter.rebuild-interval:1h}")
+    public synchronized void rebuildUrlFilter() throws Exception {
+        try (Connection conn = connection.getConnection()) {
+            long count;
+            try (Statement stmt = conn.createStatement();
+                    ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM authorized_news")) {
+                rs.next();
+                count = rs.getLong(1);
+            }
+
+            BloomFilter filter = urlFilter.beginRebuild(count);
+            try (PreparedStatement stmt = conn.prepareStatement("SELECT url FROM authorized_news")) {
+                stmt.setFetchSize(FETCH_SIZE);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        filter.put(urlCanonicalizer.identity(rs.getString(1)));
+                    }
+                }
+            }
+            urlFilter.finishRebuild(filter);
+        } catch (Exception e) {
+            urlFilter.abortRebuild();
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Load the Bloom filter saved by saveUrlFilter and add the rows inserted
+     * after it. Without a usable snapshot the filter is rebuilt from the table.
+     * 
+     * @param snapshot snapshot file
+     * @throws Exception
+     */
+    public synchronized void loadUrlFilter(Path snapshot) throws Exception {
+        UrlFilter.Snapshot loaded = urlFilter.beginLoad(snapshot);
+        if (loaded == null) {
+            rebuildUrlFilter();
+            return;
+        }
+
+        try (Connection conn = connection.getConnection()) {
+            // A snapshot newer than the table belongs to another database
+            if (loaded.getLastId() > maxId(conn)) {
+                urlFilter.abortRebuild();
+                rebuildUrlFilter();
+                return;
+            }
+
+            try (PreparedStatement stmt = conn.prepareStatement("SELECT url FROM authorized_news WHERE id > ?")) {
+                stmt.setLong(1, loaded.getLastId());
+                stmt.setFetchSize(FETCH_SIZE);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        loaded.getFilter().put(urlCanonicalizer.identity(rs.getString(1)));
+                    }
+                }
+            }
+            urlFilter.finishRebuild(loaded.getFilter());
+        } catch (Exception e) {
+            urlFilter.abortRebuild();
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Save the Bloom filter so the next start does not read every URL
+     * 
+     * @param snapshot snapshot file
+     * @return false if the filter is not built yet
+     * @throws Exception
+     */
+    public boolean saveUrlFilter(Path snapshot) throws Exception {
+        try (Connection conn = connection.getConnection()) {
+            // Read before copying the filter, URLs are added to it before their insert
+            long lastId = maxId(conn);
+            return urlFilter.save(snapshot, lastId);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * @return highest news id, 0 if there are none
+     * @throws Exception
+     */
+    public long lastId() throws Exception {
+        try (Connection conn = connection.getConnection()) {
+            return maxId(conn);
         } catch (Exception e) {
             throw new RuntimeException(e);
         }
     }
 
+    private long maxId(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+                ResultSet rs = stmt.executeQuery("SELECT COALESCE(MAX(id), 0) FROM authorized_news")) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
     public List<News> readAll() throws Exception {
-        try {
-            ResultSet rs = connection.getConnection().createStatement().executeQuery("SELECT * FROM authorized_news");
+        try (Connection conn = connection.getConnection();
+                Statement stmt = conn.createStatement();
+                ResultSet rs = stmt.executeQuery("SELECT * FROM authorized_news")) {
             List<News> urls = new ArrayList<News>();
 
             while (rs.next()) {
@@ -41,7 +187,222 @@ public class H2Repository {
     }
 
     /**
-     * Read a new by url
+     * Read a page of news ordered by id, using the last id of the previous page
+     * as cursor
+     * 
+     * @param afterId last id of the previous page, null for the first page
+     * @param limit   maximum number of news
+     * @return news with an id greater than afterId
+     * @throws Exception
+     */
+    public List<News> readPage(Integer afterId, int limit) throws Exception {
+        String sql = "SELECT id, url, authorized, created_at FROM authorized_news WHERE id > ? ORDER BY id LIMIT ?";
+
+        try (Connection conn = connection.getConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, afterId != null ? afterId : 0);
+            stmt.setInt(2, limit);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                List<News> page = new ArrayList<>(limit);
+                while (rs.next()) {
+                    page.add(mapRow(rs));
+                }
+                return page;
+            }
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Read news by id
+     * 
+     * @param ids ids of the news
+     * @return news found, ordered by id
+     * @throws Exception
+     */
+    public List<News> readByIds(int[] ids) throws Exception {
+        if (ids.length == 0) {
+            return new ArrayList<>();
+        }
+
+        String sql = "SELECT id, url, authorized, created_at FROM authorized_news WHERE id = ANY(?) ORDER BY id";
+
+        try (Connection conn = connection.getConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setArray(1, conn.createArrayOf("INTEGER", Arrays.stream(ids).boxed().toArray()));
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                List<News> news = new ArrayList<>(ids.length);
+                while (rs.next()) {
+                    news.add(mapRow(rs));
+                }
+                return news;
+            }
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Stream every news to the consumer as rows are read, without building a
+     * list
+     * 
+     * @param consumer receives each news in id order
+     * @throws Exception
+     */
+    public void forEach(Consumer<News> consumer) throws Exception {
+        String sql = "SELECT id, url, authorized, created_at FROM authorized_news ORDER BY id";
+
+        try (Connection conn = connection.getConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setFetchSize(FETCH_SIZE);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    consumer.accept(mapRow(rs));
+                }
+            }
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * @return number of authorized news
+     * @throws Exception
+     */
+    public long countAuthorized() throws Exception {
+        try (Connection conn = connection.getConnection();
+                Statement stmt = conn.createStatement();
+                ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM authorized_news WHERE authorized = TRUE")) {
+            rs.next();
+            return rs.getLong(1);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Read a page of authorized news ordered by id, using the last id of the
+     * previous page as cursor
+     * 
+     * @param afterId last id of the previous page, null for the first page
+     * @param limit   maximum number of news
+     * @return authorized news with an id greater than afterId
+     * @throws Exception
+     */
+    public List<News> readAuthorizedPage(Integer afterId, int limit) throws Exception {
+        String sql = "SELECT id, url, authorized, created_at FROM authorized_news WHERE id > ? AND authorized = TRUE ORDER BY id LIMIT ?";
+
+        try (Connection conn = connection.getConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, afterId != null ? afterId : 0);
+            stmt.setInt(2, limit);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                List<News> page = new ArrayList<>(limit);
+                while (rs.next()) {
+                    page.add(mapRow(rs));
+                }
+                return page;
+            }
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Set the page text of a page of news from their snapshots, with a single
+     * query. News without a snapshot, or whose snapshot cannot be read, are left
+     * without text.
+     * 
+     * @param news news read by readAuthorizedPage, ordered by id
+     * @throws Exception
+     */
+    public void loadSnapshots(List<News> news) throws Exception {
+        if (news.isEmpty()) {
+            return;
+        }
+
+        Map<Integer, News> byId = new HashMap<>();
+        for (News item : news) {
+            byId.put(item.getId(), item);
+        }
+
+        String sql = "SELECT id, snapshot_segment, snapshot_offset FROM authorized_news WHERE id BETWEEN ? AND ? AND snapshot_segment IS NOT NULL";
+
+        try (Connection conn = connection.getConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, news.get(0).getId());
+            stmt.setInt(2, news.get(news.size() - 1).getId());
+            stmt.setFetchSize(FETCH_SIZE);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    News item = byId.get(rs.getInt(1));
+                    if (item == null) {
+                        continue;
+                    }
+                    try {
+                        item.setText(snapshotStore.read(rs.getInt(2), rs.getLong(3)));
+                    } catch (Exception e) {
+                        System.out.println("Error reading snapshot of " + item.getUrl() + ": " + e);
+                    }
+                }
+            }
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Mark news as not authorized, in one batch
+     * 
+     * @param ids ids of the news
+     * @return number of news that were authorized
+     * @throws Exception
+     */
+    public int revoke(List<Integer> ids) throws Exception {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+
+        String sql = "UPDATE authorized_news SET authorized = FALSE WHERE id = ? AND authorized = TRUE";
+
+        try (Connection conn = connection.getConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            for (Integer id : ids) {
+                stmt.setInt(1, id);
+                stmt.addBatch();
+            }
+
+            int revoked = 0;
+            for (int count : stmt.executeBatch()) {
+                revoked += Math.max(count, 0);
+            }
+            return revoked;
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private News mapRow(ResultSet rs) throws SQLException {
+        News news = new News(rs.getString("url"), rs.getBoolean("authorized"));
+        news.setId(rs.getInt("id"));
+        news.setCreatedAt(rs.getObject("created_at", LocalDateTime.class));
+        return news;
+    }
+
+    /**
+     * Read a new by url. Every URL with the same canonical form finds it.
      * 
      * @param url
      * @return New object or New object with url null and authorized null if not
@@ -49,12 +410,16 @@ public class H2Repository {
      * @throws Exception
      */
     public News read(String url) throws Exception {
-        String sql = "SELECT * FROM authorized_news WHERE url = ?";
+        if (!urlFilter.mightContain(urlCanonicalizer.identity(url))) {
+            return null;
+        }
+
+        String sql = "SELECT * FROM authorized_news WHERE url_hash = ?";
 
         try (Connection conn = connection.getConnection();
                 PreparedStatement stmt = conn.prepareStatement(sql)) {
 
-            stmt.setString(1, url);
+            stmt.setBytes(1, urlCanonicalizer.key(url));
             ResultSet rs = stmt.executeQuery();
 
             News news = new News();
@@ -65,6 +430,7 @@ public class H2Repository {
                 return news;
             }
 
+            urlFilter.falsePositive();
             return null;
         } catch (Exception e) {
             throw new RuntimeException(e);
@@ -72,7 +438,40 @@ public class H2Repository {
     }
 
     /**
-     * Create a new
+     * Read the page text stored when a new was created, without downloading it
+     * again
+     * 
+     * @param url
+     * @return page text, null if the new is not indexed or has no snapshot
+     * @throws Exception
+     */
+    public String readSnapshot(String url) throws Exception {
+        if (!urlFilter.mightContain(urlCanonicalizer.identity(url))) {
+            return null;
+        }
+
+        String sql = "SELECT snapshot_segment, snapshot_offset FROM authorized_news WHERE url_hash = ? AND snapshot_segment IS NOT NULL";
+
+        try (Connection conn = connection.getConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setBytes(1, urlCanonicalizer.key(url));
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (!rs.next()) {
+                    return null;
+                }
+                return snapshotStore.read(rs.getInt(1), rs.getLong(2));
+            }
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Create a new. The canonical URL is inserted with a single MERGE, the unique
+     * index on its hash keeps concurrent checks of the same URL from inserting
+     * duplicates. The page text of the new, if set, is stored as a snapshot and
+     * the row points to it.
      * 
      * @param news
      * @return 1 if created, -1 if found, -2 if found and already exists, 0 if
@@ -81,32 +480,186 @@ public class H2Repository {
      */
     @Transactional
     public int create(News news, Boolean found) throws Exception {
-        String sql = "INSERT INTO authorized_news (url, authorized) VALUES (?, ?)";
+        if (found) {
+            return read(news.getUrl()) != null ? -2 : -1;
+        }
+
+        // Added before the insert so a concurrent read never misses it, and again
+        // after it in case a rebuild of the filter started in between
+        String identity = urlCanonicalizer.identity(news.getUrl());
+        urlFilter.add(identity);
 
         try (Connection conn = connection.getConnection();
-                PreparedStatement stmt = conn.prepareStatement(sql)) {
+                PreparedStatement stmt = conn.prepareStatement(MERGE_SQL)) {
 
-            News aux = read(news.getUrl());
-            if (aux != null) {
-                if (found) {
-                    return -2;
-                }
+            stmt.setBytes(1, urlCanonicalizer.key(news.getUrl()));
+            stmt.setString(2, urlCanonicalizer.canonicalize(news.getUrl()));
+            stmt.setBoolean(3, news.getAuthorized());
+
+            int created = stmt.executeUpdate() == 1 ? 1 : 0;
+            urlFilter.add(identity);
+            if (created == 1) {
+                storeSnapshots(conn, List.of(news));
+            }
+            return created;
+
+        } catch (SQLException e) {
+            // Another check inserted the same URL between the match and the insert
+            if (UNIQUE_VIOLATION.equals(e.getSQLState())) {
                 return 0;
             }
+            throw new RuntimeException(e);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Create several news in one transaction: a single lookup for the URLs where
+     * a word was found and one batch of MERGE statements for the others
+     * 
+     * @param news  news to create
+     * @param found whether a word was found in each news
+     * @return result of each news, with the same values as create
+     * @throws Exception
+     */
+    public int[] createAll(List<News> news, List<Boolean> found) throws Exception {
+        int[] results = new int[news.size()];
 
-            if (found) {
-                return -1;
-            } else {
-                stmt.setString(1, news.getUrl());
-                stmt.setBoolean(2, news.getAuthorized());
-                stmt.executeUpdate();
+        try (Connection conn = connection.getConnection()) {
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
 
-                return 1;
-            }
+            try {
+                Set<String> existing = findExisting(conn, news, found);
+                HexFormat hex = HexFormat.of();
+
+                try (PreparedStatement stmt = conn.prepareStatement(MERGE_SQL)) {
+                    List<Integer> merged = new ArrayList<>();
+
+                    for (int i = 0; i < news.size(); i++) {
+                        String url = news.get(i).getUrl();
+                        if (found.get(i)) {
+                            results[i] = existing.contains(hex.formatHex(urlCanonicalizer.key(url))) ? -2 : -1;
+                        } else {
+                            urlFilter.add(urlCanonicalizer.identity(url));
+                            stmt.setBytes(1, urlCanonicalizer.key(url));
+                            stmt.setString(2, urlCanonicalizer.canonicalize(url));
+                            stmt.setBoolean(3, news.get(i).getAuthorized());
+                            stmt.addBatch();
+                            merged.add(i);
+                        }
+                    }
 
+                    if (!merged.isEmpty()) {
+                        int[] counts = stmt.executeBatch();
+                        List<News> created = new ArrayList<>();
+                        for (int j = 0; j < counts.length; j++) {
+                            results[merged.get(j)] = counts[j] == 1 ? 1 : 0;
+                            if (counts[j] == 1) {
+                                created.add(news.get(merged.get(j)));
+                            }
+                        }
+                        storeSnapshots(conn, created);
+                    }
+                }
+
+                conn.commit();
+                for (int i = 0; i < news.size(); i++) {
+                    if (!found.get(i)) {
+                        urlFilter.add(urlCanonicalizer.identity(news.get(i).getUrl()));
+                    }
+                }
+                return results;
+            } catch (SQLException e) {
+                conn.rollback();
+                if (!isUniqueViolation(e)) {
+                    throw e;
+                }
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
         } catch (Exception e) {
             throw new RuntimeException(e);
         }
+
+        // A concurrent check inserted one of the URLs, create them one by one
+        for (int i = 0; i < news.size(); i++) {
+            results[i] = create(news.get(i), found.get(i));
+        }
+        return results;
+    }
+
+    // Append the page text of news just inserted and point their rows to it. A
+    // text is only left unreferenced if the update or its transaction fails.
+    private void storeSnapshots(Connection conn, List<News> created) throws Exception {
+        List<News> stored = new ArrayList<>();
+        List<SnapshotStore.Location> locations = new ArrayList<>();
+        for (News news : created) {
+            SnapshotStore.Location location = news.getText() != null ? snapshotStore.append(news.getText()) : null;
+            if (location != null) {
+                stored.add(news);
+                locations.add(location);
+            }
+        }
+        if (stored.isEmpty()) {
+            return;
+        }
+
+        try (PreparedStatement stmt = conn.prepareStatement(SNAPSHOT_SQL)) {
+            for (int i = 0; i < stored.size(); i++) {
+                stmt.setInt(1, locations.get(i).getSegment());
+                stmt.setLong(2, locations.get(i).getOffset());
+                stmt.setBytes(3, urlCanonicalizer.key(stored.get(i).getUrl()));
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+    }
+
+    /**
+     * @return hex encoded keys of the news where a word was found that are
+     *         already indexed
+     */
+    private Set<String> findExisting(Connection conn, List<News> news, List<Boolean> found) throws SQLException {
+        HexFormat hex = HexFormat.of();
+        Map<String, byte[]> keys = new HashMap<>();
+        for (int i = 0; i < news.size(); i++) {
+            String url = news.get(i).getUrl();
+            if (found.get(i) && urlFilter.mightContain(urlCanonicalizer.identity(url))) {
+                byte[] key = urlCanonicalizer.key(url);
+                keys.put(hex.formatHex(key), key);
+            }
+        }
+
+        Set<String> existing = new HashSet<>();
+        if (keys.isEmpty()) {
+            return existing;
+        }
+
+        try (PreparedStatement stmt = conn
+                .prepareStatement("SELECT url_hash FROM authorized_news WHERE url_hash = ANY(?)")) {
+            stmt.setArray(1, conn.createArrayOf("BINARY", keys.values().toArray()));
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    existing.add(hex.formatHex(rs.getBytes("url_hash")));
+                }
+            }
+        }
+        for (int i = existing.size(); i < keys.size(); i++) {
+            urlFilter.falsePositive();
+        }
+        return existing;
+    }
+
+    private boolean isUniqueViolation(SQLException e) {
+        for (SQLException next = e; next != null; next = next.getNextException()) {
+            if (UNIQUE_VIOLATION.equals(next.getSQLState())) {
+                return true;
+            }
+        }
+        return false;
     }
 
     /**
@@ -118,12 +671,16 @@ public class H2Repository {
      */
     @Transactional
     public int delete(String url) throws Exception {
-        String sql = "DELETE FROM authorized_news WHERE url = ?";
+        if (!urlFilter.mightContain(urlCanonicalizer.identity(url))) {
+            return 0;
+        }
+
+        String sql = "DELETE FROM authorized_news WHERE url_hash = ?";
 
         try (Connection conn = connection.getConnection();
                 PreparedStatement stmt = conn.prepareStatement(sql)) {
 
-            stmt.setString(1, url);
+            stmt.setBytes(1, urlCanonicalizer.key(url));
             return stmt.executeUpdate();
 
         } catch (Exception e) {
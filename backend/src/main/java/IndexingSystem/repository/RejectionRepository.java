@@ -0,0 +1,131 @@
+package IndexingSystem.repository;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Instant;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+
+/**
+ * URLs where a word was found, stored in the same database as the indexed
+ * news. A rejection is kept per word list, identified by its fingerprint, until
+ * it expires.
+ */
+@Repository
+public class RejectionRepository {
+
+    private static final String MERGE_SQL = "MERGE INTO rejected_urls (url_hash, list_fingerprint, url, word, expires_at) KEY (url_hash, list_fingerprint) VALUES (?, ?, ?, ?, ?)";
+
+    @Autowired
+    private ConnectionDBRepository connection;
+
+    @Autowired
+    private UrlCanonicalizer urlCanonicalizer;
+
+    public void createTable() throws Exception {
+        try (Connection conn = connection.getConnection();
+                Statement stmt = conn.createStatement()) {
+            // Expiry in epoch milliseconds, compared without time zones
+            stmt.execute(
+                    "CREATE TABLE IF NOT EXISTS rejected_urls (url_hash BINARY(16) NOT NULL, list_fingerprint VARCHAR(80) NOT NULL, url VARCHAR(2048), word VARCHAR(255) NOT NULL, expires_at BIGINT NOT NULL, PRIMARY KEY (url_hash, list_fingerprint))");
+            stmt.execute("CREATE INDEX IF NOT EXISTS rejected_urls_expires_at ON rejected_urls (expires_at)");
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Get the word found in a URL by a word list. Every URL with the same
+     * canonical form finds it.
+     *
+     * @param url         URL as sent by the client
+     * @param fingerprint fingerprint of the word list
+     * @param now         rejections that expired before are ignored
+     * @return word found and end of the rejection, null if the URL was not
+     *         rejected or it expired
+     * @throws Exception
+     */
+    public Rejection find(String url, String fingerprint, Instant now) throws Exception {
+        String sql = "SELECT word, expires_at FROM rejected_urls WHERE url_hash = ? AND list_fingerprint = ? AND expires_at > ?";
+
+        try (Connection conn = connection.getConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setBytes(1, urlCanonicalizer.key(url));
+            stmt.setString(2, fingerprint);
+            stmt.setLong(3, now.toEpochMilli());
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? new Rejection(rs.getString(1), Instant.ofEpochMilli(rs.getLong(2))) : null;
+            }
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Record that a word was found in a URL, replacing a previous rejection by
+     * the same list
+     *
+     * @param url         URL as sent by the client
+     * @param fingerprint fingerprint of the word list
+     * @param word        word found
+     * @param expiresAt   end of the rejection
+     * @throws Exception
+     */
+    public void save(String url, String fingerprint, String word, Instant expiresAt) throws Exception {
+        try (Connection conn = connection.getConnection();
+                PreparedStatement stmt = conn.prepareStatement(MERGE_SQL)) {
+
+            stmt.setBytes(1, urlCanonicalizer.key(url));
+            stmt.setString(2, fingerprint);
+            stmt.setString(3, urlCanonicalizer.canonicalize(url));
+            stmt.setString(4, word);
+            stmt.setLong(5, expiresAt.toEpochMilli());
+            stmt.executeUpdate();
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Delete the expired rejections
+     *
+     * @param now current time
+     * @return number of rejections deleted
+     * @throws Exception
+     */
+    public int purge(Instant now) throws Exception {
+        try (Connection conn = connection.getConnection();
+                PreparedStatement stmt = conn.prepareStatement("DELETE FROM rejected_urls WHERE expires_at <= ?")) {
+
+            stmt.setLong(1, now.toEpochMilli());
+            return stmt.executeUpdate();
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Word found in a URL and end of the rejection
+     */
+    public static class Rejection {
+        private final String word;
+        private final Instant expiresAt;
+
+        public Rejection(String word, Instant expiresAt) {
+            this.word = word;
+            this.expiresAt = expiresAt;
+        }
+
+        public String getWord() {
+            return word;
+        }
+
+        public Instant getExpiresAt() {
+            return expiresAt;
+        }
+    }
+}
@@ -0,0 +1,423 @@
+package IndexingSystem.repository;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Append-only store of the page text of accepted news, so a URL can be checked
+ * again without fetching it. Texts are deflated and appended to segment files
+ * of a bounded size; a text is located by its segment and offset, which
+ * H2Repository keeps in the row of the news. A full segment is sealed and read
+ * through a single memory mapped buffer; the active one, which still grows, is
+ * read with positional reads so it is never remapped.
+ *
+ * Each record has a header with its lengths and a CRC of the compressed bytes.
+ * On start the last segment is truncated after its last complete record, so a
+ * crash in the middle of a write loses only that record.
+ */
+@Component
+@ConfigurationProperties(prefix = "indexing.snapshots")
+public class SnapshotStore {
+    private static final int RECORD_MAGIC = 0x534e4150;
+    private static final int HEADER_SIZE = 16;
+    private static final Pattern SEGMENT_NAME = Pattern.compile("segment-(\\d{6})\\.dat");
+
+    private boolean enabled = false;
+    private String directory = "./data/snapshots";
+    private long segmentSize = 64L * 1024 * 1024;
+
+    private final Map<Integer, Segment> segments = new ConcurrentHashMap<>();
+    private Segment active;
+
+    /**
+     * Compress a text and append it to the active segment
+     *
+     * @param text page text
+     * @return location of the text, null if the store is disabled
+     * @throws Exception
+     */
+    public Location append(String text) throws Exception {
+        if (!enabled) {
+            return null;
+        }
+
+        byte[] raw = text.getBytes(StandardCharsets.UTF_8);
+        byte[] compressed = deflate(raw);
+        CRC32 crc = new CRC32();
+        crc.update(compressed);
+
+        ByteBuffer record = ByteBuffer.allocate(HEADER_SIZE + compressed.length);
+        record.putInt(RECORD_MAGIC).putInt(raw.length).putInt(compressed.length).putInt((int) crc.getValue());
+        record.put(compressed).flip();
+
+        synchronized (this) {
+            Segment segment = active();
+            if (segment.size > 0 && segment.size + record.remaining() > segmentSize) {
+                segment = roll(segment);
+            }
+
+            long offset = segment.size;
+            while (record.hasRemaining()) {
+                segment.channel.write(record, offset + record.position());
+            }
+            segment.size = offset + record.limit();
+            return new Location(segment.id, offset);
+        }
+    }
+
+    /**
+     * Read a text
+     *
+     * @param segmentId segment of the text
+     * @param offset    offset of its record in the segment
+     * @return page text
+     * @throws Exception if the location does not hold a valid record
+     */
+    public String read(int segmentId, long offset) throws Exception {
+        Segment segment = segment(segmentId);
+        if (segment == null) {
+            throw new IllegalArgumentException("Snapshot segment not found: " + segmentId);
+        }
+
+        ByteBuffer header = segment.read(offset, HEADER_SIZE);
+        if (header.getInt(0) != RECORD_MAGIC) {
+            throw new IOException("No snapshot at " + segmentId + ":" + offset);
+        }
+        int rawLength = header.getInt(4);
+        int compressedLength = header.getInt(8);
+        int checksum = header.getInt(12);
+        if (rawLength < 0 || compressedLength < 0) {
+            throw new IOException("Corrupted snapshot at " + segmentId + ":" + offset);
+        }
+
+        ByteBuffer compressed = segment.read(offset + HEADER_SIZE, compressedLength);
+
+        CRC32 crc = new CRC32();
+        crc.update(compressed.duplicate());
+        if ((int) crc.getValue() != checksum) {
+            throw new IOException("Corrupted snapshot at " + segmentId + ":" + offset);
+        }
+
+        return new String(inflate(compressed, rawLength), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Force the appended texts to disk
+     *
+     * @throws IOException
+     */
+    public synchronized void flush() throws IOException {
+        if (active != null) {
+            active.channel.force(false);
+        }
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        for (Segment segment : segments.values()) {
+            try {
+                segment.channel.close();
+            } catch (IOException e) {
+                System.out.println("Error closing snapshot segment: " + e);
+            }
+        }
+        segments.clear();
+        active = null;
+    }
+
+    /**
+     * @return total bytes of the segments
+     */
+    public synchronized long size() throws IOException {
+        open();
+        long size = 0;
+        for (Segment segment : segments.values()) {
+            size += segment.size;
+        }
+        return size;
+    }
+
+    private Segment segment(int id) throws IOException {
+        Segment segment = segments.get(id);
+        if (segment == null) {
+            synchronized (this) {
+                open();
+                segment = segments.get(id);
+            }
+        }
+        return segment;
+    }
+
+    private Segment active() throws IOException {
+        open();
+        return active;
+    }
+
+    // Open the existing segments the first time the store is used
+    private void open() throws IOException {
+        if (active != null) {
+            return;
+        }
+
+        Path dir = Files.createDirectories(Paths.get(directory));
+        TreeMap<Integer, Path> files = new TreeMap<>();
+        try (Stream<Path> list = Files.list(dir)) {
+            list.forEach(path -> {
+                Matcher matcher = SEGMENT_NAME.matcher(path.getFileName().toString());
+                if (matcher.matches()) {
+                    files.put(Integer.parseInt(matcher.group(1)), path);
+                }
+            });
+        }
+
+        for (Map.Entry<Integer, Path> file : files.entrySet()) {
+            if (active != null) {
+                active.sealed = true;
+            }
+            Segment segment = new Segment(file.getKey(), file.getValue());
+            segments.put(segment.id, segment);
+            active = segment;
+        }
+
+        if (active == null) {
+            active = create(1);
+        } else {
+            recover(active);
+        }
+    }
+
+    private Segment roll(Segment full) throws IOException {
+        full.channel.force(false);
+        full.sealed = true;
+        active = create(full.id + 1);
+        return active;
+    }
+
+    private Segment create(int id) throws IOException {
+        Segment segment = new Segment(id, Paths.get(directory, String.format("segment-%06d.dat", id)));
+        segments.put(id, segment);
+        return segment;
+    }
+
+    // Drop an incomplete record left at the end of the segment by a crash
+    private void recover(Segment segment) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        long offset = 0;
+
+        while (offset + HEADER_SIZE <= segment.size) {
+            header.clear();
+            segment.channel.read(header, offset);
+            header.flip();
+            if (header.getInt(0) != RECORD_MAGIC) {
+                break;
+            }
+            int compressedLength = header.getInt(8);
+            long end = offset + HEADER_SIZE + compressedLength;
+            if (compressedLength < 0 || end > segment.size) {
+                break;
+            }
+
+            ByteBuffer compressed = ByteBuffer.allocate(compressedLength);
+            segment.channel.read(compressed, offset + HEADER_SIZE);
+            compressed.flip();
+            CRC32 crc = new CRC32();
+            crc.update(compressed);
+            if ((int) crc.getValue() != header.getInt(12)) {
+                break;
+            }
+            offset = end;
+        }
+
+        if (offset < segment.size) {
+            System.out.println("Truncating snapshot segment " + segment.id + " at " + offset);
+            segment.channel.truncate(offset);
+            segment.size = offset;
+        }
+    }
+
+    private static byte[] deflate(byte[] raw) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED, true);
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            byte[] buffer = new byte[Math.max(64, raw.length / 2)];
+            int length = 0;
+            while (!deflater.finished()) {
+                if (length == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                }
+                length += deflater.deflate(buffer, length, buffer.length - length);
+            }
+            return Arrays.copyOf(buffer, length);
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(ByteBuffer compressed, int rawLength) throws IOException {
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(compressed);
+            byte[] raw = new byte[rawLength];
+            int length = 0;
+            while (length < rawLength && !inflater.finished()) {
+                int read = inflater.inflate(raw, length, rawLength - length);
+                if (read == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                length += read;
+            }
+            if (length != rawLength) {
+                throw new IOException("Truncated snapshot");
+            }
+            return raw;
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupted snapshot", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getDirectory() {
+        return directory;
+    }
+
+    public void setDirectory(String directory) {
+        this.directory = directory;
+    }
+
+    public long getSegmentSize() {
+        return segmentSize;
+    }
+
+    /**
+     * @param segmentSize maximum bytes of a segment, less than 2 GB because
+     *                    offsets in a mapped buffer are ints
+     * @throws IllegalArgumentException if the size is not positive or too large
+     */
+    public void setSegmentSize(long segmentSize) {
+        if (segmentSize <= 0 || segmentSize >= Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("The segment size must be between 1 and " + (Integer.MAX_VALUE - 1));
+        }
+        this.segmentSize = segmentSize;
+    }
+
+    /**
+     * Position of a text in the store
+     */
+    public static class Location {
+        private final int segment;
+        private final long offset;
+
+        public Location(int segment, long offset) {
+            this.segment = segment;
+            this.offset = offset;
+        }
+
+        public int getSegment() {
+            return segment;
+        }
+
+        public long getOffset() {
+            return offset;
+        }
+    }
+
+    /**
+     * @param segmentId segment id
+     * @return whether the segment has been memory mapped
+     */
+    boolean isMapped(int segmentId) {
+        Segment segment = segments.get(segmentId);
+        return segment != null && segment.mapped != null;
+    }
+
+    private static class Segment {
+        private final int id;
+        private final FileChannel channel;
+        private volatile long size;
+
+        // Set once the segment is full, it is never written again
+        private volatile boolean sealed;
+
+        // Mapping of a sealed segment, created on its first read
+        private volatile MappedByteBuffer mapped;
+
+        Segment(int id, Path file) throws IOException {
+            this.id = id;
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            this.size = channel.size();
+        }
+
+        /**
+         * Read bytes of the segment, from its mapping if it is sealed
+         *
+         * @param position offset in the segment
+         * @param length   bytes to read
+         * @return buffer with the bytes, from position 0
+         * @throws IOException if the bytes are past the end of the segment
+         */
+        ByteBuffer read(long position, int length) throws IOException {
+            if (position < 0 || position + length > size) {
+                throw new IOException("Snapshot beyond the end of segment " + id);
+            }
+
+            if (sealed) {
+                return mapped().slice((int) position, length);
+            }
+
+            ByteBuffer buffer = ByteBuffer.allocate(length);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, position + buffer.position()) < 0) {
+                    throw new IOException("Snapshot beyond the end of segment " + id);
+                }
+            }
+            return buffer.flip();
+        }
+
+        private MappedByteBuffer mapped() throws IOException {
+            MappedByteBuffer buffer = mapped;
+            if (buffer == null) {
+                synchronized (this) {
+                    if (mapped == null) {
+                        mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+                    }
+                    buffer = mapped;
+                }
+            }
+            return buffer;
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package IndexingSystem.repository;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Housekeeping of the file database. A checkpoint flushes the store and saves
+ * the URL filter, so a restart only reads the rows inserted since then, and
+ * online backups are kept in the storage directory. Everything is skipped
+ * while storage is in memory.
+ */
+@Component
+@ConfigurationProperties(prefix = "indexing.storage")
+public class StorageMaintenance {
+    private static final String URL_FILTER_FILE = "url-filter.bin";
+    private static final String BACKUP_PREFIX = "backup-";
+    private static final DateTimeFormatter BACKUP_DATE = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private boolean durable = false;
+    private String directory = "./data";
+    private int backupsKept = 3;
+
+    @Autowired
+    private ConnectionDBRepository connection;
+
+    @Autowired
+    private H2Repository h2Repository;
+
+    @Autowired
+    private SnapshotStore snapshotStore;
+
+    /**
+     * Build the URL filter, from its snapshot when storage is durable
+     *
+     * @throws Exception
+     */
+    public void warmUp() throws Exception {
+        if (durable) {
+            h2Repository.loadUrlFilter(urlFilterFile());
+        } else {
+            h2Repository.rebuildUrlFilter();
+        }
+    }
+
+    /**
+     * Flush the store and the page snapshots to disk and save the URL filter
+     *
+     * @throws Exception
+     */
+    @Scheduled(fixedDelayString = "${indexing.storage.checkpoint-interval:5m}", initialDelayString = "${indexing.storage.checkpoint-interval:5m}")
+    public void checkpoint() throws Exception {
+        if (!durable) {
+            return;
+        }
+
+        try (Connection conn = connection.getConnection();
+                Statement stmt = conn.createStatement()) {
+            stmt.execute("CHECKPOINT SYNC");
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+
+        snapshotStore.flush();
+        Files.createDirectories(Paths.get(directory));
+        h2Repository.saveUrlFilter(urlFilterFile());
+    }
+
+    /**
+     * Write an online backup of the database and delete the oldest ones
+     *
+     * @return backup file, null if storage is in memory
+     * @throws Exception
+     */
+    @Scheduled(fixedDelayString = "${indexing.storage.backup-interval:6h}", initialDelayString = "${indexing.storage.backup-interval:6h}")
+    public Path backup() throws Exception {
+        if (!durable) {
+            return null;
+        }
+
+        Path dir = Files.createDirectories(Paths.get(directory));
+        Path file = dir.resolve(BACKUP_PREFIX + LocalDateTime.now().format(BACKUP_DATE) + ".zip").toAbsolutePath();
+
+        try (Connection conn = connection.getConnection();
+                PreparedStatement stmt = conn.prepareStatement("BACKUP TO ?")) {
+            stmt.setString(1, file.toString());
+            stmt.execute();
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+
+        deleteOldBackups(dir);
+        return file;
+    }
+
+    private void deleteOldBackups(Path dir) throws IOException {
+        List<Path> backups = new ArrayList<>();
+        try (Stream<Path> files = Files.list(dir)) {
+            files.filter(path -> path.getFileName().toString().startsWith(BACKUP_PREFIX)).sorted()
+                    .forEach(backups::add);
+        }
+
+        // Names sort by date
+        for (int i = 0; i < backups.size() - backupsKept; i++) {
+            Files.deleteIfExists(backups.get(i));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        try {
+            checkpoint();
+        } catch (Exception e) {
+            System.out.println("Error saving storage on shutdown: " + e);
+        }
+    }
+
+    private Path urlFilterFile() {
+        return Paths.get(directory, URL_FILTER_FILE);
+    }
+
+    public boolean isDurable() {
+        return durable;
+    }
+
+    public void setDurable(boolean durable) {
+        this.durable = durable;
+    }
+
+    public String getDirectory() {
+        return directory;
+    }
+
+    public void setDirectory(String directory) {
+        this.directory = directory;
+    }
+
+    public int getBackupsKept() {
+        return backupsKept;
+    }
+
+    public void setBackupsKept(int backupsKept) {
+        this.backupsKept = backupsKept;
+    }
+}
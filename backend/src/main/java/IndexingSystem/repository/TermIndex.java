@@ -0,0 +1,645 @@
+package IndexingSystem.repository;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.function.IntConsumer;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * On-disk inverted index from the terms of the page texts to the ids of the
+ * news that contain them. The index is a list of immutable segments, each one
+ * covering a range of ids; segments are written whole and published
+ * atomically. Adjacent segments of the same size tier are merged merge-factor
+ * at a time, so a posting is rewritten once per tier instead of on every
+ * merge; above max-segments the smallest adjacent ones are merged. Segments
+ * are not merged past max-segment-size, which is below 2 GB. A merge
+ * streams the terms of its segments in order and never holds more than one
+ * posting list on the heap.
+ *
+ * A segment holds a sorted term dictionary followed by the posting lists. The
+ * ids of a posting list are ascending and stored as varint encoded gaps, so a
+ * term that appears in consecutive news takes one byte per news. Dictionaries
+ * are kept in memory, posting lists are decoded from the memory-mapped file
+ * when a term is queried.
+ */
+@Component
+@ConfigurationProperties(prefix = "indexing.term-index")
+public class TermIndex {
+    private static final int SEGMENT_MAGIC = 0x5445524d;
+    private static final int SEGMENT_VERSION = 1;
+    private static final Pattern SEGMENT_NAME = Pattern.compile("terms-(\\d{6})\\.seg");
+
+    // Segments smaller than this are all in the first tier
+    private static final long MIN_TIER_SIZE = 64 * 1024;
+
+    private boolean enabled = false;
+    private String directory = "./data/terms";
+    private int maxSegments = 8;
+    private int mergeFactor = 4;
+
+    // Merges that would write a larger segment are skipped: a segment is mapped
+    // as one buffer and its offsets are ints
+    private long maxSegmentSize = 1024L * 1024 * 1024;
+
+    // Ordered by id range, replaced as a whole
+    private volatile List<Segment> segments;
+    private int nextSegment = 1;
+
+    /**
+     * @return highest news id covered by the index, 0 if empty
+     */
+    public long lastId() throws IOException {
+        List<Segment> current = segments();
+        return current.isEmpty() ? 0 : current.get(current.size() - 1).maxId;
+    }
+
+    /**
+     * Add a segment with the postings of a range of news. Ids must be above
+     * lastId.
+     *
+     * @param postings sorted terms and the ascending ids of the news that contain
+     *                 each one
+     * @param maxId    highest id of the range, whether or not its news had text
+     * @throws IOException
+     */
+    public synchronized void append(SortedMap<String, int[]> postings, long maxId) throws IOException {
+        List<Segment> current = segments();
+        long lastId = lastId();
+        if (maxId <= lastId) {
+            throw new IllegalArgumentException("The range " + maxId + " is already indexed");
+        }
+
+        List<Segment> next = new ArrayList<>(current);
+        try (SegmentWriter writer = new SegmentWriter(lastId + 1, maxId)) {
+            for (Map.Entry<String, int[]> entry : postings.entrySet()) {
+                writer.startTerm(entry.getKey());
+                for (int id : entry.getValue()) {
+                    writer.add(id);
+                }
+                writer.endTerm();
+            }
+            next.add(writer.finish());
+        }
+
+        int from;
+        while ((from = nextMerge(next)) >= 0) {
+            List<Segment> parts = next.subList(from, Math.min(from + mergeFactor, next.size()));
+            Segment merged = merge(parts);
+            for (Segment segment : parts) {
+                Files.deleteIfExists(segment.file);
+            }
+            parts.clear();
+            next.add(from, merged);
+        }
+        segments = List.copyOf(next);
+    }
+
+    // First of the segments to merge: mergeFactor adjacent segments of the same
+    // tier, the newest first, or the smallest adjacent ones over the limit; -1
+    // if there is nothing to merge or every merge would exceed maxSegmentSize
+    private int nextMerge(List<Segment> segments) {
+        for (int from = segments.size() - mergeFactor; from >= 0; from--) {
+            int tier = tier(segments.get(from));
+            int to = from + 1;
+            while (to < from + mergeFactor && tier(segments.get(to)) == tier) {
+                to++;
+            }
+            if (to == from + mergeFactor && size(segments, from, to) < maxSegmentSize) {
+                return from;
+            }
+        }
+
+        if (segments.size() <= maxSegments) {
+            return -1;
+        }
+        int window = Math.min(mergeFactor, segments.size());
+        int smallest = -1;
+        long smallestSize = maxSegmentSize;
+        for (int from = 0; from + window <= segments.size(); from++) {
+            long size = size(segments, from, from + window);
+            if (size < smallestSize) {
+                smallest = from;
+                smallestSize = size;
+            }
+        }
+        return smallest;
+    }
+
+    // Bound of the size of the segment merged from a range; the gaps between
+    // the parts add at most a few bytes per term
+    private static long size(List<Segment> segments, int from, int to) {
+        long size = 0;
+        for (int i = from; i < to; i++) {
+            size += segments.get(i).size + 4L * segments.get(i).terms.length;
+        }
+        return size;
+    }
+
+    private int tier(Segment segment) {
+        int tier = 0;
+        for (long size = MIN_TIER_SIZE; segment.size >= size && size < Long.MAX_VALUE / mergeFactor; size *= mergeFactor) {
+            tier++;
+        }
+        return tier;
+    }
+
+    /**
+     * @param term case folded term
+     * @return ascending ids of the news that contain the term
+     */
+    public int[] postings(String term) throws IOException {
+        IntList ids = new IntList();
+        for (Segment segment : segments()) {
+            int i = Arrays.binarySearch(segment.terms, term);
+            if (i >= 0) {
+                segment.decode(i, ids::add);
+            }
+        }
+        return ids.toArray();
+    }
+
+    /**
+     * @param terms case folded terms
+     * @return ascending ids of the news that contain every term
+     */
+    public int[] all(List<String> terms) throws IOException {
+        List<int[]> lists = new ArrayList<>();
+        for (String term : terms) {
+            lists.add(postings(term));
+        }
+        // Shortest list first, the intersection only shrinks
+        lists.sort((a, b) -> Integer.compare(a.length, b.length));
+
+        int[] result = lists.isEmpty() ? new int[0] : lists.get(0);
+        for (int i = 1; i < lists.size() && result.length > 0; i++) {
+            result = intersect(result, lists.get(i));
+        }
+        return result;
+    }
+
+    /**
+     * @param terms case folded terms
+     * @return ascending ids of the news that contain any of the terms
+     */
+    public int[] any(List<String> terms) throws IOException {
+        int[] result = new int[0];
+        for (String term : terms) {
+            result = union(result, postings(term));
+        }
+        return result;
+    }
+
+    /**
+     * Search the dictionary instead of the texts: every term accepted by the
+     * filter adds its news to the result
+     *
+     * @param filter accepts the terms to include
+     * @return ascending ids of the news with an accepted term
+     */
+    public int[] matching(Predicate<String> filter) throws IOException {
+        IntList result = new IntList();
+        // Segments cover ascending id ranges, each one is sorted on its own
+        for (Segment segment : segments()) {
+            IntList ids = new IntList();
+            for (int i = 0; i < segment.terms.length; i++) {
+                if (filter.test(segment.terms[i])) {
+                    segment.decode(i, ids::add);
+                }
+            }
+            int[] sorted = ids.toArray();
+            Arrays.sort(sorted);
+            for (int i = 0; i < sorted.length; i++) {
+                if (i == 0 || sorted[i] != sorted[i - 1]) {
+                    result.add(sorted[i]);
+                }
+            }
+        }
+        return result.toArray();
+    }
+
+    /**
+     * @return number of distinct terms in each segment
+     */
+    public List<Integer> segmentTerms() throws IOException {
+        List<Integer> counts = new ArrayList<>();
+        for (Segment segment : segments()) {
+            counts.add(segment.terms.length);
+        }
+        return counts;
+    }
+
+    private List<Segment> segments() throws IOException {
+        List<Segment> current = segments;
+        if (current == null) {
+            synchronized (this) {
+                if (segments == null) {
+                    segments = open();
+                }
+                current = segments;
+            }
+        }
+        return current;
+    }
+
+    // Load the segments left by a previous run; a merge interrupted before its
+    // old segments were deleted leaves a segment that covers them, they are
+    // dropped. Temporary files of an interrupted write are deleted.
+    private List<Segment> open() throws IOException {
+        Path dir = Files.createDirectories(Paths.get(directory));
+        TreeMap<Integer, Path> files = new TreeMap<>();
+        List<Path> temps = new ArrayList<>();
+        try (Stream<Path> list = Files.list(dir)) {
+            list.forEach(path -> {
+                String name = path.getFileName().toString();
+                Matcher matcher = SEGMENT_NAME.matcher(name);
+                if (matcher.matches()) {
+                    files.put(Integer.parseInt(matcher.group(1)), path);
+                } else if (name.startsWith("terms-") && name.endsWith(".tmp")) {
+                    temps.add(path);
+                }
+            });
+        }
+        for (Path temp : temps) {
+            Files.deleteIfExists(temp);
+        }
+
+        List<Segment> loaded = new ArrayList<>();
+        for (Map.Entry<Integer, Path> file : files.entrySet()) {
+            nextSegment = file.getKey() + 1;
+            Segment segment = Segment.read(file.getValue());
+            if (segment == null) {
+                System.out.println("Ignoring invalid term index segment " + file.getValue());
+                continue;
+            }
+            loaded.removeIf(old -> {
+                if (old.minId >= segment.minId && old.maxId <= segment.maxId) {
+                    try {
+                        Files.deleteIfExists(old.file);
+                    } catch (IOException e) {
+                        System.out.println("Error deleting term index segment: " + e);
+                    }
+                    return true;
+                }
+                return false;
+            });
+            loaded.add(segment);
+        }
+        loaded.sort((a, b) -> Long.compare(a.minId, b.minId));
+        return List.copyOf(loaded);
+    }
+
+    // k-way merge of the dictionaries; parts are in id order, so the postings of
+    // a term are copied from each part in turn and stay ascending
+    private Segment merge(List<Segment> parts) throws IOException {
+        PriorityQueue<Cursor> queue = new PriorityQueue<>(
+                Comparator.comparing(Cursor::term).thenComparingInt(cursor -> cursor.part));
+        for (int part = 0; part < parts.size(); part++) {
+            if (parts.get(part).terms.length > 0) {
+                queue.add(new Cursor(parts.get(part), part));
+            }
+        }
+
+        try (SegmentWriter writer = new SegmentWriter(parts.get(0).minId, parts.get(parts.size() - 1).maxId)) {
+            while (!queue.isEmpty()) {
+                String term = queue.peek().term();
+                writer.startTerm(term);
+                while (!queue.isEmpty() && queue.peek().term().equals(term)) {
+                    Cursor cursor = queue.poll();
+                    cursor.segment.decode(cursor.index, writer::add);
+                    if (++cursor.index < cursor.segment.terms.length) {
+                        queue.add(cursor);
+                    }
+                }
+                writer.endTerm();
+            }
+            return writer.finish();
+        }
+    }
+
+    static void writeVarint(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7f) != 0) {
+            out.write((value & 0x7f) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    static int readVarint(ByteBuffer in) {
+        int value = 0;
+        for (int shift = 0;; shift += 7) {
+            byte b = in.get();
+            value |= (b & 0x7f) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+    }
+
+    static int[] intersect(int[] a, int[] b) {
+        int[] result = new int[Math.min(a.length, b.length)];
+        int i = 0, j = 0, n = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                result[n++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, n);
+    }
+
+    static int[] union(int[] a, int[] b) {
+        if (a.length == 0) {
+            return b;
+        }
+        if (b.length == 0) {
+            return a;
+        }
+        int[] result = new int[a.length + b.length];
+        int i = 0, j = 0, n = 0;
+        while (i < a.length || j < b.length) {
+            if (j == b.length || (i < a.length && a[i] < b[j])) {
+                result[n++] = a[i++];
+            } else if (i == a.length || b[j] < a[i]) {
+                result[n++] = b[j++];
+            } else {
+                result[n++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, n);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getDirectory() {
+        return directory;
+    }
+
+    public void setDirectory(String directory) {
+        this.directory = directory;
+    }
+
+    public int getMaxSegments() {
+        return maxSegments;
+    }
+
+    public void setMaxSegments(int maxSegments) {
+        this.maxSegments = maxSegments;
+    }
+
+    public long getMaxSegmentSize() {
+        return maxSegmentSize;
+    }
+
+    /**
+     * @param maxSegmentSize largest segment written by a merge, in bytes
+     * @throws IllegalArgumentException if it is not positive or it is 2 GB or more
+     */
+    public void setMaxSegmentSize(long maxSegmentSize) {
+        if (maxSegmentSize <= 0 || maxSegmentSize >= Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("The segment size must be between 1 and " + (Integer.MAX_VALUE - 1));
+        }
+        this.maxSegmentSize = maxSegmentSize;
+    }
+
+    public int getMergeFactor() {
+        return mergeFactor;
+    }
+
+    public void setMergeFactor(int mergeFactor) {
+        if (mergeFactor < 2) {
+            throw new IllegalArgumentException("The merge factor must be at least 2");
+        }
+        this.mergeFactor = mergeFactor;
+    }
+
+    /**
+     * Writes a segment a term at a time. Posting lists are spooled to a
+     * temporary file; only the dictionary and the list being written are kept in
+     * memory.
+     */
+    private class SegmentWriter implements AutoCloseable {
+        private final long minId;
+        private final long maxId;
+        private final Path file;
+        private final Path temp;
+        private final Path postingsTemp;
+        private final DataOutputStream postings;
+        private final ByteArrayOutputStream dictionary = new ByteArrayOutputStream();
+        private final ByteArrayOutputStream list = new ByteArrayOutputStream();
+        private byte[] term;
+        private int count;
+        private int previous;
+        private int terms;
+        private boolean finished;
+
+        SegmentWriter(long minId, long maxId) throws IOException {
+            Path dir = Files.createDirectories(Paths.get(directory));
+            this.minId = minId;
+            this.maxId = maxId;
+            this.file = dir.resolve(String.format("terms-%06d.seg", nextSegment++));
+            this.temp = file.resolveSibling(file.getFileName() + ".tmp");
+            this.postingsTemp = file.resolveSibling(file.getFileName() + ".postings.tmp");
+            this.postings = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(postingsTemp)));
+        }
+
+        void startTerm(String term) {
+            this.term = term.getBytes(StandardCharsets.UTF_8);
+            this.count = 0;
+            this.previous = (int) minId - 1;
+            list.reset();
+        }
+
+        // Ids of a term must be added in ascending order
+        void add(int id) {
+            writeVarint(list, id - previous);
+            previous = id;
+            count++;
+        }
+
+        void endTerm() throws IOException {
+            if (32L + dictionary.size() + postings.size() + list.size() + term.length + 20 >= Integer.MAX_VALUE) {
+                throw new IOException("Term index segment " + file + " would exceed 2 GB");
+            }
+            writeVarint(dictionary, term.length);
+            dictionary.write(term);
+            writeVarint(dictionary, count);
+            writeVarint(dictionary, postings.size());
+            writeVarint(dictionary, list.size());
+            list.writeTo(postings);
+            terms++;
+        }
+
+        Segment finish() throws IOException {
+            postings.close();
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(SEGMENT_MAGIC);
+                out.writeInt(SEGMENT_VERSION);
+                out.writeLong(minId);
+                out.writeLong(maxId);
+                out.writeInt(terms);
+                out.writeInt(dictionary.size());
+                dictionary.writeTo(out);
+                Files.copy(postingsTemp, out);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            finished = true;
+
+            Segment segment = Segment.read(file);
+            if (segment == null) {
+                throw new IOException("Error writing term index segment " + file);
+            }
+            return segment;
+        }
+
+        @Override
+        public void close() throws IOException {
+            postings.close();
+            Files.deleteIfExists(postingsTemp);
+            if (!finished) {
+                Files.deleteIfExists(temp);
+            }
+        }
+    }
+
+    /**
+     * Position in the dictionary of a segment being merged
+     */
+    private static class Cursor {
+        private final Segment segment;
+        private final int part;
+        private int index;
+
+        Cursor(Segment segment, int part) {
+            this.segment = segment;
+            this.part = part;
+        }
+
+        String term() {
+            return segment.terms[index];
+        }
+    }
+
+    private static class Segment {
+        private final Path file;
+        private final long size;
+        private final long minId;
+        private final long maxId;
+        private final String[] terms;
+        private final int[] counts;
+        private final int[] offsets;
+        private final MappedByteBuffer postings;
+
+        private Segment(Path file, long size, long minId, long maxId, String[] terms, int[] counts, int[] offsets,
+                MappedByteBuffer postings) {
+            this.file = file;
+            this.size = size;
+            this.minId = minId;
+            this.maxId = maxId;
+            this.terms = terms;
+            this.counts = counts;
+            this.offsets = offsets;
+            this.postings = postings;
+        }
+
+        /**
+         * @return the segment, null if the file is not a valid segment
+         */
+        static Segment read(Path file) throws IOException {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                if (channel.size() >= Integer.MAX_VALUE) {
+                    throw new IOException("Term index segment " + file + " exceeds 2 GB");
+                }
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                if (buffer.remaining() < 32 || buffer.getInt() != SEGMENT_MAGIC
+                        || buffer.getInt() != SEGMENT_VERSION) {
+                    return null;
+                }
+                long minId = buffer.getLong();
+                long maxId = buffer.getLong();
+                int size = buffer.getInt();
+                int dictionaryLength = buffer.getInt();
+
+                String[] terms = new String[size];
+                int[] counts = new int[size];
+                int[] offsets = new int[size];
+                for (int i = 0; i < size; i++) {
+                    byte[] term = new byte[readVarint(buffer)];
+                    buffer.get(term);
+                    terms[i] = new String(term, StandardCharsets.UTF_8);
+                    counts[i] = readVarint(buffer);
+                    offsets[i] = readVarint(buffer);
+                    readVarint(buffer);
+                }
+
+                MappedByteBuffer postings = buffer.slice(32 + dictionaryLength, buffer.limit() - 32 - dictionaryLength);
+                return new Segment(file, channel.size(), minId, maxId, terms, counts, offsets, postings);
+            } catch (RuntimeException e) {
+                return null;
+            }
+        }
+
+        void decode(int term, IntConsumer ids) {
+            ByteBuffer in = postings.duplicate();
+            in.position(offsets[term]);
+            int id = (int) minId - 1;
+            for (int i = 0; i < counts[term]; i++) {
+                id += readVarint(in);
+                ids.accept(id);
+            }
+        }
+    }
+
+    private static class IntList {
+        private int[] values = new int[8];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
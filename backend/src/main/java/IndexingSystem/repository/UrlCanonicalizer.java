@@ -0,0 +1,161 @@
+package IndexingSystem.repository;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reduces the URLs that point to the same page to one form, so they are
+ * indexed once. The stored URL keeps its scheme, the key used for lookups
+ * does not tell http and https apart.
+ */
+@Component
+@ConfigurationProperties(prefix = "indexing.url")
+public class UrlCanonicalizer {
+    public static final int KEY_LENGTH = 16;
+
+    // Names ending in * are prefixes
+    private List<String> trackingParameters = new ArrayList<>(Arrays.asList("utm_*", "fbclid", "gclid", "dclid",
+            "msclkid", "yclid", "igshid", "mc_cid", "mc_eid", "_hsenc", "_hsmi"));
+
+    /**
+     * Canonical form of a URL: lowercase scheme and host, no default port, no
+     * fragment, no tracking parameters and no trailing slash, except for the
+     * root path. A URL that cannot be parsed is only trimmed.
+     *
+     * @param url URL as sent by the client
+     * @return canonical URL
+     */
+    public String canonicalize(String url) {
+        if (url == null) {
+            return null;
+        }
+        String trimmed = url.trim();
+
+        URI uri;
+        try {
+            uri = new URI(trimmed);
+        } catch (URISyntaxException e) {
+            return trimmed;
+        }
+        if (!uri.isAbsolute() || uri.isOpaque() || uri.getHost() == null) {
+            return trimmed;
+        }
+
+        String scheme = uri.getScheme().toLowerCase(Locale.ROOT);
+        String host = uri.getHost().toLowerCase(Locale.ROOT);
+        if (host.endsWith(".")) {
+            host = host.substring(0, host.length() - 1);
+        }
+
+        int port = uri.getPort();
+        if ((port == 80 && scheme.equals("http")) || (port == 443 && scheme.equals("https"))) {
+            port = -1;
+        }
+
+        String path = uri.getRawPath();
+        if (path == null || path.isEmpty()) {
+            path = "/";
+        }
+        int end = path.length();
+        while (end > 1 && path.charAt(end - 1) == '/') {
+            end--;
+        }
+        path = path.substring(0, end);
+
+        StringBuilder canonical = new StringBuilder(trimmed.length());
+        canonical.append(scheme).append("://");
+        if (uri.getRawUserInfo() != null) {
+            canonical.append(uri.getRawUserInfo()).append('@');
+        }
+        canonical.append(host);
+        if (port != -1) {
+            canonical.append(':').append(port);
+        }
+        canonical.append(path);
+
+        String query = filterQuery(uri.getRawQuery());
+        if (!query.isEmpty()) {
+            canonical.append('?').append(query);
+        }
+        return canonical.toString();
+    }
+
+    /**
+     * Canonical URL with http and https merged, the string that identifies a
+     * page
+     */
+    public String identity(String url) {
+        String canonical = canonicalize(url);
+        if (canonical != null && canonical.startsWith("http://")) {
+            return "https://" + canonical.substring("http://".length());
+        }
+        return canonical;
+    }
+
+    /**
+     * Fixed-width key of a URL for the unique index
+     *
+     * @param url URL as sent by the client
+     * @return first 16 bytes of the SHA-256 of its identity
+     */
+    public byte[] key(String url) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(identity(url).getBytes(StandardCharsets.UTF_8));
+            return Arrays.copyOf(hash, KEY_LENGTH);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private String filterQuery(String query) {
+        if (query == null || query.isEmpty()) {
+            return "";
+        }
+
+        StringBuilder kept = new StringBuilder(query.length());
+        for (String parameter : query.split("&")) {
+            if (parameter.isEmpty()) {
+                continue;
+            }
+            int equals = parameter.indexOf('=');
+            String name = (equals >= 0 ? parameter.substring(0, equals) : parameter).toLowerCase(Locale.ROOT);
+            if (isTracking(name)) {
+                continue;
+            }
+            if (kept.length() > 0) {
+                kept.append('&');
+            }
+            kept.append(parameter);
+        }
+        return kept.toString();
+    }
+
+    private boolean isTracking(String name) {
+        for (String tracking : trackingParameters) {
+            if (tracking.endsWith("*") ? name.startsWith(tracking.substring(0, tracking.length() - 1))
+                    : name.equals(tracking)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public List<String> getTrackingParameters() {
+        return trackingParameters;
+    }
+
+    public void setTrackingParameters(List<String> trackingParameters) {
+        this.trackingParameters = trackingParameters;
+    }
+}
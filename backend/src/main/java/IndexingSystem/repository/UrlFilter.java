@@ -0,0 +1,214 @@
+package IndexingSystem.repository;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * In-memory Bloom filter of the indexed URLs. A URL the filter has never seen
+ * is not in the database, so its lookup is skipped. Until the first build
+ * every URL is reported as a possible hit and goes to the database.
+ *
+ * Deleted URLs cannot be removed from the filter, it is rebuilt from the table
+ * periodically to drop them.
+ */
+@Component
+@ConfigurationProperties(prefix = "indexing.url-filter")
+public class UrlFilter implements MeterBinder {
+    private static final int SNAPSHOT_MAGIC = 0x55524c46;
+    private static final int SNAPSHOT_VERSION = 1;
+
+    private long expectedUrls = 100000;
+    private double falsePositiveRate = 0.01;
+
+    private volatile BloomFilter current;
+
+    // Filter being rebuilt, it receives the URLs added during the rebuild too
+    private volatile BloomFilter building;
+
+    private final AtomicLong skipped = new AtomicLong();
+    private final AtomicLong falsePositives = new AtomicLong();
+    private final AtomicLong rebuilds = new AtomicLong();
+
+    /**
+     * @return false if the URL is surely not indexed, true if it may be
+     */
+    public boolean mightContain(String url) {
+        BloomFilter filter = current;
+        if (filter == null || url == null || filter.mightContain(url)) {
+            return true;
+        }
+        skipped.incrementAndGet();
+        return false;
+    }
+
+    public void add(String url) {
+        if (url == null) {
+            return;
+        }
+        BloomFilter filter = current;
+        if (filter != null) {
+            filter.put(url);
+        }
+        BloomFilter next = building;
+        if (next != null) {
+            next.put(url);
+        }
+    }
+
+    /**
+     * Record a possible hit that the database did not confirm
+     */
+    public void falsePositive() {
+        falsePositives.incrementAndGet();
+    }
+
+    /**
+     * Start a rebuild. URLs added from now on go to the new filter as well, so it
+     * must be filled after this call.
+     *
+     * @param urls number of URLs in the table
+     * @return empty filter to fill with the indexed URLs
+     */
+    public synchronized BloomFilter beginRebuild(long urls) {
+        building = new BloomFilter(Math.max(expectedUrls, urls * 2), falsePositiveRate);
+        return building;
+    }
+
+    /**
+     * Replace the filter with a filled one
+     */
+    public synchronized void finishRebuild(BloomFilter filter) {
+        current = filter;
+        if (building == filter) {
+            building = null;
+        }
+        rebuilds.incrementAndGet();
+    }
+
+    public synchronized void abortRebuild() {
+        building = null;
+    }
+
+    /**
+     * Write the filter to a file, replacing it atomically
+     *
+     * @param file   snapshot file
+     * @param lastId highest row id whose URL is in the filter
+     * @return false if the filter is not built yet
+     */
+    public boolean save(Path file, long lastId) throws IOException {
+        BloomFilter filter = current;
+        if (filter == null) {
+            return false;
+        }
+
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeInt(SNAPSHOT_VERSION);
+            out.writeLong(lastId);
+            filter.writeTo(out);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return true;
+    }
+
+    /**
+     * Start a rebuild from a filter saved in a file. As with beginRebuild, URLs
+     * added from now on go to the loaded filter as well; the rows inserted after
+     * the snapshot must be added to it before finishRebuild.
+     *
+     * @param file snapshot file
+     * @return loaded filter and the highest row id it holds, null if there is no
+     *         valid snapshot
+     */
+    public synchronized Snapshot beginLoad(Path file) {
+        if (!Files.isReadable(file)) {
+            return null;
+        }
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != SNAPSHOT_VERSION) {
+                return null;
+            }
+            long lastId = in.readLong();
+            building = BloomFilter.readFrom(in);
+            return new Snapshot(building, lastId);
+        } catch (IOException e) {
+            System.out.println("Error reading URL filter snapshot: " + e);
+            return null;
+        }
+    }
+
+    public boolean isReady() {
+        return current != null;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("indexing.url_filter.skipped", skipped, AtomicLong::get).register(registry);
+        FunctionCounter.builder("indexing.url_filter.false_positives", falsePositives, AtomicLong::get)
+                .register(registry);
+        FunctionCounter.builder("indexing.url_filter.rebuilds", rebuilds, AtomicLong::get).register(registry);
+    }
+
+    public long getSkipped() {
+        return skipped.get();
+    }
+
+    public long getFalsePositives() {
+        return falsePositives.get();
+    }
+
+    public long getRebuilds() {
+        return rebuilds.get();
+    }
+
+    public long getExpectedUrls() {
+        return expectedUrls;
+    }
+
+    public void setExpectedUrls(long expectedUrls) {
+        this.expectedUrls = expectedUrls;
+    }
+
+    public double getFalsePositiveRate() {
+        return falsePositiveRate;
+    }
+
+    public void setFalsePositiveRate(double falsePositiveRate) {
+        this.falsePositiveRate = falsePositiveRate;
+    }
+
+    public static class Snapshot {
+        private final BloomFilter filter;
+        private final long lastId;
+
+        Snapshot(BloomFilter filter, long lastId) {
+            this.filter = filter;
+            this.lastId = lastId;
+        }
+
+        public BloomFilter getFilter() {
+            return filter;
+        }
+
+        public long getLastId() {
+            return lastId;
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package IndexingSystem.services;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import IndexingSystem.models.Blocklist;
+import IndexingSystem.repository.BlocklistRepository;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Compiled matchers of the stored blocklists, kept in memory. Checks that
+ * reference a list skip parsing and validating the words.
+ *
+ * The matchers are published as an immutable map that is replaced as a whole.
+ * Lists are compiled by a single background thread, after an edit through the
+ * API or when the periodic poll finds a newer version in the database, and the
+ * new map is swapped in atomically. Reads take no lock, and a check keeps the
+ * matcher it started with until it ends.
+ */
+@Component
+public class BlocklistRegistry {
+
+    @Autowired
+    private BlocklistRepository blocklistRepository;
+
+    @Value("${indexing.check.fold-obfuscation:false}")
+    private boolean foldObfuscation = false;
+
+    private final AtomicReference<Map<Integer, Entry>> matchers = new AtomicReference<>(Map.of());
+
+    // Last reload started by the periodic poll
+    private final AtomicReference<CompletableFuture<Void>> polling = new AtomicReference<>(
+            CompletableFuture.completedFuture(null));
+
+    private ExecutorService reloader;
+
+    /**
+     * Compile every stored blocklist and wait for it
+     *
+     * @throws Exception
+     */
+    public void load() throws Exception {
+        reload().join();
+    }
+
+    /**
+     * Compile the lists whose version changed since they were loaded. The
+     * reload runs on the reloader thread and is not waited for, so the shared
+     * scheduler thread is free for the other jobs. While a reload is still
+     * running no other one is queued.
+     */
+    @Scheduled(fixedDelayString = "${indexing.blocklists.reload-interval:5s}", initialDelayString = "${indexing.blocklists.reload-interval:5s}")
+    public void poll() {
+        if (!polling.get().isDone()) {
+            return;
+        }
+
+        polling.set(reload().exceptionally(e -> {
+            System.out.println("Error reloading blocklists: " + e);
+            return null;
+        }));
+    }
+
+    /**
+     * Compile, in the background, the lists that are new or changed in the
+     * database and drop the deleted ones
+     *
+     * @return completed once the new matchers are published
+     */
+    public CompletableFuture<Void> reload() {
+        return CompletableFuture.runAsync(this::sync, reloader());
+    }
+
+    /**
+     * Compile one list in the background after it was saved or deleted
+     *
+     * @param id blocklist id
+     * @return completed once its matcher is published
+     */
+    public CompletableFuture<Void> refresh(int id) {
+        return CompletableFuture.runAsync(() -> sync(id), reloader());
+    }
+
+    /**
+     * Validate a word list as it will be compiled
+     *
+     * @param words
+     * @return normalized words
+     * @throws IllegalArgumentException if the list is null or empty, or a word is
+     *                                  not valid
+     */
+    public List<String> normalize(List<String> words) {
+        if (words == null) {
+            throw new IllegalArgumentException("Word list cannot be null");
+        }
+        if (words.isEmpty()) {
+            throw new IllegalArgumentException("The list of words is empty");
+        }
+        return WordMatcher.normalize(words, foldObfuscation);
+    }
+
+    /**
+     * @param id blocklist id
+     * @return compiled matcher, or null if the list does not exist
+     */
+    public WordMatcher get(int id) {
+        Entry entry = matchers.get().get(id);
+        return entry != null ? entry.matcher : null;
+    }
+
+    /**
+     * Get the matcher of a blocklist referenced in a request
+     *
+     * @param id blocklist id, as a number or a string
+     * @return compiled matcher
+     * @throws IllegalArgumentException if the id is not valid or the list does not
+     *                                  exist
+     */
+    public WordMatcher require(Object id) {
+        int key;
+        try {
+            key = id instanceof Number ? ((Number) id).intValue() : Integer.parseInt(String.valueOf(id));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Blocklist id not valid: " + id);
+        }
+
+        WordMatcher matcher = get(key);
+        if (matcher == null) {
+            throw new IllegalArgumentException("The blocklist '" + key + "' does not exist");
+        }
+        return matcher;
+    }
+
+    /**
+     * @param id blocklist id
+     * @return version of the loaded matcher, or -1 if the list is not loaded
+     */
+    public long version(int id) {
+        Entry entry = matchers.get().get(id);
+        return entry != null ? entry.version : -1;
+    }
+
+    public int size() {
+        return matchers.get().size();
+    }
+
+    // Both sync methods run on the reloader thread only, so they never race
+    private void sync() {
+        Map<Integer, Long> versions;
+        try {
+            versions = blocklistRepository.readVersions();
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+
+        Map<Integer, Entry> current = matchers.get();
+        Map<Integer, Entry> next = new HashMap<>();
+        for (Map.Entry<Integer, Long> version : versions.entrySet()) {
+            Entry entry = current.get(version.getKey());
+            if (entry != null && entry.version == version.getValue()) {
+                next.put(version.getKey(), entry);
+                continue;
+            }
+
+            try {
+                Entry compiled = compile(version.getKey());
+                if (compiled != null) {
+                    next.put(version.getKey(), compiled);
+                }
+            } catch (IllegalArgumentException e) {
+                // The previous version stays in use
+                System.out.println("Error compiling blocklist " + version.getKey() + ": " + e.getMessage());
+                if (entry != null) {
+                    next.put(version.getKey(), entry);
+                }
+            }
+        }
+
+        if (!next.equals(current)) {
+            matchers.set(Map.copyOf(next));
+        }
+    }
+
+    private void sync(int id) {
+        Entry compiled;
+        try {
+            compiled = compile(id);
+        } catch (IllegalArgumentException e) {
+            System.out.println("Error compiling blocklist " + id + ": " + e.getMessage());
+            return;
+        }
+
+        Map<Integer, Entry> next = new HashMap<>(matchers.get());
+
+        if (compiled != null) {
+            next.put(id, compiled);
+        } else {
+            next.remove(id);
+        }
+        matchers.set(Map.copyOf(next));
+    }
+
+    /**
+     * @return compiled list, or null if it does not exist
+     * @throws IllegalArgumentException if a stored word is not valid
+     */
+    private Entry compile(int id) {
+        Blocklist blocklist;
+        try {
+            blocklist = blocklistRepository.read(id);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+        if (blocklist == null) {
+            return null;
+        }
+
+        return new Entry(WordMatcher.compile(blocklist.getWords(), foldObfuscation), blocklist.getVersion());
+    }
+
+    private synchronized ExecutorService reloader() {
+        if (reloader == null) {
+            reloader = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "blocklist-reloader");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return reloader;
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        if (reloader != null) {
+            reloader.shutdownNow();
+        }
+    }
+
+    private static class Entry {
+        private final WordMatcher matcher;
+        private final long version;
+
+        Entry(WordMatcher matcher, long version) {
+            this.matcher = matcher;
+            this.version = version;
+        }
+    }
+}
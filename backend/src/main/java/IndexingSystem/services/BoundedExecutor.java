@@ -0,0 +1,77 @@
+package IndexingSystem.services;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Executor whose limits are set by semaphores instead of thread counts. With
+ * virtual threads every task gets its own thread and waits on the semaphore
+ * without holding a platform thread; otherwise a fixed pool of platform
+ * threads is used.
+ */
+public class BoundedExecutor {
+
+    private final ExecutorService executor;
+
+    // Tasks running at the same time
+    private final Semaphore running;
+
+    // Tasks running or waiting, null if unbounded
+    private final Semaphore admitted;
+
+    /**
+     * @param virtualThreads run each task on a new virtual thread
+     * @param concurrency    maximum number of tasks running at the same time
+     * @param queueCapacity  maximum number of tasks waiting to run, negative for
+     *                       no limit
+     */
+    public BoundedExecutor(boolean virtualThreads, int concurrency, int queueCapacity) {
+        this.executor = virtualThreads ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(concurrency);
+        this.running = new Semaphore(concurrency);
+        this.admitted = queueCapacity < 0 ? null : new Semaphore(concurrency + queueCapacity);
+    }
+
+    /**
+     * Submit a task
+     *
+     * @param task
+     * @return future result of the task
+     * @throws RejectedExecutionException if the queue is full
+     */
+    public <T> Future<T> submit(Callable<T> task) {
+        if (admitted != null && !admitted.tryAcquire()) {
+            throw new RejectedExecutionException("The queue is full");
+        }
+
+        try {
+            return executor.submit(() -> {
+                try {
+                    running.acquire();
+                    try {
+                        return task.call();
+                    } finally {
+                        running.release();
+                    }
+                } finally {
+                    if (admitted != null) {
+                        admitted.release();
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            if (admitted != null) {
+                admitted.release();
+            }
+            throw e;
+        }
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,45 @@
+package IndexingSystem.services;
+
+/**
+ * Locale-independent case folding of UTF-16 chars through a table built once,
+ * so text can be compared without lowercasing a copy of it. Each char maps to
+ * its simple case fold: upper and title case letters to lower case, and
+ * variants such as the long s or the final sigma to their common form.
+ * Surrogates are left as they are.
+ */
+final class CaseFold {
+
+    private static final char[] TABLE = new char[Character.MAX_VALUE + 1];
+
+    static {
+        for (int c = 0; c <= Character.MAX_VALUE; c++) {
+            TABLE[c] = (char) Character.toLowerCase(Character.toUpperCase(c));
+        }
+
+        // Turkish dotless i is a letter of its own, not a form of i. Capital dotted
+        // I has no simple fold, it matches i as in the default lowercasing.
+        TABLE['ı'] = 'ı';
+        TABLE['İ'] = 'i';
+    }
+
+    private CaseFold() {
+    }
+
+    static char fold(char c) {
+        return TABLE[c];
+    }
+
+    static String fold(String text) {
+        char[] folded = null;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (TABLE[c] != c) {
+                if (folded == null) {
+                    folded = text.toCharArray();
+                }
+                folded[i] = TABLE[c];
+            }
+        }
+        return folded == null ? text : new String(folded);
+    }
+}
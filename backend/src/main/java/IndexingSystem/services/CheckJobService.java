@@ -0,0 +1,181 @@
+package IndexingSystem.services;
+
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+
+import IndexingSystem.models.CheckJob;
+import IndexingSystem.models.CheckVerdict;
+import IndexingSystem.models.News;
+import IndexingSystem.repository.H2Repository;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Runs checks in a worker pool so the request thread is released as soon as
+ * the job is queued
+ */
+@Service
+@Lazy
+@ConfigurationProperties(prefix = "indexing.jobs")
+public class CheckJobService {
+    private int workers = 8;
+    private int queueCapacity = 1000;
+
+    @Autowired
+    private NewsCheck newsCheck;
+
+    @Autowired
+    private WordListCache wordListCache;
+
+    @Autowired
+    private H2Repository h2Repository;
+
+    @Autowired
+    private CheckJobStore checkJobStore;
+
+    @Autowired
+    private HostFetchScheduler hostFetchScheduler;
+
+    @Autowired
+    private RejectionCache rejectionCache;
+
+    @Autowired
+    private CheckMetrics checkMetrics;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    private BoundedExecutor executor;
+
+    /**
+     * Queue the check of a URL. The URL and the words are validated before the
+     * job is created.
+     * 
+     * @param url   URL to check
+     * @param words words to search
+     * @return pending job
+     * @throws IllegalArgumentException  if the URL or the words are not valid
+     * @throws IllegalStateException     if the job store is full
+     * @throws RejectedExecutionException if the worker queue is full
+     */
+    public CheckJob submit(String url, List<String> words) {
+        checkUrl(url);
+
+        return submit(url, wordListCache.get(words));
+    }
+
+    /**
+     * Queue the check of a URL with an already compiled word list, such as a
+     * stored blocklist
+     *
+     * @param url     URL to check
+     * @param matcher compiled word list
+     * @return pending job
+     * @throws IllegalArgumentException  if the URL is not valid
+     * @throws IllegalStateException     if the job store is full
+     * @throws RejectedExecutionException if the worker queue is full
+     */
+    public CheckJob submit(String url, WordMatcher matcher) {
+        checkUrl(url);
+
+        CheckJob job = checkJobStore.create(url);
+        // Timed from the request, the wait in the queue included
+        Timer.Sample check = checkMetrics.start();
+        try {
+            executor().submit(() -> run(job, matcher, check));
+        } catch (RejectedExecutionException e) {
+            checkJobStore.remove(job);
+            throw e;
+        }
+        return job;
+    }
+
+    private void checkUrl(String url) {
+        if (url == null || url.trim().isEmpty()) {
+            throw new IllegalArgumentException("URL cannot be null or empty");
+        }
+    }
+
+    public CheckJob get(String id) {
+        return checkJobStore.get(id);
+    }
+
+    private Void run(CheckJob job, WordMatcher matcher, Timer.Sample check) {
+        job.setStatus(CheckJob.Status.RUNNING);
+        CheckVerdict verdict = check(job.getUrl(), matcher);
+        checkMetrics.checked(job.getUrl(), check, verdict.getStatus());
+        checkJobStore.finish(job, verdict);
+        return null;
+    }
+
+    private CheckVerdict check(String url, WordMatcher matcher) {
+        NewsCheck.ScanResult result;
+        try {
+            // Only a URL not rejected by the list waits for its turn on the host
+            String rejected = rejectionCache.get(url, matcher);
+            result = rejected != null ? new NewsCheck.ScanResult(rejected, null)
+                    : hostFetchScheduler.submit(url, () -> newsCheck.fetchPage(url, matcher)).get();
+        } catch (ExecutionException e) {
+            System.out.println("Error checking word in URL: " + e.getCause());
+            return CheckVerdict.error(url, "Error checking word in URL: " + e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return CheckVerdict.error(url, "Error checking word in URL: interrupted");
+        } catch (Exception e) {
+            System.out.println("Error checking word in URL: " + e);
+            return CheckVerdict.error(url, "Error checking word in URL: " + e.getMessage());
+        }
+
+        String word = result.getWord();
+        News news = new News(url, true);
+        news.setText(result.getText());
+
+        Timer.Sample store = checkMetrics.start();
+        try {
+            int outcome = h2Repository.create(news, word != null);
+            checkMetrics.stored("create", store, true);
+            return CheckVerdict.fromOutcome(url, outcome, word);
+        } catch (Exception e) {
+            System.out.println("Error creating news: " + e);
+            checkMetrics.stored("create", store, false);
+            return CheckVerdict.error(url, "Error creating news: " + e.getMessage());
+        }
+    }
+
+    private synchronized BoundedExecutor executor() {
+        if (executor == null) {
+            executor = new BoundedExecutor(virtualThreads, workers, queueCapacity);
+        }
+        return executor;
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    public int getWorkers() {
+        return workers;
+    }
+
+    public void setWorkers(int workers) {
+        this.workers = workers;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+}
@@ -0,0 +1,111 @@
+package IndexingSystem.services;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import IndexingSystem.models.CheckJob;
+import IndexingSystem.models.CheckVerdict;
+
+/**
+ * Bounded store of asynchronous check jobs. Finished jobs are kept for the
+ * configured TTL so clients can poll their verdict, then they are evicted.
+ */
+@Component
+@ConfigurationProperties(prefix = "indexing.jobs.store")
+public class CheckJobStore {
+    private int maxSize = 10000;
+    private Duration ttl = Duration.ofMinutes(10);
+
+    private Clock clock = Clock.systemUTC();
+
+    private final Map<String, CheckJob> jobs = new HashMap<>();
+
+    // Finished jobs in the order they finished, the oldest expires first
+    private final ArrayDeque<CheckJob> finished = new ArrayDeque<>();
+
+    /**
+     * Create a pending job. When the store is full the oldest finished job is
+     * evicted.
+     * 
+     * @param url URL to check
+     * @return new job
+     * @throws IllegalStateException if the store is full of unfinished jobs
+     */
+    public synchronized CheckJob create(String url) {
+        purgeExpired();
+
+        if (jobs.size() >= maxSize) {
+            CheckJob oldest = finished.pollFirst();
+            if (oldest == null) {
+                throw new IllegalStateException("Too many pending jobs");
+            }
+            jobs.remove(oldest.getId());
+        }
+
+        CheckJob job = new CheckJob(UUID.randomUUID().toString(), url, clock.instant());
+        jobs.put(job.getId(), job);
+        return job;
+    }
+
+    /**
+     * Get a job by id
+     * 
+     * @param id
+     * @return job or null if not found or expired
+     */
+    public synchronized CheckJob get(String id) {
+        purgeExpired();
+        return jobs.get(id);
+    }
+
+    public synchronized void finish(CheckJob job, CheckVerdict verdict) {
+        job.finish(verdict, clock.instant());
+        if (jobs.containsKey(job.getId())) {
+            finished.addLast(job);
+        }
+    }
+
+    /**
+     * Remove a job that could not be started
+     * 
+     * @param job
+     */
+    public synchronized void remove(CheckJob job) {
+        jobs.remove(job.getId());
+    }
+
+    public synchronized int size() {
+        return jobs.size();
+    }
+
+    private void purgeExpired() {
+        Instant limit = clock.instant().minus(ttl);
+        while (!finished.isEmpty() && finished.peekFirst().getFinishedAt().isBefore(limit)) {
+            jobs.remove(finished.pollFirst().getId());
+        }
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    public void setTtl(Duration ttl) {
+        this.ttl = ttl;
+    }
+}
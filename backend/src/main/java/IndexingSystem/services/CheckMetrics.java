@@ -0,0 +1,148 @@
+package IndexingSystem.services;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+
+/**
+ * Timers and counters of the check pipeline. Every check is timed end to end
+ * and tagged with its outcome, and each phase (fetch, parse, match and the
+ * database write) has its own timer. Until a registry is bound the meters
+ * record nothing.
+ */
+@Component
+@ConfigurationProperties(prefix = "indexing.metrics")
+public class CheckMetrics implements MeterBinder {
+    public static final String OTHER_HOST = "other";
+
+    // Hosts beyond the limit are tagged as "other" to bound the number of series
+    private int maxHosts = 200;
+
+    private final CompositeMeterRegistry registry = new CompositeMeterRegistry();
+    private final Set<String> hosts = ConcurrentHashMap.newKeySet();
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.registry.add(registry);
+    }
+
+    public Timer.Sample start() {
+        return Timer.start(registry);
+    }
+
+    /**
+     * @param ok    false if the page could not be downloaded
+     * @param bytes size of the downloaded body, 0 if unknown
+     */
+    public void fetched(String url, Timer.Sample sample, boolean ok, long bytes) {
+        String host = hostTag(url);
+        sample.stop(Timer.builder("indexing.check.fetch")
+                .description("Time to download a page")
+                .tag("host", host)
+                .tag("outcome", ok ? "success" : "error")
+                .register(registry));
+
+        if (bytes > 0) {
+            Counter.builder("indexing.check.fetched.bytes")
+                    .description("Bytes of page bodies downloaded")
+                    .baseUnit("bytes")
+                    .tag("host", host)
+                    .register(registry)
+                    .increment(bytes);
+        }
+    }
+
+    public void parsed(String url, Timer.Sample sample) {
+        sample.stop(Timer.builder("indexing.check.parse")
+                .description("Time to parse a page and extract its text")
+                .tag("host", hostTag(url))
+                .register(registry));
+    }
+
+    /**
+     * @param found whether a word was found
+     * @param chars characters of text scanned
+     */
+    public void matched(String url, Timer.Sample sample, boolean found, long chars) {
+        String host = hostTag(url);
+        sample.stop(Timer.builder("indexing.check.match")
+                .description("Time to search the words in the page text")
+                .tag("host", host)
+                .tag("outcome", found ? "found" : "clean")
+                .register(registry));
+
+        Counter.builder("indexing.check.scanned.chars")
+                .description("Characters of page text searched for words")
+                .tag("host", host)
+                .register(registry)
+                .increment(chars);
+    }
+
+    /**
+     * @param operation repository method, create or create_all
+     * @param ok        false if the write failed
+     */
+    public void stored(String operation, Timer.Sample sample, boolean ok) {
+        sample.stop(Timer.builder("indexing.check.db")
+                .description("Time to write check results")
+                .tag("operation", operation)
+                .tag("outcome", ok ? "success" : "error")
+                .register(registry));
+    }
+
+    /**
+     * Record a finished check
+     *
+     * @param status HTTP status of its verdict
+     */
+    public void checked(String url, Timer.Sample sample, int status) {
+        sample.stop(Timer.builder("indexing.check")
+                .description("Time to check a URL, from the request to the verdict")
+                .tag("host", hostTag(url))
+                .tag("outcome", outcome(status))
+                .register(registry));
+    }
+
+    static String outcome(int status) {
+        switch (status) {
+            case 201:
+                return "accepted";
+            case 200:
+                return "rejected";
+            case 409:
+                return "conflict";
+            default:
+                return "error";
+        }
+    }
+
+    String hostTag(String url) {
+        String host = url != null ? HostFetchScheduler.hostOf(url) : "";
+        if (host.isEmpty()) {
+            return OTHER_HOST;
+        }
+        if (hosts.contains(host)) {
+            return host;
+        }
+        if (hosts.size() < maxHosts && hosts.add(host)) {
+            return host;
+        }
+        return hosts.contains(host) ? host : OTHER_HOST;
+    }
+
+    public int getMaxHosts() {
+        return maxHosts;
+    }
+
+    public void setMaxHosts(int maxHosts) {
+        this.maxHosts = maxHosts;
+    }
+}
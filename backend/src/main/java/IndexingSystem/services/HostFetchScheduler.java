@@ -0,0 +1,275 @@
+package IndexingSystem.services;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Schedules page fetches politely. Each host has its own queue, a limit of
+ * fetches in flight and a minimum delay between two fetches, and hosts with
+ * pending fetches are served round-robin so a large host cannot starve the
+ * others.
+ */
+@Component
+@ConfigurationProperties(prefix = "indexing.fetch")
+public class HostFetchScheduler {
+    private static final int MIN_SWEEP = 1024;
+
+    private int parallelism = 8;
+    private int maxPerHost = 2;
+    private Duration minDelay = Duration.ofMillis(500);
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+
+    private final Map<String, HostQueue> hosts = new HashMap<>();
+
+    // Hosts with pending fetches, in round-robin order
+    private final ArrayDeque<HostQueue> ring = new ArrayDeque<>();
+
+    // Fetches running on all hosts
+    private int running = 0;
+
+    // Size of the host map that triggers a sweep of idle hosts
+    private int sweepAt = MIN_SWEEP;
+
+    private BoundedExecutor executor;
+    private Thread dispatcher;
+    private boolean stopped;
+
+    /**
+     * Queue a fetch
+     *
+     * @param url  URL to fetch, its host selects the queue
+     * @param task fetch to run
+     * @return future result of the fetch
+     */
+    public <T> CompletableFuture<T> submit(String url, Callable<T> task) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Runnable fetch = () -> {
+            try {
+                result.complete(task.call());
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        };
+
+        lock.lock();
+        try {
+            if (stopped) {
+                throw new IllegalStateException("The fetch scheduler is stopped");
+            }
+            start();
+
+            if (hosts.size() >= sweepAt) {
+                sweepIdleHosts();
+            }
+
+            String host = hostOf(url);
+            HostQueue queue = hosts.computeIfAbsent(host, HostQueue::new);
+            queue.pending.addLast(fetch);
+            if (queue.pending.size() == 1) {
+                ring.addLast(queue);
+            }
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+
+        return result;
+    }
+
+    private void start() {
+        if (dispatcher == null) {
+            executor = new BoundedExecutor(virtualThreads, parallelism, -1);
+            dispatcher = new Thread(this::dispatch, "host-fetch-scheduler");
+            dispatcher.setDaemon(true);
+            dispatcher.start();
+        }
+    }
+
+    private void dispatch() {
+        lock.lock();
+        try {
+            while (!stopped) {
+                long now = System.nanoTime();
+                long wakeUp = Long.MAX_VALUE;
+                HostQueue next = null;
+
+                for (int i = 0, n = running < parallelism ? ring.size() : 0; i < n; i++) {
+                    HostQueue queue = ring.pollFirst();
+                    ring.addLast(queue);
+
+                    if (queue.active >= maxPerHost) {
+                        continue;
+                    }
+                    if (queue.nextAllowed - now > 0) {
+                        wakeUp = Math.min(wakeUp, queue.nextAllowed - now);
+                        continue;
+                    }
+                    next = queue;
+                    break;
+                }
+
+                if (next == null) {
+                    if (wakeUp == Long.MAX_VALUE) {
+                        changed.await();
+                    } else {
+                        changed.awaitNanos(wakeUp);
+                    }
+                    continue;
+                }
+
+                Runnable fetch = next.pending.pollFirst();
+                if (next.pending.isEmpty()) {
+                    ring.removeLastOccurrence(next);
+                }
+                next.active++;
+                running++;
+                next.nextAllowed = now + minDelay.toNanos();
+
+                HostQueue host = next;
+                executor.submit(() -> {
+                    started(host);
+                    try {
+                        fetch.run();
+                    } finally {
+                        finished(host);
+                    }
+                    return null;
+                });
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // The thread may start after the dispatch, the delay counts from the later
+    private void started(HostQueue queue) {
+        lock.lock();
+        try {
+            long nextAllowed = System.nanoTime() + minDelay.toNanos();
+            if (nextAllowed - queue.nextAllowed > 0) {
+                queue.nextAllowed = nextAllowed;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void finished(HostQueue queue) {
+        lock.lock();
+        try {
+            queue.active--;
+            running--;
+            // Forget idle hosts once their delay is over, nothing is left to enforce
+            if (queue.active == 0 && queue.pending.isEmpty() && queue.nextAllowed - System.nanoTime() <= 0) {
+                hosts.remove(queue.host);
+            }
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void sweepIdleHosts() {
+        long now = System.nanoTime();
+        hosts.values().removeIf(queue -> queue.active == 0 && queue.pending.isEmpty() && queue.nextAllowed - now <= 0);
+        sweepAt = Math.max(MIN_SWEEP, hosts.size() * 2);
+    }
+
+    static String hostOf(String url) {
+        try {
+            String host = URI.create(url.trim()).getHost();
+            return host != null ? host.toLowerCase(Locale.ROOT) : "";
+        } catch (Exception e) {
+            return "";
+        }
+    }
+
+    /**
+     * @return number of hosts with fetches pending, running or in their delay
+     */
+    public int hostCount() {
+        lock.lock();
+        try {
+            return hosts.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        lock.lock();
+        try {
+            stopped = true;
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+
+        if (dispatcher != null) {
+            try {
+                dispatcher.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            executor.shutdown();
+        }
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    public int getMaxPerHost() {
+        return maxPerHost;
+    }
+
+    public void setMaxPerHost(int maxPerHost) {
+        this.maxPerHost = maxPerHost;
+    }
+
+    public Duration getMinDelay() {
+        return minDelay;
+    }
+
+    public void setMinDelay(Duration minDelay) {
+        this.minDelay = minDelay;
+    }
+
+    private static class HostQueue {
+        final String host;
+        final ArrayDeque<Runnable> pending = new ArrayDeque<>();
+        int active = 0;
+        long nextAllowed = System.nanoTime();
+
+        HostQueue(String host) {
+            this.host = host;
+        }
+    }
+}
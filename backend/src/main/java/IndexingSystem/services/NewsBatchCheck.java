@@ -0,0 +1,152 @@
+package IndexingSystem.services;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+
+import IndexingSystem.models.CheckVerdict;
+import IndexingSystem.models.News;
+import IndexingSystem.repository.H2Repository;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Checks many URLs against one word list. The list is compiled once, the pages
+ * are fetched and scanned concurrently through the per-host scheduler and the
+ * results are written in a single transaction. URLs already rejected by the
+ * same list are answered from the rejection cache without waiting for a turn
+ * on their host.
+ */
+@Service
+@Lazy
+@ConfigurationProperties(prefix = "indexing.batch")
+public class NewsBatchCheck {
+    private int maxUrls = 1000;
+
+    @Autowired
+    private NewsCheck newsCheck;
+
+    @Autowired
+    private WordListCache wordListCache;
+
+    @Autowired
+    private H2Repository h2Repository;
+
+    @Autowired
+    private HostFetchScheduler hostFetchScheduler;
+
+    @Autowired
+    private RejectionCache rejectionCache;
+
+    @Autowired
+    private CheckMetrics checkMetrics;
+
+    /**
+     * Check a batch of URLs
+     *
+     * @param urls  URLs to check
+     * @param words words to search in every URL
+     * @return verdict of each URL, in the same order
+     * @throws IllegalArgumentException if the URL list or the word list are not
+     *                                  valid
+     */
+    public List<CheckVerdict> check(List<String> urls, List<String> words) {
+        checkUrls(urls);
+
+        return check(urls, wordListCache.get(words));
+    }
+
+    /**
+     * Check a batch of URLs with an already compiled word list, such as a stored
+     * blocklist
+     *
+     * @param urls    URLs to check
+     * @param matcher compiled word list
+     * @return verdict of each URL, in the same order
+     * @throws IllegalArgumentException if the URL list is not valid
+     */
+    public List<CheckVerdict> check(List<String> urls, WordMatcher matcher) {
+        checkUrls(urls);
+
+        Timer.Sample check = checkMetrics.start();
+
+        List<CompletableFuture<NewsCheck.ScanResult>> scans = new ArrayList<>(urls.size());
+        for (String url : urls) {
+            String rejected = rejectionCache.get(url, matcher);
+            if (rejected != null) {
+                scans.add(CompletableFuture.completedFuture(new NewsCheck.ScanResult(rejected, null)));
+            } else {
+                scans.add(hostFetchScheduler.submit(url, () -> newsCheck.fetchPage(url, matcher)));
+            }
+        }
+
+        CheckVerdict[] verdicts = new CheckVerdict[urls.size()];
+        List<Integer> scanned = new ArrayList<>();
+        List<String> scannedWords = new ArrayList<>();
+        List<News> news = new ArrayList<>();
+        List<Boolean> found = new ArrayList<>();
+
+        for (int i = 0; i < urls.size(); i++) {
+            try {
+                NewsCheck.ScanResult result = scans.get(i).get();
+                News accepted = new News(urls.get(i), true);
+                accepted.setText(result.getText());
+                scanned.add(i);
+                scannedWords.add(result.getWord());
+                news.add(accepted);
+                found.add(result.getWord() != null);
+            } catch (ExecutionException e) {
+                verdicts[i] = CheckVerdict.error(urls.get(i), "Error checking word in URL: " + e.getCause().getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                verdicts[i] = CheckVerdict.error(urls.get(i), "Error checking word in URL: interrupted");
+            }
+        }
+
+        if (!news.isEmpty()) {
+            Timer.Sample store = checkMetrics.start();
+            try {
+                int[] outcomes = h2Repository.createAll(news, found);
+                checkMetrics.stored("create_all", store, true);
+                for (int j = 0; j < outcomes.length; j++) {
+                    int i = scanned.get(j);
+                    verdicts[i] = CheckVerdict.fromOutcome(urls.get(i), outcomes[j], scannedWords.get(j));
+                }
+            } catch (Exception e) {
+                System.out.println("Error creating news: " + e);
+                checkMetrics.stored("create_all", store, false);
+                for (int i : scanned) {
+                    verdicts[i] = CheckVerdict.error(urls.get(i), "Error creating news: " + e.getMessage());
+                }
+            }
+        }
+
+        // Every URL of the batch waits for the whole batch
+        for (CheckVerdict verdict : verdicts) {
+            checkMetrics.checked(verdict.getUrl(), check, verdict.getStatus());
+        }
+        return List.of(verdicts);
+    }
+
+    private void checkUrls(List<String> urls) {
+        if (urls == null || urls.isEmpty()) {
+            throw new IllegalArgumentException("The list of URLs is empty");
+        }
+        if (urls.size() > maxUrls) {
+            throw new IllegalArgumentException("The list of URLs exceeds the limit of " + maxUrls);
+        }
+    }
+
+    public int getMaxUrls() {
+        return maxUrls;
+    }
+
+    public void setMaxUrls(int maxUrls) {
+        this.maxUrls = maxUrls;
+    }
+}
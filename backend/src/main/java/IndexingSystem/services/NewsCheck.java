@@ -1,67 +1,329 @@
 package IndexingSystem.services;
 
+import org.jsoup.Connection;
 import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.Node;
+import org.jsoup.nodes.TextNode;
+import org.jsoup.parser.StreamParser;
+import org.jsoup.select.NodeTraversor;
+import org.jsoup.select.NodeVisitor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 
+import IndexingSystem.repository.SnapshotStore;
+import io.micrometer.core.instrument.Timer;
+
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
-import java.util.regex.Pattern;
+import java.util.concurrent.Semaphore;
 
 @Service
 @Lazy
 public class NewsCheck {
 
-    private static final Pattern VALID_WORD_PATTERN = Pattern.compile("^[\\p{L}\\p{N}\']+$");
+    @Autowired
+    private WordListCache wordListCache;
+
+    @Autowired
+    private CheckMetrics checkMetrics;
+
+    @Autowired
+    private SnapshotStore snapshotStore;
+
+    @Autowired
+    private VerdictCache verdictCache;
+
+    @Autowired
+    private RejectionCache rejectionCache;
+
+    @Value("${indexing.check.streaming:false}")
+    private boolean streaming;
+
+    // Limit of outbound fetches in flight, whatever the threads that run them
+    @Value("${indexing.check.max-concurrent-fetches:200}")
+    private int maxConcurrentFetches = 200;
+
+    private Semaphore fetchPermits;
 
     public ArrayList<Object> searchWordsInUrl(String url, ArrayList<String> words) throws Exception {
-        if (url == null || url.trim().isEmpty()) {
-            throw new IllegalArgumentException("URL cannot be null or empty");
+        checkUrl(url);
+
+        return searchInUrl(url, wordListCache.get(words));
+    }
+
+    /**
+     * Search a page with an already compiled word list, such as a stored
+     * blocklist
+     *
+     * @param url
+     * @param matcher compiled word list
+     * @return whether a word was found and the word, empty if none, followed by
+     *         the page text when it is kept for a snapshot
+     */
+    public ArrayList<Object> searchInUrl(String url, WordMatcher matcher) {
+        ScanResult result = scanPage(url, matcher);
+
+        if (result.getWord() != null) {
+            return new ArrayList<>(List.of(true, result.getWord()));
         }
-        if (words == null) {
-            throw new IllegalArgumentException("Word list cannot be null");
+
+        ArrayList<Object> clean = new ArrayList<>(List.of(false, ""));
+        if (result.getText() != null) {
+            clean.add(result.getText());
         }
-        if (words.isEmpty()) {
-            throw new IllegalArgumentException("The list of words is empty");
+        return clean;
+    }
+
+    /**
+     * Fetch a page and search it with an already compiled word list
+     *
+     * @param url
+     * @param matcher compiled word list
+     * @return word found or null if none is found
+     */
+    public String scan(String url, WordMatcher matcher) {
+        return scanPage(url, matcher).getWord();
+    }
+
+    /**
+     * Fetch a page and search it with an already compiled word list, keeping the
+     * page text of a clean page when snapshots are enabled. A URL where the same
+     * list found a word is not fetched again until the rejection expires.
+     *
+     * @param url
+     * @param matcher compiled word list
+     * @return word found, null if none, and the text of a clean page
+     */
+    public ScanResult scanPage(String url, WordMatcher matcher) {
+        checkUrl(url);
+
+        String rejected = rejectionCache.get(url, matcher);
+        if (rejected != null) {
+            return new ScanResult(rejected, null);
+        }
+        return fetchPage(url, matcher);
+    }
+
+    /**
+     * Fetch a page and search it without looking up its rejection, for callers
+     * that looked it up before queueing the fetch. A word found is recorded as a
+     * rejection.
+     *
+     * @param url
+     * @param matcher compiled word list
+     * @return word found, null if none, and the text of a clean page
+     */
+    public ScanResult fetchPage(String url, WordMatcher matcher) {
+        checkUrl(url);
+
+        ScanResult result = fetchAndScan(url, matcher);
+        if (result.getWord() != null) {
+            rejectionCache.put(url, matcher, result.getWord());
+        }
+        return result;
+    }
+
+    private ScanResult fetchAndScan(String url, WordMatcher matcher) {
+        Semaphore permits = fetchPermits();
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting to fetch URL", e);
         }
 
         try {
-            Document document = Jsoup.connect(url).get();
-            String pageText = document.body().text().toLowerCase();
+            if (streaming) {
+                return scanStream(url, matcher);
+            }
+
+            Timer.Sample phase = checkMetrics.start();
+            Connection.Response response;
+            try {
+                response = Jsoup.connect(url).execute();
+                response.bufferUp();
+            } catch (IOException | UncheckedIOException e) {
+                checkMetrics.fetched(url, phase, false, 0);
+                throw e;
+            }
+            checkMetrics.fetched(url, phase, true, response.bodyAsBytes().length);
+
+            phase = checkMetrics.start();
+            Document document = response.parse();
+            String pageText = document.body().text();
+            checkMetrics.parsed(url, phase);
+
+            phase = checkMetrics.start();
+            String word = match(pageText, matcher);
+            checkMetrics.matched(url, phase, word != null, pageText.length());
+            return new ScanResult(word, word == null && snapshotStore.isEnabled() ? pageText : null);
+        } catch (IOException | UncheckedIOException e) {
+            throw new RuntimeException("Error connecting to URL: " + e.getMessage(), e);
+        } catch (Exception e) {
+            throw new RuntimeException("Unexpected error processing content: " + e.getMessage(), e);
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Search the page text, or reuse the verdict of the same text or of a near
+     * duplicate found at another URL
+     *
+     * @param text    extracted page text
+     * @param matcher compiled word list
+     * @return word found or null if none is found
+     */
+    private String match(String text, WordMatcher matcher) {
+        if (!verdictCache.isEnabled()) {
+            return matcher.firstMatch(text);
+        }
+
+        VerdictCache.Key key = verdictCache.key(text, matcher);
+        VerdictCache.Verdict cached = verdictCache.get(key);
+        if (cached != null) {
+            return cached.getWord();
+        }
+
+        String word = matcher.firstMatch(text);
+        verdictCache.put(key, word);
+        return word;
+    }
+
+    private synchronized Semaphore fetchPermits() {
+        if (fetchPermits == null) {
+            fetchPermits = new Semaphore(maxConcurrentFetches);
+        }
+        return fetchPermits;
+    }
 
-            for (String word : words) {
-                if (word == null) {
-                    throw new IllegalArgumentException("Word cannot be null");
+    private void checkUrl(String url) {
+        if (url == null || url.trim().isEmpty()) {
+            throw new IllegalArgumentException("URL cannot be null or empty");
+        }
+    }
+
+    /**
+     * Scan the body text while the page is being downloaded. Each block element
+     * is scanned as soon as it is closed and then emptied, and the connection is
+     * closed as soon as a word is found, so the report is the first word found
+     * in the page and not the first one of the list. Download, parse and search
+     * overlap, so the match timer covers the three and the body size is not
+     * counted. With snapshots enabled the scanned text is kept as well, with its
+     * blocks separated by a space. The whole text is never known before it is
+     * searched, so the verdict cache is not used.
+     *
+     * @param url
+     * @param matcher compiled word list
+     * @return word found or null if none is found, and the text of a clean page
+     * @throws IOException
+     */
+    private ScanResult scanStream(String url, WordMatcher matcher) throws IOException {
+        WordMatcher.Scanner scanner = matcher.scanner();
+        StringBuilder kept = snapshotStore.isEnabled() ? new StringBuilder() : null;
+        long[] scanned = { 0 };
+        NodeVisitor feeder = new NodeVisitor() {
+            @Override
+            public void head(Node node, int depth) {
+                if (node instanceof TextNode) {
+                    String text = ((TextNode) node).getWholeText();
+                    scanned[0] += text.length();
+                    scanner.feed(text);
+                    if (kept != null) {
+                        kept.append(text);
+                    }
+                } else if (isBoundary(node)) {
+                    separate();
                 }
+            }
 
-                word = word.trim();
+            @Override
+            public void tail(Node node, int depth) {
+                if (isBoundary(node)) {
+                    separate();
+                }
+            }
 
-                if (word.isEmpty()) {
-                    throw new IllegalArgumentException("Word cannot be empty");
+            private void separate() {
+                scanner.separate();
+                if (kept != null && kept.length() > 0 && kept.charAt(kept.length() - 1) != ' ') {
+                    kept.append(' ');
                 }
+            }
+        };
 
-                word = word.toLowerCase();
+        Timer.Sample phase = checkMetrics.start();
+        Connection.Response response;
+        try {
+            response = Jsoup.connect(url).execute();
+        } catch (IOException | UncheckedIOException e) {
+            checkMetrics.fetched(url, phase, false, 0);
+            throw e;
+        }
+        checkMetrics.fetched(url, phase, true, 0);
+
+        phase = checkMetrics.start();
+        try (StreamParser parser = response.streamParser()) {
+            Iterator<Element> elements = parser.iterator();
 
-                if (!isValidWord(word)) {
-                    throw new IllegalArgumentException("Word not valid: " + word);
+            while (elements.hasNext()) {
+                Element element = elements.next();
+
+                // Inline elements are scanned with their enclosing block
+                if (!element.isBlock() || element.closest("body") == null) {
+                    continue;
                 }
 
-                if (pageText.contains(word)) {
-                    return new ArrayList<>(List.of(true, word));
+                NodeTraversor.traverse(feeder, element);
+                if (scanner.found()) {
+                    checkMetrics.matched(url, phase, true, scanned[0]);
+                    return new ScanResult(scanner.match(), null);
                 }
-            }
 
-            return new ArrayList<>(List.of(false, ""));
-        } catch (IOException e) {
-            throw new RuntimeException("Error connecting to URL: " + e.getMessage(), e);
-        } catch (Exception e) {
-            throw new RuntimeException("Unexpected error processing content: " + e.getMessage(), e);
+                // Already scanned, the empty element stays as a boundary for its parent
+                element.empty();
+            }
         }
+
+        checkMetrics.matched(url, phase, false, scanned[0]);
+        return new ScanResult(null, kept != null ? kept.toString().trim() : null);
+    }
+
+    private static boolean isBoundary(Node node) {
+        return node instanceof Element && (((Element) node).isBlock() || ((Element) node).nameIs("br"));
     }
 
-    private boolean isValidWord(String word) {
-        return VALID_WORD_PATTERN.matcher(word).matches();
+    /**
+     * Outcome of a page scan
+     */
+    public static class ScanResult {
+        private final String word;
+        private final String text;
+
+        public ScanResult(String word, String text) {
+            this.word = word;
+            this.text = text;
+        }
+
+        /**
+         * @return word found, null if none
+         */
+        public String getWord() {
+            return word;
+        }
+
+        /**
+         * @return text of a clean page when snapshots are enabled, null otherwise
+         */
+        public String getText() {
+            return text;
+        }
     }
-}
\ No newline at end of file
+}
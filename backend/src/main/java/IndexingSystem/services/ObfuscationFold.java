@@ -0,0 +1,83 @@
+package IndexingSystem.services;
+
+import java.text.Normalizer;
+
+/**
+ * Looser fold than CaseFold for words written to dodge a list. Besides case,
+ * letters lose their diacritics, common look-alike digits and symbols map to
+ * the letter they stand for, and separators written inside a word are
+ * skipped, so "r4c1st", "r-a-c-i-s-t" and "rácist" all fold to "racist".
+ * Whitespace is not skipped, words are still not matched across spaces.
+ */
+final class ObfuscationFold {
+
+    // Folded value of a char that is ignored
+    static final char SKIP = '\0';
+
+    private static final String LOOK_ALIKES = "4a@a3e1i!i0o5s$s7t";
+    private static final String SEPARATORS = "-_.*'\u2019`\u00b4~|/\\+\u00b7\u2022\u00ad\u200b\u200c\u200d\u2060\ufeff";
+    private static final String NOT_DECOMPOSED = "øoØołlŁlđdĐdħhĦhıi";
+
+    private static final char[] TABLE = new char[Character.MAX_VALUE + 1];
+
+    static {
+        for (int c = 0; c <= Character.MAX_VALUE; c++) {
+            char base = (char) c;
+            if (Character.getType(base) == Character.NON_SPACING_MARK) {
+                TABLE[c] = SKIP;
+                continue;
+            }
+            if (!Character.isSurrogate(base)) {
+                String decomposed = Normalizer.normalize(String.valueOf(base), Normalizer.Form.NFD);
+                if (decomposed.length() > 1 && isMarks(decomposed, 1)) {
+                    base = decomposed.charAt(0);
+                }
+            }
+            TABLE[c] = CaseFold.fold(base);
+        }
+
+        for (int i = 0; i < NOT_DECOMPOSED.length(); i += 2) {
+            TABLE[NOT_DECOMPOSED.charAt(i)] = NOT_DECOMPOSED.charAt(i + 1);
+        }
+        for (int i = 0; i < LOOK_ALIKES.length(); i += 2) {
+            TABLE[LOOK_ALIKES.charAt(i)] = LOOK_ALIKES.charAt(i + 1);
+        }
+        for (int i = 0; i < SEPARATORS.length(); i++) {
+            TABLE[SEPARATORS.charAt(i)] = SKIP;
+        }
+        TABLE[SKIP] = SKIP;
+    }
+
+    private ObfuscationFold() {
+    }
+
+    /**
+     * @return folded char, SKIP if it is ignored
+     */
+    static char fold(char c) {
+        return TABLE[c];
+    }
+
+    /**
+     * @return folded text without the ignored chars
+     */
+    static String fold(String text) {
+        StringBuilder folded = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = TABLE[text.charAt(i)];
+            if (c != SKIP) {
+                folded.append(c);
+            }
+        }
+        return folded.toString();
+    }
+
+    private static boolean isMarks(String text, int from) {
+        for (int i = from; i < text.length(); i++) {
+            if (Character.getType(text.charAt(i)) != Character.NON_SPACING_MARK) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,200 @@
+package IndexingSystem.services;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import IndexingSystem.repository.RejectionRepository;
+import IndexingSystem.repository.RejectionRepository.Rejection;
+import IndexingSystem.repository.UrlCanonicalizer;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Rejected URLs, answered without downloading the page again until the TTL
+ * ends. A rejection is stored in the database with the word found and the
+ * fingerprint of the word list, so it survives restarts and is shared by the
+ * instances of the same database. The most recent ones are also kept in an LRU
+ * cache in memory. Only rejections are kept: an accepted URL is in the
+ * authorized news table already.
+ */
+@Component
+@ConfigurationProperties(prefix = "indexing.rejections")
+public class RejectionCache implements MeterBinder {
+    private boolean enabled = true;
+    private Duration ttl = Duration.ofHours(24);
+    private int maxSize = 10000;
+
+    @Autowired
+    private RejectionRepository rejectionRepository;
+
+    @Autowired
+    private UrlCanonicalizer urlCanonicalizer;
+
+    private Clock clock = Clock.systemUTC();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong storedHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    private final Map<String, Rejection> cache = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Rejection> eldest) {
+            return size() > maxSize;
+        }
+    };
+
+    /**
+     * Get the word found in a URL by the same word list, from memory or from
+     * the database
+     *
+     * @param url     URL as sent by the client
+     * @param matcher compiled word list
+     * @return word found, null if the URL was not rejected by the list or the
+     *         rejection expired
+     */
+    public String get(String url, WordMatcher matcher) {
+        if (!enabled || url == null || url.trim().isEmpty()) {
+            return null;
+        }
+
+        String key = key(url, matcher);
+        Instant now = clock.instant();
+
+        synchronized (cache) {
+            Rejection rejection = cache.get(key);
+            if (rejection != null) {
+                if (rejection.getExpiresAt().isAfter(now)) {
+                    hits.incrementAndGet();
+                    return rejection.getWord();
+                }
+                cache.remove(key);
+            }
+        }
+
+        try {
+            Rejection rejection = rejectionRepository.find(url, matcher.fingerprint(), now);
+            if (rejection == null) {
+                misses.incrementAndGet();
+                return null;
+            }
+
+            storedHits.incrementAndGet();
+            synchronized (cache) {
+                cache.putIfAbsent(key, rejection);
+            }
+            return rejection.getWord();
+        } catch (Exception e) {
+            System.out.println("Error reading rejected URL: " + e);
+            misses.incrementAndGet();
+            return null;
+        }
+    }
+
+    /**
+     * Record that a word list found a word in a URL
+     *
+     * @param url     URL as sent by the client
+     * @param matcher compiled word list
+     * @param word    word found
+     */
+    public void put(String url, WordMatcher matcher, String word) {
+        if (!enabled) {
+            return;
+        }
+
+        Instant expiresAt = clock.instant().plus(ttl);
+        synchronized (cache) {
+            cache.put(key(url, matcher), new Rejection(word, expiresAt));
+        }
+
+        try {
+            rejectionRepository.save(url, matcher.fingerprint(), word, expiresAt);
+        } catch (Exception e) {
+            System.out.println("Error saving rejected URL: " + e);
+        }
+    }
+
+    /**
+     * Delete the expired rejections from the database
+     *
+     * @return number of rejections deleted
+     */
+    @Scheduled(fixedDelayString = "${indexing.rejections.purge-interval:1h}", initialDelayString = "${indexing.rejections.purge-interval:1h}")
+    public int purge() {
+        if (!enabled) {
+            return 0;
+        }
+
+        try {
+            return rejectionRepository.purge(clock.instant());
+        } catch (Exception e) {
+            System.out.println("Error purging rejected URLs: " + e);
+            return 0;
+        }
+    }
+
+    private String key(String url, WordMatcher matcher) {
+        return urlCanonicalizer.identity(url) + " " + matcher.fingerprint();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("indexing.rejections.hits", hits, AtomicLong::get).register(registry);
+        FunctionCounter.builder("indexing.rejections.stored_hits", storedHits, AtomicLong::get).register(registry);
+        FunctionCounter.builder("indexing.rejections.misses", misses, AtomicLong::get).register(registry);
+        Gauge.builder("indexing.rejections.cached", this, RejectionCache::size).register(registry);
+    }
+
+    public int size() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getStoredHits() {
+        return storedHits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    public void setTtl(Duration ttl) {
+        this.ttl = ttl;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(int maxSize) {
+        this.maxSize = maxSize;
+    }
+}
@@ -0,0 +1,234 @@
+package IndexingSystem.services;
+
+import java.time.Clock;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+
+import IndexingSystem.models.News;
+import IndexingSystem.models.RescanJob;
+import IndexingSystem.repository.H2Repository;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Searches the already authorized news for words added to a list after they
+ * were checked. The index is read in chunks ordered by id; each chunk is
+ * scanned by a worker pool against its stored page text, or the page is
+ * downloaded again through the per-host scheduler when it has no snapshot, and
+ * the news where a word is found are marked as not authorized in one batch per
+ * chunk. Only one rescan runs at a time.
+ */
+@Service
+@Lazy
+@ConfigurationProperties(prefix = "indexing.rescan")
+public class RescanService {
+    private int chunkSize = 1000;
+    private int workers = 4;
+    private boolean fetchMissing = true;
+
+    @Autowired
+    private H2Repository h2Repository;
+
+    @Autowired
+    private NewsCheck newsCheck;
+
+    @Autowired
+    private WordListCache wordListCache;
+
+    @Autowired
+    private HostFetchScheduler hostFetchScheduler;
+
+    @Autowired
+    private RejectionCache rejectionCache;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    private Clock clock = Clock.systemUTC();
+
+    private volatile RescanJob current;
+    private volatile boolean cancelled;
+
+    /**
+     * Start a rescan with the words added to a list
+     *
+     * @param words new words to search
+     * @return running job
+     * @throws IllegalArgumentException if the words are not valid
+     * @throws IllegalStateException    if a rescan is already running
+     */
+    public RescanJob start(List<String> words) {
+        WordMatcher matcher = wordListCache.get(words);
+        return start(matcher, words.size());
+    }
+
+    /**
+     * Start a rescan with an already compiled word list, such as a stored
+     * blocklist
+     *
+     * @param matcher compiled word list
+     * @param terms   number of words in the list
+     * @return running job
+     * @throws IllegalStateException if a rescan is already running
+     */
+    public synchronized RescanJob start(WordMatcher matcher, int terms) {
+        if (current != null && current.isRunning()) {
+            throw new IllegalStateException("A rescan is already running");
+        }
+
+        long total;
+        try {
+            total = h2Repository.countAuthorized();
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+
+        RescanJob job = new RescanJob(UUID.randomUUID().toString(), terms, total, clock.instant());
+        current = job;
+        cancelled = false;
+
+        Thread walker = new Thread(() -> run(job, matcher), "rescan-" + job.getId());
+        walker.setDaemon(true);
+        walker.start();
+        return job;
+    }
+
+    /**
+     * @return running or last finished rescan, null if none was started
+     */
+    public RescanJob current() {
+        return current;
+    }
+
+    /**
+     * Stop the running rescan. Chunks already scanned keep their changes.
+     *
+     * @return cancelled job, null if no rescan is running
+     */
+    public synchronized RescanJob cancel() {
+        RescanJob job = current;
+        if (job == null || !job.isRunning()) {
+            return null;
+        }
+        cancelled = true;
+        return job;
+    }
+
+    private void run(RescanJob job, WordMatcher matcher) {
+        // Chunks read ahead of the workers are bounded to keep memory flat: the
+        // walker waits for the oldest one before the executor queue is full
+        BoundedExecutor pool = new BoundedExecutor(virtualThreads, workers, workers);
+        ArrayDeque<Future<?>> inFlight = new ArrayDeque<>();
+
+        try {
+            Integer after = null;
+            while (!cancelled) {
+                List<News> chunk = h2Repository.readAuthorizedPage(after, chunkSize);
+                if (chunk.isEmpty()) {
+                    break;
+                }
+                after = chunk.get(chunk.size() - 1).getId();
+
+                if (inFlight.size() >= workers * 2) {
+                    inFlight.poll().get();
+                }
+                inFlight.add(pool.submit(() -> {
+                    scanChunk(job, chunk, matcher);
+                    return null;
+                }));
+            }
+
+            while (!inFlight.isEmpty()) {
+                inFlight.poll().get();
+            }
+            job.finish(cancelled ? RescanJob.Status.CANCELLED : RescanJob.Status.DONE, null, clock.instant());
+        } catch (Exception e) {
+            Throwable cause = e instanceof ExecutionException ? e.getCause() : e;
+            System.out.println("Error rescanning news: " + cause);
+            cancelled = true;
+            job.finish(RescanJob.Status.FAILED, cause.getMessage(), clock.instant());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private void scanChunk(RescanJob job, List<News> chunk, WordMatcher matcher) throws Exception {
+        if (cancelled) {
+            return;
+        }
+        h2Repository.loadSnapshots(chunk);
+
+        List<Integer> revoke = new ArrayList<>();
+        List<News> missing = new ArrayList<>();
+        List<CompletableFuture<String>> fetches = new ArrayList<>();
+
+        for (News news : chunk) {
+            if (news.getText() != null) {
+                if (matcher.firstMatch(news.getText()) != null) {
+                    revoke.add(news.getId());
+                }
+                job.scannedFromSnapshot();
+            } else if (fetchMissing) {
+                missing.add(news);
+                // A URL already rejected by the list is not queued on its host
+                String rejected = rejectionCache.get(news.getUrl(), matcher);
+                fetches.add(rejected != null ? CompletableFuture.completedFuture(rejected)
+                        : hostFetchScheduler.submit(news.getUrl(), () -> newsCheck.fetchPage(news.getUrl(), matcher).getWord()));
+            } else {
+                job.skipped();
+            }
+        }
+
+        for (int i = 0; i < fetches.size(); i++) {
+            try {
+                if (fetches.get(i).get() != null) {
+                    revoke.add(missing.get(i).getId());
+                }
+                job.scannedFromFetch();
+            } catch (ExecutionException e) {
+                job.failed();
+            }
+        }
+
+        job.revoked(h2Repository.revoke(revoke));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        cancelled = true;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public void setChunkSize(int chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    public int getWorkers() {
+        return workers;
+    }
+
+    public void setWorkers(int workers) {
+        this.workers = workers;
+    }
+
+    public boolean isFetchMissing() {
+        return fetchMissing;
+    }
+
+    public void setFetchMissing(boolean fetchMissing) {
+        this.fetchMissing = fetchMissing;
+    }
+}
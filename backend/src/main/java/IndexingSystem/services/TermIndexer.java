@@ -0,0 +1,157 @@
+package IndexingSystem.services;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import IndexingSystem.models.News;
+import IndexingSystem.repository.H2Repository;
+import IndexingSystem.repository.TermIndex;
+
+/**
+ * Feeds the term index with the stored page text of the news and answers term
+ * queries with it. News are indexed in id order, a segment at a time, from
+ * their snapshots; news without a snapshot are not indexed.
+ *
+ * Ids are assigned when a row is inserted but a row becomes visible when its
+ * transaction commits, so a lower id may appear after a higher one. Each
+ * refresh only indexes up to the highest id seen by the previous refresh.
+ */
+@Component
+public class TermIndexer {
+    private static final int PAGE_SIZE = 1000;
+
+    @Autowired
+    private H2Repository h2Repository;
+
+    @Autowired
+    private TermIndex termIndex;
+
+    // News per segment written by a refresh
+    @Value("${indexing.term-index.segment-news:10000}")
+    private int segmentNews = 10000;
+
+    private long horizon = 0;
+
+    /**
+     * Index the news inserted up to the previous refresh
+     *
+     * @return number of news indexed
+     * @throws Exception
+     */
+    @Scheduled(fixedDelayString = "${indexing.term-index.refresh-interval:30s}", initialDelayString = "${indexing.term-index.refresh-interval:30s}")
+    public synchronized int refresh() throws Exception {
+        if (!termIndex.isEnabled()) {
+            return 0;
+        }
+
+        long upTo = horizon;
+        horizon = h2Repository.lastId();
+
+        int indexed = 0;
+        long from = termIndex.lastId();
+        while (from < upTo) {
+            Map<String, Postings> postings = new HashMap<>();
+            long maxId = from;
+            int docs = 0;
+
+            while (docs < segmentNews && maxId < upTo) {
+                List<News> page = h2Repository.readPage((int) maxId, Math.min(PAGE_SIZE, segmentNews - docs));
+                page.removeIf(news -> news.getId() > upTo);
+                if (page.isEmpty()) {
+                    maxId = upTo;
+                    break;
+                }
+
+                h2Repository.loadSnapshots(page);
+                for (News news : page) {
+                    if (news.getText() != null) {
+                        for (String term : Tokenizer.terms(news.getText())) {
+                            postings.computeIfAbsent(term, key -> new Postings()).add(news.getId());
+                        }
+                        indexed++;
+                    }
+                    maxId = news.getId();
+                    docs++;
+                }
+            }
+
+            TreeMap<String, int[]> sorted = new TreeMap<>();
+            for (Map.Entry<String, Postings> entry : postings.entrySet()) {
+                sorted.put(entry.getKey(), entry.getValue().toArray());
+            }
+            termIndex.append(sorted, maxId);
+            from = maxId;
+        }
+        return indexed;
+    }
+
+    /**
+     * Find the news that contain some terms
+     *
+     * @param terms terms as sent by the client
+     * @param all   whether every term must be found, or any of them
+     * @return ascending ids of the news
+     * @throws IllegalArgumentException if there are no terms or one is not valid
+     * @throws Exception
+     */
+    public int[] search(List<String> terms, boolean all) throws Exception {
+        if (terms == null || terms.isEmpty()) {
+            throw new IllegalArgumentException("The list of terms is empty");
+        }
+
+        List<String> normalized = new ArrayList<>(terms.size());
+        for (String term : terms) {
+            normalized.add(Tokenizer.term(term));
+        }
+        return all ? termIndex.all(normalized) : termIndex.any(normalized);
+    }
+
+    /**
+     * Find the news where a word of a list would be found by a check. The words
+     * are searched in the term dictionary instead of the texts, so a listed word
+     * inside a longer term is found as it is in the page.
+     *
+     * @param matcher compiled word list
+     * @return ascending ids of the news
+     * @throws Exception
+     */
+    public int[] containing(WordMatcher matcher) throws Exception {
+        return termIndex.matching(term -> matcher.firstMatch(term) != null);
+    }
+
+    /**
+     * @return highest news id covered by the index
+     */
+    public long indexedUpTo() throws Exception {
+        return termIndex.lastId();
+    }
+
+    public boolean isEnabled() {
+        return termIndex.isEnabled();
+    }
+
+    private static class Postings {
+        private int[] ids = new int[4];
+        private int size;
+
+        void add(int id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(ids, size);
+        }
+    }
+}
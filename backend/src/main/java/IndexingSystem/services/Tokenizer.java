@@ -0,0 +1,59 @@
+package IndexingSystem.services;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Splits page text into the terms of the term index. A term is a run of
+ * letters, digits and apostrophes, the characters a listed word is made of,
+ * case folded as WordMatcher folds it. Terms longer than the limit are cut.
+ */
+public final class Tokenizer {
+    public static final int MAX_TERM_LENGTH = 64;
+
+    private Tokenizer() {
+    }
+
+    /**
+     * @param text page text
+     * @return distinct terms of the text, in order of first appearance
+     */
+    public static Set<String> terms(CharSequence text) {
+        Set<String> terms = new LinkedHashSet<>();
+        StringBuilder term = new StringBuilder(MAX_TERM_LENGTH);
+
+        for (int i = 0, n = text.length(); i < n; i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c) || c == '\'') {
+                if (term.length() < MAX_TERM_LENGTH) {
+                    term.append(CaseFold.fold(c));
+                }
+            } else if (term.length() > 0) {
+                terms.add(term.toString());
+                term.setLength(0);
+            }
+        }
+        if (term.length() > 0) {
+            terms.add(term.toString());
+        }
+        return terms;
+    }
+
+    /**
+     * Normalize a term of a query as the text is tokenized
+     *
+     * @param term term sent by the client
+     * @return case folded term
+     * @throws IllegalArgumentException if the term is not a single valid word
+     */
+    public static String term(String term) {
+        if (term == null || term.trim().isEmpty()) {
+            throw new IllegalArgumentException("Term cannot be empty");
+        }
+        String folded = CaseFold.fold(term.trim());
+        if (!WordMatcher.isValidWord(folded)) {
+            throw new IllegalArgumentException("Term not valid: " + term);
+        }
+        return folded.length() > MAX_TERM_LENGTH ? folded.substring(0, MAX_TERM_LENGTH) : folded;
+    }
+}
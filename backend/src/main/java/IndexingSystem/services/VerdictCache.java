@@ -0,0 +1,427 @@
+package IndexingSystem.services;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * LRU cache of check verdicts, keyed by a SHA-256 hash of the page text and the
+ * fingerprint of the word list. The same article published under several URLs
+ * is searched once per list. Verdicts expire after the TTL.
+ *
+ * With near duplicates enabled, a page whose SimHash is within MAX_DISTANCE
+ * bits of the SimHash of a cached page reuses its verdict for the same list.
+ * The SimHash is built from shingles of consecutive terms, so pages that only
+ * differ in their boilerplate are near duplicates. A listed word in the text
+ * that differs is missed, which is why they are disabled by default.
+ */
+@Component
+@ConfigurationProperties(prefix = "indexing.verdict-cache")
+public class VerdictCache implements MeterBinder {
+    // Bits that may differ between two near duplicates
+    static final int MAX_DISTANCE = 3;
+
+    // Texts with fewer shingles are only reused when they are identical
+    static final int MIN_SHINGLES = 32;
+
+    private static final int SHINGLE_TERMS = 3;
+
+    // Bytes of the page text encoded at a time for its hash
+    private static final int DIGEST_CHUNK = 4096;
+
+    // Two SimHashes within MAX_DISTANCE bits share at least one of the bands
+    private static final int BANDS = MAX_DISTANCE + 1;
+    private static final int BAND_BITS = Long.SIZE / BANDS;
+
+    private boolean enabled = true;
+    private int maxSize = 10000;
+    private Duration ttl = Duration.ofMinutes(10);
+    private boolean nearDuplicates = false;
+
+    private Clock clock = Clock.systemUTC();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong nearHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    private final Map<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            if (size() > maxSize) {
+                evictions.incrementAndGet();
+                unband(eldest.getValue());
+                return true;
+            }
+            return false;
+        }
+    };
+
+    // Entries with a SimHash by word list and band
+    private final Map<String, Map<Long, List<Entry>>> bands = new HashMap<>();
+
+    /**
+     * Compute the cache key of a page text
+     *
+     * @param text    extracted page text
+     * @param matcher compiled word list
+     * @return key to get and put the verdict
+     */
+    public Key key(String text, WordMatcher matcher) {
+        return new Key(matcher.fingerprint(), sha256(text), nearDuplicates ? simHash(text) : null);
+    }
+
+    /**
+     * Get the verdict of the same text, or of a near duplicate when they are
+     * enabled
+     *
+     * @param key key of the page text
+     * @return verdict, or null if none is cached
+     */
+    public synchronized Verdict get(Key key) {
+        Instant now = clock.instant();
+
+        Entry entry = entries.get(key.id);
+        if (entry != null) {
+            if (entry.expiresAt.isAfter(now)) {
+                hits.incrementAndGet();
+                return new Verdict(entry.word, false);
+            }
+            remove(entry);
+        }
+
+        if (key.simHash != null) {
+            Entry near = nearest(key, now);
+            if (near != null) {
+                nearHits.incrementAndGet();
+                // Cached without a SimHash so that near duplicates do not chain
+                store(new Entry(key.id, key.list, null, near.word, near.expiresAt));
+                return new Verdict(near.word, true);
+            }
+        }
+
+        misses.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Cache the verdict of a page text
+     *
+     * @param key  key of the page text
+     * @param word word found, null if the page is clean
+     */
+    public synchronized void put(Key key, String word) {
+        store(new Entry(key.id, key.list, key.simHash, word, clock.instant().plus(ttl)));
+    }
+
+    private void store(Entry entry) {
+        Entry previous = entries.put(entry.id, entry);
+        if (previous != null) {
+            unband(previous);
+        }
+        if (entry.simHash != null) {
+            Map<Long, List<Entry>> listBands = bands.computeIfAbsent(entry.list, list -> new HashMap<>());
+            for (int band = 0; band < BANDS; band++) {
+                listBands.computeIfAbsent(band(entry.simHash, band), value -> new ArrayList<>(2)).add(entry);
+            }
+        }
+    }
+
+    private Entry nearest(Key key, Instant now) {
+        Map<Long, List<Entry>> listBands = bands.get(key.list);
+        if (listBands == null) {
+            return null;
+        }
+
+        Entry best = null;
+        int bestDistance = MAX_DISTANCE + 1;
+        List<Entry> expired = new ArrayList<>();
+        for (int band = 0; band < BANDS; band++) {
+            List<Entry> candidates = listBands.get(band(key.simHash, band));
+            if (candidates == null) {
+                continue;
+            }
+            for (Entry candidate : candidates) {
+                if (!candidate.expiresAt.isAfter(now)) {
+                    expired.add(candidate);
+                    continue;
+                }
+                int distance = Long.bitCount(candidate.simHash ^ key.simHash);
+                if (distance < bestDistance) {
+                    best = candidate;
+                    bestDistance = distance;
+                }
+            }
+        }
+
+        for (Entry entry : expired) {
+            remove(entry);
+        }
+        return best;
+    }
+
+    private void remove(Entry entry) {
+        if (entries.remove(entry.id, entry)) {
+            unband(entry);
+        }
+    }
+
+    private void unband(Entry entry) {
+        if (entry.simHash == null) {
+            return;
+        }
+        Map<Long, List<Entry>> listBands = bands.get(entry.list);
+        if (listBands == null) {
+            return;
+        }
+        for (int band = 0; band < BANDS; band++) {
+            Long value = band(entry.simHash, band);
+            List<Entry> candidates = listBands.get(value);
+            if (candidates != null && candidates.remove(entry) && candidates.isEmpty()) {
+                listBands.remove(value);
+            }
+        }
+        if (listBands.isEmpty()) {
+            bands.remove(entry.list);
+        }
+    }
+
+    private static long band(long simHash, int band) {
+        long bits = (simHash >>> (band * BAND_BITS)) & ((1L << BAND_BITS) - 1);
+        return ((long) band << BAND_BITS) | bits;
+    }
+
+    /**
+     * 64-bit SimHash of the shingles of SHINGLE_TERMS consecutive terms of a
+     * text, terms split and case folded as the term index does
+     *
+     * @param text page text
+     * @return SimHash, or null if the text has fewer than MIN_SHINGLES shingles
+     */
+    static Long simHash(CharSequence text) {
+        int[] weights = new int[Long.SIZE];
+        long[] window = new long[SHINGLE_TERMS];
+        int terms = 0;
+        int shingles = 0;
+
+        long term = 0;
+        boolean inTerm = false;
+        for (int i = 0, n = text.length(); i <= n; i++) {
+            char c = i < n ? text.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c) || c == '\'') {
+                // FNV-1a over the folded chars
+                term = ((inTerm ? term : 0xcbf29ce484222325L) ^ CaseFold.fold(c)) * 0x100000001b3L;
+                inTerm = true;
+                continue;
+            }
+            if (!inTerm) {
+                continue;
+            }
+            inTerm = false;
+
+            window[terms++ % SHINGLE_TERMS] = term;
+            if (terms < SHINGLE_TERMS) {
+                continue;
+            }
+
+            long shingle = 0;
+            for (int j = 0; j < SHINGLE_TERMS; j++) {
+                shingle = Long.rotateLeft(shingle, 21) ^ window[(terms + j) % SHINGLE_TERMS];
+            }
+            shingle = mix(shingle);
+            for (int bit = 0; bit < Long.SIZE; bit++) {
+                weights[bit] += (shingle >>> bit & 1) != 0 ? 1 : -1;
+            }
+            shingles++;
+        }
+
+        if (shingles < MIN_SHINGLES) {
+            return null;
+        }
+        long simHash = 0;
+        for (int bit = 0; bit < Long.SIZE; bit++) {
+            if (weights[bit] > 0) {
+                simHash |= 1L << bit;
+            }
+        }
+        return simHash;
+    }
+
+    // Finalizer of SplitMix64
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    // SHA-256 of the UTF-8 bytes of a text, encoded a chunk at a time so the
+    // page is never copied into a byte array
+    static String sha256(String text) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+
+        // Unpaired surrogates are replaced as String.getBytes does
+        CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        CharBuffer in = CharBuffer.wrap(text);
+        ByteBuffer out = ByteBuffer.allocate(DIGEST_CHUNK);
+        while (true) {
+            CoderResult result = encoder.encode(in, out, true);
+            if (result.isUnderflow()) {
+                result = encoder.flush(out);
+            }
+            digest.update(out.flip());
+            out.clear();
+            if (result.isUnderflow()) {
+                return HexFormat.of().formatHex(digest.digest());
+            }
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("indexing.verdict_cache.hits", hits, AtomicLong::get).register(registry);
+        FunctionCounter.builder("indexing.verdict_cache.near_hits", nearHits, AtomicLong::get).register(registry);
+        FunctionCounter.builder("indexing.verdict_cache.misses", misses, AtomicLong::get).register(registry);
+        FunctionCounter.builder("indexing.verdict_cache.evictions", evictions, AtomicLong::get).register(registry);
+        Gauge.builder("indexing.verdict_cache.size", this, VerdictCache::size).register(registry);
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getNearHits() {
+        return nearHits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    public void setTtl(Duration ttl) {
+        this.ttl = ttl;
+    }
+
+    public boolean isNearDuplicates() {
+        return nearDuplicates;
+    }
+
+    public void setNearDuplicates(boolean nearDuplicates) {
+        this.nearDuplicates = nearDuplicates;
+    }
+
+    /**
+     * Cache key of a page text for a word list
+     */
+    public static class Key {
+        private final String id;
+        private final String list;
+        private final Long simHash;
+
+        Key(String list, String hash, Long simHash) {
+            this.id = list + ":" + hash;
+            this.list = list;
+            this.simHash = simHash;
+        }
+    }
+
+    /**
+     * Cached outcome of a check
+     */
+    public static class Verdict {
+        private final String word;
+        private final boolean nearDuplicate;
+
+        Verdict(String word, boolean nearDuplicate) {
+            this.word = word;
+            this.nearDuplicate = nearDuplicate;
+        }
+
+        /**
+         * @return word found, null if the page is clean
+         */
+        public String getWord() {
+            return word;
+        }
+
+        /**
+         * @return whether the verdict is the one of a near duplicate
+         */
+        public boolean isNearDuplicate() {
+            return nearDuplicate;
+        }
+    }
+
+    private static class Entry {
+        private final String id;
+        private final String list;
+        private final Long simHash;
+        private final String word;
+        private final Instant expiresAt;
+
+        Entry(String id, String list, Long simHash, String word, Instant expiresAt) {
+            this.id = id;
+            this.list = list;
+            this.simHash = simHash;
+            this.word = word;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package IndexingSystem.services;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * LRU cache of compiled word lists, keyed by a SHA-256 fingerprint of the
+ * words sent by the client. A repeated list skips validation and matcher
+ * construction. Lists are compiled with obfuscation folding when it is
+ * enabled.
+ */
+@Component
+@ConfigurationProperties(prefix = "indexing.word-list-cache")
+public class WordListCache implements MeterBinder {
+    private int maxSize = 64;
+
+    @Value("${indexing.check.fold-obfuscation:false}")
+    private boolean foldObfuscation = false;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    private final Map<String, WordMatcher> cache = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, WordMatcher> eldest) {
+            if (size() > maxSize) {
+                evictions.incrementAndGet();
+                return true;
+            }
+            return false;
+        }
+    };
+
+    /**
+     * Get the compiled matcher of a word list, compiling it if it is not cached
+     *
+     * @param words words sent by the client
+     * @return compiled matcher
+     * @throws IllegalArgumentException if the list is null or empty, or a word is
+     *                                  not valid
+     */
+    public WordMatcher get(List<String> words) {
+        if (words == null) {
+            throw new IllegalArgumentException("Word list cannot be null");
+        }
+        if (words.isEmpty()) {
+            throw new IllegalArgumentException("The list of words is empty");
+        }
+
+        String key = fingerprint(words);
+
+        synchronized (cache) {
+            WordMatcher matcher = cache.get(key);
+            if (matcher != null) {
+                hits.incrementAndGet();
+                return matcher;
+            }
+        }
+
+        misses.incrementAndGet();
+        // Compiled outside the lock, invalid lists are never cached
+        WordMatcher matcher = WordMatcher.compile(words, foldObfuscation);
+
+        synchronized (cache) {
+            WordMatcher previous = cache.putIfAbsent(key, matcher);
+            return previous != null ? previous : matcher;
+        }
+    }
+
+    /**
+     * Content hash of a word list
+     *
+     * @param words words as sent by the client, nulls included
+     * @return hex encoded SHA-256
+     */
+    public static String fingerprint(List<String> words) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String word : words) {
+                if (word == null) {
+                    digest.update((byte) 0);
+                    continue;
+                }
+                byte[] bytes = word.getBytes(StandardCharsets.UTF_8);
+                digest.update((byte) 1);
+                digest.update(new byte[] { (byte) (bytes.length >>> 24), (byte) (bytes.length >>> 16),
+                        (byte) (bytes.length >>> 8), (byte) bytes.length });
+                digest.update(bytes);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("indexing.word_list_cache.hits", hits, AtomicLong::get).register(registry);
+        FunctionCounter.builder("indexing.word_list_cache.misses", misses, AtomicLong::get).register(registry);
+        FunctionCounter.builder("indexing.word_list_cache.evictions", evictions, AtomicLong::get).register(registry);
+        Gauge.builder("indexing.word_list_cache.size", this, WordListCache::size).register(registry);
+    }
+
+    public int size() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(int maxSize) {
+        this.maxSize = maxSize;
+    }
+}
@@ -0,0 +1,386 @@
+package IndexingSystem.services;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Aho-Corasick automaton compiled from a word list. The page text is scanned
+ * once, whatever the number of words, and every listed word found in it is
+ * reported. Matching ignores case: words are case folded when compiled and the
+ * text is folded char by char while it is scanned, without copying it. A
+ * matcher compiled with obfuscation folding also ignores diacritics,
+ * look-alike digits and separators (see ObfuscationFold).
+ */
+public class WordMatcher {
+
+    private static final Pattern VALID_WORD_PATTERN = Pattern.compile("^[\\p{L}\\p{N}\']+$");
+
+    private static final int NO_WORD = Integer.MAX_VALUE;
+
+    private final List<String> words;
+
+    private final boolean foldObfuscation;
+
+    private volatile String fingerprint;
+
+    // Goto function: outgoing edges of each node, sorted by label
+    private final char[][] labels;
+    private final int[][] targets;
+
+    private final int[] fail;
+
+    // Lowest word index ending exactly at the node, NO_WORD if none
+    private final int[] output;
+
+    // Next node on the failure chain with an output, -1 if none
+    private final int[] outputLink;
+
+    // Lowest word index reachable from the node through its failure chain
+    private final int[] firstOutput;
+
+    private WordMatcher(List<String> words, boolean foldObfuscation, char[][] labels, int[][] targets, int[] fail, int[] output,
+            int[] outputLink, int[] firstOutput) {
+        this.words = words;
+        this.foldObfuscation = foldObfuscation;
+        this.labels = labels;
+        this.targets = targets;
+        this.fail = fail;
+        this.output = output;
+        this.outputLink = outputLink;
+        this.firstOutput = firstOutput;
+    }
+
+    /**
+     * Validate the words and build the automaton
+     *
+     * @param words words to search, in priority order
+     * @return compiled matcher
+     * @throws IllegalArgumentException if a word is null, empty or not valid
+     */
+    public static WordMatcher compile(List<String> words) {
+        return compile(words, false);
+    }
+
+    /**
+     * Validate the words and build the automaton
+     *
+     * @param words           words to search, in priority order
+     * @param foldObfuscation whether diacritics, look-alike digits and separators
+     *                        are folded as well as case
+     * @return compiled matcher
+     * @throws IllegalArgumentException if a word is null, empty or not valid
+     */
+    public static WordMatcher compile(List<String> words, boolean foldObfuscation) {
+        return build(normalize(words, foldObfuscation), foldObfuscation);
+    }
+
+    /**
+     * Validate the words and normalize them as compile does, without building the
+     * automaton
+     *
+     * @param words           words to search, in priority order
+     * @param foldObfuscation whether the words will be matched with obfuscation
+     *                        folding
+     * @return trimmed and case folded words
+     * @throws IllegalArgumentException if a word is null, empty or not valid
+     */
+    public static List<String> normalize(List<String> words, boolean foldObfuscation) {
+        List<String> normalized = new ArrayList<>(words.size());
+
+        for (String word : words) {
+            if (word == null) {
+                throw new IllegalArgumentException("Word cannot be null");
+            }
+
+            word = word.trim();
+
+            if (word.isEmpty()) {
+                throw new IllegalArgumentException("Word cannot be empty");
+            }
+
+            word = CaseFold.fold(word);
+
+            if (!isValidWord(word)) {
+                throw new IllegalArgumentException("Word not valid: " + word);
+            }
+
+            if (foldObfuscation && ObfuscationFold.fold(word).isEmpty()) {
+                throw new IllegalArgumentException("Word not valid: " + word);
+            }
+
+            normalized.add(word);
+        }
+
+        return normalized;
+    }
+
+    public static boolean isValidWord(String word) {
+        return VALID_WORD_PATTERN.matcher(word).matches();
+    }
+
+    private static WordMatcher build(List<String> words, boolean foldObfuscation) {
+        TrieBuilder trie = new TrieBuilder();
+        for (int i = 0; i < words.size(); i++) {
+            // Reported words keep their separators, the automaton does not
+            trie.add(foldObfuscation ? ObfuscationFold.fold(words.get(i)) : words.get(i), i);
+        }
+
+        int size = trie.size;
+        char[][] labels = new char[size][];
+        int[][] targets = new int[size][];
+        for (int node = 0; node < size; node++) {
+            labels[node] = Arrays.copyOf(trie.labels[node], trie.degree[node]);
+            targets[node] = Arrays.copyOf(trie.targets[node], trie.degree[node]);
+        }
+
+        int[] output = Arrays.copyOf(trie.output, size);
+        int[] fail = new int[size];
+        int[] outputLink = new int[size];
+        int[] firstOutput = new int[size];
+
+        // Breadth-first pass: the failure target of a node is always shallower
+        outputLink[0] = -1;
+        firstOutput[0] = NO_WORD;
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        queue.add(0);
+
+        while (!queue.isEmpty()) {
+            int node = queue.poll();
+
+            for (int i = 0; i < labels[node].length; i++) {
+                char c = labels[node][i];
+                int child = targets[node][i];
+
+                if (node == 0) {
+                    fail[child] = 0;
+                } else {
+                    int state = fail[node];
+                    int next = step(labels, targets, state, c);
+                    while (next < 0 && state != 0) {
+                        state = fail[state];
+                        next = step(labels, targets, state, c);
+                    }
+                    fail[child] = next < 0 ? 0 : next;
+                }
+
+                int suffix = fail[child];
+                outputLink[child] = output[suffix] != NO_WORD ? suffix : outputLink[suffix];
+                firstOutput[child] = Math.min(output[child], firstOutput[suffix]);
+                queue.add(child);
+            }
+        }
+
+        return new WordMatcher(Collections.unmodifiableList(words), foldObfuscation, labels, targets, fail, output, outputLink,
+                firstOutput);
+    }
+
+    private static int step(char[][] labels, int[][] targets, int node, char c) {
+        int i = Arrays.binarySearch(labels[node], c);
+        return i < 0 ? -1 : targets[node][i];
+    }
+
+    private int next(int state, char c) {
+        if (foldObfuscation) {
+            c = ObfuscationFold.fold(c);
+            if (c == ObfuscationFold.SKIP) {
+                return state;
+            }
+        } else {
+            c = CaseFold.fold(c);
+        }
+
+        int next = step(labels, targets, state, c);
+        while (next < 0 && state != 0) {
+            state = fail[state];
+            next = step(labels, targets, state, c);
+        }
+        return next < 0 ? 0 : next;
+    }
+
+    /**
+     * Search the text for the words
+     *
+     * @param text text in any case
+     * @return the first word of the list found in the text, or null if none is
+     *         found
+     */
+    public String firstMatch(CharSequence text) {
+        int best = NO_WORD;
+        int state = 0;
+
+        for (int i = 0, n = text.length(); i < n && best != 0; i++) {
+            state = next(state, text.charAt(i));
+            best = Math.min(best, firstOutput[state]);
+        }
+
+        return best == NO_WORD ? null : words.get(best);
+    }
+
+    /**
+     * Search the text for every word
+     *
+     * @param text text in any case
+     * @return words found in the text, in list order
+     */
+    public List<String> findAll(CharSequence text) {
+        boolean[] found = new boolean[words.size()];
+        int state = 0;
+
+        for (int i = 0, n = text.length(); i < n; i++) {
+            state = next(state, text.charAt(i));
+
+            for (int node = output[state] != NO_WORD ? state : outputLink[state]; node > 0; node = outputLink[node]) {
+                found[output[node]] = true;
+            }
+        }
+
+        List<String> hits = new ArrayList<>();
+        for (int i = 0; i < found.length; i++) {
+            if (found[i]) {
+                hits.add(words.get(i));
+            }
+        }
+        return hits;
+    }
+
+    /**
+     * Create a scanner that receives the text in several pieces
+     *
+     * @return scanner positioned at the start of the text
+     */
+    public Scanner scanner() {
+        return new Scanner();
+    }
+
+    public List<String> getWords() {
+        return words;
+    }
+
+    public int size() {
+        return words.size();
+    }
+
+    public boolean isFoldObfuscation() {
+        return foldObfuscation;
+    }
+
+    /**
+     * Content hash of the compiled list: two matchers with the same fingerprint
+     * find the same word in any text
+     *
+     * @return hex encoded SHA-256 of the normalized words, marked when
+     *         obfuscation is folded
+     */
+    public String fingerprint() {
+        String result = fingerprint;
+        if (result == null) {
+            result = WordListCache.fingerprint(words) + (foldObfuscation ? "+fold" : "");
+            fingerprint = result;
+        }
+        return result;
+    }
+
+    private static class TrieBuilder {
+        int size = 1;
+        char[][] labels = new char[16][];
+        int[][] targets = new int[16][];
+        int[] degree = new int[16];
+        int[] output = new int[16];
+
+        TrieBuilder() {
+            init(0);
+        }
+
+        void add(String word, int index) {
+            int node = 0;
+            for (int i = 0; i < word.length(); i++) {
+                node = child(node, word.charAt(i));
+            }
+            // Duplicated words keep the lowest index
+            output[node] = Math.min(output[node], index);
+        }
+
+        private int child(int node, char c) {
+            int i = Arrays.binarySearch(labels[node], 0, degree[node], c);
+            if (i >= 0) {
+                return targets[node][i];
+            }
+
+            int created = size++;
+            if (created == output.length) {
+                int capacity = created * 2;
+                labels = Arrays.copyOf(labels, capacity);
+                targets = Arrays.copyOf(targets, capacity);
+                degree = Arrays.copyOf(degree, capacity);
+                output = Arrays.copyOf(output, capacity);
+            }
+            init(created);
+
+            int insert = -i - 1;
+            int d = degree[node];
+            if (d == labels[node].length) {
+                labels[node] = Arrays.copyOf(labels[node], Math.max(2, d * 2));
+                targets[node] = Arrays.copyOf(targets[node], Math.max(2, d * 2));
+            }
+            System.arraycopy(labels[node], insert, labels[node], insert + 1, d - insert);
+            System.arraycopy(targets[node], insert, targets[node], insert + 1, d - insert);
+            labels[node][insert] = c;
+            targets[node][insert] = created;
+            degree[node] = d + 1;
+
+            return created;
+        }
+
+        private void init(int node) {
+            labels[node] = new char[0];
+            targets[node] = new int[0];
+            output[node] = NO_WORD;
+        }
+    }
+
+    /**
+     * Incremental scan over text received in pieces, stopping at the first
+     * word found. The state is kept between pieces, so a word split across two
+     * pieces is still found.
+     */
+    public class Scanner {
+        private int state = 0;
+        private int match = NO_WORD;
+
+        /**
+         * Scan the next piece of text
+         *
+         * @param text piece of text
+         * @return true if a word has been found
+         */
+        public boolean feed(CharSequence text) {
+            for (int i = 0, n = text.length(); i < n && match == NO_WORD; i++) {
+                state = next(state, text.charAt(i));
+                match = firstOutput[state];
+            }
+            return match != NO_WORD;
+        }
+
+        /**
+         * Mark a boundary in the text, words are not matched across it
+         */
+        public void separate() {
+            state = 0;
+        }
+
+        public boolean found() {
+            return match != NO_WORD;
+        }
+
+        /**
+         * @return the word found, or null if none has been found yet
+         */
+        public String match() {
+            return match == NO_WORD ? null : words.get(match);
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package IndexingSystem.controllers;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import IndexingSystem.models.Blocklist;
+import IndexingSystem.repository.BlocklistRepository;
+import IndexingSystem.services.BlocklistRegistry;
+
+class BlocklistControllerTest {
+
+    @Mock
+    private BlocklistRepository blocklistRepository;
+
+    @Mock
+    private BlocklistRegistry blocklistRegistry;
+
+    @InjectMocks
+    private BlocklistController blocklistController;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(blocklistRegistry.normalize(any())).thenCallRealMethod();
+    }
+
+    @Test
+    void testGetBlocklists() throws Exception {
+        when(blocklistRepository.readAll()).thenReturn(List.of(new Blocklist()));
+
+        ResponseEntity<?> response = blocklistController.getBlocklists();
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(1, ((List<?>) ((Map<?, ?>) response.getBody()).get("blocklists")).size());
+    }
+
+    @Test
+    void testGetBlocklistsEmpty() throws Exception {
+        when(blocklistRepository.readAll()).thenReturn(List.of());
+
+        assertEquals(HttpStatus.NO_CONTENT, blocklistController.getBlocklists().getStatusCode());
+    }
+
+    @Test
+    void testGetBlocklist() throws Exception {
+        Blocklist blocklist = new Blocklist("slurs", List.of("word"));
+        when(blocklistRepository.read(3)).thenReturn(blocklist);
+
+        assertEquals(blocklist, blocklistController.getBlocklist(3).getBody());
+        assertEquals(HttpStatus.NOT_FOUND, blocklistController.getBlocklist(4).getStatusCode());
+    }
+
+    @Test
+    void testPostBlocklist() throws Exception {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        when(blocklistRepository.create(any(Blocklist.class))).thenReturn(3);
+        when(blocklistRegistry.refresh(3)).thenReturn(CompletableFuture.completedFuture(null));
+
+        ResponseEntity<?> response = blocklistController
+                .postBlocklist(Map.of("name", " slurs ", "words", List.of(" Racist ", "word")));
+
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        assertEquals(Map.of("id", 3), response.getBody());
+        assertTrue(response.getHeaders().getLocation().toString().endsWith("/3"));
+
+        // Stored as they are matched and compiled once
+        ArgumentCaptor<Blocklist> stored = ArgumentCaptor.forClass(Blocklist.class);
+        verify(blocklistRepository).create(stored.capture());
+        assertEquals("slurs", stored.getValue().getName());
+        assertEquals(List.of("racist", "word"), stored.getValue().getWords());
+        verify(blocklistRegistry).refresh(3);
+    }
+
+    @Test
+    void testPostBlocklistWaitsForCompilation() throws Exception {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        when(blocklistRepository.create(any(Blocklist.class))).thenReturn(3);
+        CompletableFuture<Void> compiled = CompletableFuture.runAsync(() -> {
+        }, CompletableFuture.delayedExecutor(200, TimeUnit.MILLISECONDS));
+        when(blocklistRegistry.refresh(3)).thenReturn(compiled);
+
+        ResponseEntity<?> response = blocklistController
+                .postBlocklist(Map.of("name", "slurs", "words", List.of("word")));
+
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        assertTrue(compiled.isDone());
+    }
+
+    @Test
+    void testPostBlocklistInvalid() throws Exception {
+        assertEquals(HttpStatus.BAD_REQUEST,
+                blocklistController.postBlocklist(Map.of("name", "slurs", "words", List.of("not valid")))
+                        .getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST,
+                blocklistController.postBlocklist(Map.of("name", " ", "words", List.of("word"))).getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST,
+                blocklistController.postBlocklist(Map.of("name", "slurs")).getStatusCode());
+        verify(blocklistRepository, never()).create(any());
+    }
+
+    @Test
+    void testPostBlocklistConflict() throws Exception {
+        when(blocklistRepository.create(any(Blocklist.class))).thenReturn(-1);
+
+        ResponseEntity<?> response = blocklistController
+                .postBlocklist(Map.of("name", "slurs", "words", List.of("word")));
+
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        verify(blocklistRegistry, never()).refresh(anyInt());
+    }
+
+    @Test
+    void testPutBlocklist() throws Exception {
+        when(blocklistRepository.update(eq(3), any(Blocklist.class))).thenReturn(1);
+        when(blocklistRepository.update(eq(4), any(Blocklist.class))).thenReturn(0);
+
+        ResponseEntity<?> updated = blocklistController.putBlocklist(3, Map.of("name", "slurs", "words", List.of("new")));
+        ResponseEntity<?> missing = blocklistController.putBlocklist(4, Map.of("name", "slurs", "words", List.of("new")));
+
+        assertEquals(HttpStatus.OK, updated.getStatusCode());
+        assertEquals(HttpStatus.NOT_FOUND, missing.getStatusCode());
+        verify(blocklistRegistry).refresh(3);
+        verify(blocklistRegistry, never()).refresh(4);
+    }
+
+    @Test
+    void testDeleteBlocklist() throws Exception {
+        when(blocklistRepository.delete(3)).thenReturn(1);
+        when(blocklistRepository.delete(4)).thenReturn(0);
+
+        assertEquals(HttpStatus.OK, blocklistController.deleteBlocklist(3).getStatusCode());
+        assertEquals(HttpStatus.NO_CONTENT, blocklistController.deleteBlocklist(4).getStatusCode());
+        verify(blocklistRegistry).refresh(3);
+    }
+
+    @Test
+    void testDeleteBlocklistError() throws Exception {
+        when(blocklistRepository.delete(anyInt())).thenThrow(new RuntimeException("database down"));
+
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, blocklistController.deleteBlocklist(3).getStatusCode());
+    }
+}
@@ -2,7 +2,18 @@ package IndexingSystem.controllers;
 
 import IndexingSystem.models.News;
 import IndexingSystem.repository.H2Repository;
+import IndexingSystem.models.CheckJob;
+import IndexingSystem.models.CheckVerdict;
+import IndexingSystem.models.RescanJob;
+import IndexingSystem.services.BlocklistRegistry;
+import IndexingSystem.services.CheckJobService;
+import IndexingSystem.services.CheckMetrics;
+import IndexingSystem.services.NewsBatchCheck;
 import IndexingSystem.services.NewsCheck;
+import IndexingSystem.services.RescanService;
+import IndexingSystem.services.TermIndexer;
+import IndexingSystem.services.WordListCache;
+import IndexingSystem.services.WordMatcher;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
@@ -11,19 +22,32 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.junit.jupiter.api.Assertions.*;
 
 class NewsControllerTest {
 
+    @Spy
+    private CheckMetrics checkMetrics = new CheckMetrics();
+
     @InjectMocks
     private NewsController newsController;
 
@@ -33,6 +57,27 @@ class NewsControllerTest {
     @Mock
     private NewsCheck newsCheck;
 
+    @Mock
+    private NewsBatchCheck newsBatchCheck;
+
+    @Mock
+    private CheckJobService checkJobService;
+
+    @Mock
+    private BlocklistRegistry blocklistRegistry;
+
+    @Mock
+    private RescanService rescanService;
+
+    @Mock
+    private TermIndexer termIndexer;
+
+    @Spy
+    private WordListCache wordListCache = new WordListCache();
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
@@ -44,13 +89,13 @@ class NewsControllerTest {
         List<News> newsList = new ArrayList<>();
         newsList.add(new News());
         try {
-            when(h2Repository.readAll()).thenReturn(newsList);
+            when(h2Repository.readPage(null, 100)).thenReturn(newsList);
         } catch (Exception e) {
             e.printStackTrace();
         }
 
         // Act
-        ResponseEntity<?> response = newsController.GetAllNews();
+        ResponseEntity<?> response = newsController.GetAllNews(null, null);
 
         // Assert
         assertEquals(HttpStatus.OK, response.getStatusCode());
@@ -188,12 +233,12 @@ class NewsControllerTest {
     @Test
     void testGetAllNewsError() {
         try {
-            when(h2Repository.readAll()).thenThrow(new RuntimeException("Database error"));
+            when(h2Repository.readPage(null, 100)).thenThrow(new RuntimeException("Database error"));
         } catch (Exception e) {
             e.printStackTrace();
         }
 
-        ResponseEntity<?> response = newsController.GetAllNews();
+        ResponseEntity<?> response = newsController.GetAllNews(null, null);
 
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
         assertTrue(response.toString().contains("Error getting all news"));
@@ -263,4 +308,317 @@ class NewsControllerTest {
         assertTrue(response.toString().contains("Error deleting new"));
     }
 
+    @Test
+    void testGetAllNewsNextCursor() throws Exception {
+        News first = new News("http://example.com/1", true);
+        first.setId(7);
+        News second = new News("http://example.com/2", true);
+        second.setId(9);
+        when(h2Repository.readPage(5, 2)).thenReturn(List.of(first, second));
+
+        ResponseEntity<?> response = newsController.GetAllNews(5, 2);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        Map<?, ?> body = (Map<?, ?>) response.getBody();
+        assertEquals("All news", body.keySet().iterator().next());
+        assertEquals(9, body.get("next"));
+    }
+
+    @Test
+    void testGetAllNewsLastPage() throws Exception {
+        when(h2Repository.readPage(9, 2)).thenReturn(List.of(new News("http://example.com/3", true)));
+
+        ResponseEntity<?> response = newsController.GetAllNews(9, 2);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertFalse(((Map<?, ?>) response.getBody()).containsKey("next"));
+    }
+
+    @Test
+    void testGetAllNewsInvalidLimit() throws Exception {
+        ResponseEntity<?> response = newsController.GetAllNews(null, 5000);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verify(h2Repository, never()).readPage(any(), anyInt());
+    }
+
+    @Test
+    void testExportNews() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<News> consumer = invocation.getArgument(0);
+            consumer.accept(new News("http://example.com/1", true));
+            consumer.accept(new News("http://example.com/2", false));
+            return null;
+        }).when(h2Repository).forEach(any());
+
+        ResponseEntity<StreamingResponseBody> response = newsController.exportNews();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("http://example.com/2", objectMapper.readTree(lines[1]).get("url").asText());
+        assertFalse(objectMapper.readTree(lines[1]).get("authorized").asBoolean());
+    }
+
+    @Test
+    void testPostNewsBatch() {
+        Map<String, Object> entity = Map.of("urls", List.of("http://a.com"), "words", List.of("word"));
+        when(newsBatchCheck.check(List.of("http://a.com"), List.of("word")))
+                .thenReturn(List.of(CheckVerdict.fromOutcome("http://a.com", 1, null)));
+
+        ResponseEntity<?> response = newsController.postNewsBatch(entity);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        List<?> results = (List<?>) ((Map<?, ?>) response.getBody()).get("results");
+        assertEquals(201, ((CheckVerdict) results.get(0)).getStatus());
+    }
+
+    @Test
+    void testPostNewsBatchInvalid() {
+        Map<String, Object> entity = Map.of("urls", List.of(), "words", List.of("word"));
+        when(newsBatchCheck.check(List.of(), List.of("word")))
+                .thenThrow(new IllegalArgumentException("The list of URLs is empty"));
+
+        ResponseEntity<?> response = newsController.postNewsBatch(entity);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
+
+    @Test
+    void testPostNewsAsync() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        Map<String, Object> entity = Map.of("url", "http://example.com", "words", List.of("word"));
+        when(checkJobService.submit("http://example.com", List.of("word")))
+                .thenReturn(new CheckJob("job-1", "http://example.com", Instant.now()));
+
+        ResponseEntity<?> response = newsController.postNewsAsync(entity);
+
+        assertEquals(HttpStatus.ACCEPTED, response.getStatusCode());
+        assertEquals(Map.of("jobId", "job-1"), response.getBody());
+        assertTrue(response.getHeaders().getLocation().toString().endsWith("/api/v1/content/check/jobs/job-1"));
+    }
+
+    @Test
+    void testPostNewsAsyncBusy() {
+        Map<String, Object> entity = Map.of("url", "http://example.com", "words", List.of("word"));
+        when(checkJobService.submit("http://example.com", List.of("word")))
+                .thenThrow(new RejectedExecutionException());
+
+        ResponseEntity<?> response = newsController.postNewsAsync(entity);
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+    }
+
+    @Test
+    void testPostNewsBlocklist() throws Exception {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        WordMatcher matcher = WordMatcher.compile(List.of("word"));
+        Map<String, Object> entity = Map.of("url", "http://example.com", "blocklist", 7);
+        when(blocklistRegistry.require(7)).thenReturn(matcher);
+        when(newsCheck.searchInUrl("http://example.com", matcher))
+                .thenReturn(new ArrayList<>(List.of(true, "word")));
+        when(h2Repository.create(any(News.class), anyBoolean())).thenReturn(-1);
+
+        ResponseEntity<Map<String, String>> response = newsController.postNews(entity);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("Rejected because 'word' found", response.getBody().get("state"));
+        verify(newsCheck, never()).searchWordsInUrl(anyString(), any());
+    }
+
+    @Test
+    void testPostNewsUnknownBlocklist() {
+        Map<String, Object> entity = Map.of("url", "http://example.com", "blocklist", 7);
+        when(blocklistRegistry.require(7)).thenThrow(new IllegalArgumentException("The blocklist '7' does not exist"));
+
+        ResponseEntity<Map<String, String>> response = newsController.postNews(entity);
+
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
+        assertTrue(response.getBody().get("Error").contains("The blocklist '7' does not exist"));
+    }
+
+    @Test
+    void testPostNewsBatchBlocklist() {
+        WordMatcher matcher = WordMatcher.compile(List.of("word"));
+        Map<String, Object> entity = Map.of("urls", List.of("http://a.com"), "blocklist", "7");
+        when(blocklistRegistry.require("7")).thenReturn(matcher);
+        when(newsBatchCheck.check(List.of("http://a.com"), matcher))
+                .thenReturn(List.of(CheckVerdict.fromOutcome("http://a.com", 1, null)));
+
+        ResponseEntity<?> response = newsController.postNewsBatch(entity);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+    }
+
+    @Test
+    void testPostNewsAsyncUnknownBlocklist() {
+        Map<String, Object> entity = Map.of("url", "http://example.com", "blocklist", 7);
+        when(blocklistRegistry.require(7)).thenThrow(new IllegalArgumentException("The blocklist '7' does not exist"));
+
+        ResponseEntity<?> response = newsController.postNewsAsync(entity);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verifyNoInteractions(checkJobService);
+    }
+
+    @Test
+    void testGetCheckJob() {
+        CheckJob job = new CheckJob("job-1", "http://example.com", Instant.now());
+        when(checkJobService.get("job-1")).thenReturn(job);
+
+        assertEquals(HttpStatus.OK, newsController.getCheckJob("job-1").getStatusCode());
+        assertEquals(HttpStatus.NOT_FOUND, newsController.getCheckJob("job-2").getStatusCode());
+    }
+
+    @Test
+    void testPostNewsStoresSnapshot() throws Exception {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        Map<String, Object> entity = Map.of("url", "http://example.com", "words", new ArrayList<>(List.of("word")));
+        when(newsCheck.searchWordsInUrl(eq("http://example.com"), any()))
+                .thenReturn(new ArrayList<>(List.of(false, "", "page text")));
+        when(h2Repository.create(any(News.class), anyBoolean())).thenReturn(1);
+
+        assertEquals(HttpStatus.CREATED, newsController.postNews(entity).getStatusCode());
+
+        ArgumentCaptor<News> news = ArgumentCaptor.forClass(News.class);
+        verify(h2Repository).create(news.capture(), eq(false));
+        assertEquals("page text", news.getValue().getText());
+    }
+
+    @Test
+    void testRecheckNews() throws Exception {
+        when(h2Repository.readSnapshot("http://example.com")).thenReturn("a page with a bad word");
+
+        ResponseEntity<?> found = newsController
+                .recheckNews(Map.of("url", "http://example.com", "words", List.of("BAD")));
+        ResponseEntity<?> clean = newsController
+                .recheckNews(Map.of("url", "http://example.com", "words", List.of("other")));
+
+        assertEquals(HttpStatus.OK, found.getStatusCode());
+        assertEquals(Map.of("url", "http://example.com", "found", true, "word", "bad"), found.getBody());
+        assertEquals(Map.of("url", "http://example.com", "found", false, "word", ""), clean.getBody());
+        verifyNoInteractions(newsCheck);
+        verify(h2Repository, never()).create(any(), anyBoolean());
+    }
+
+    @Test
+    void testRecheckNewsBlocklist() throws Exception {
+        WordMatcher matcher = WordMatcher.compile(List.of("word"));
+        when(blocklistRegistry.require(7)).thenReturn(matcher);
+        when(h2Repository.readSnapshot("http://example.com")).thenReturn("some word");
+
+        ResponseEntity<?> response = newsController.recheckNews(Map.of("url", "http://example.com", "blocklist", 7));
+
+        assertEquals(Map.of("url", "http://example.com", "found", true, "word", "word"), response.getBody());
+    }
+
+    @Test
+    void testRecheckNewsWithoutSnapshot() throws Exception {
+        when(h2Repository.readSnapshot("http://example.com")).thenReturn(null);
+
+        ResponseEntity<?> response = newsController
+                .recheckNews(Map.of("url", "http://example.com", "words", List.of("word")));
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    }
+
+    @Test
+    void testRecheckNewsInvalid() throws Exception {
+        assertEquals(HttpStatus.BAD_REQUEST,
+                newsController.recheckNews(Map.of("words", List.of("word"))).getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST,
+                newsController.recheckNews(Map.of("url", "http://example.com", "words", List.of())).getStatusCode());
+        verify(h2Repository, never()).readSnapshot(anyString());
+    }
+
+    @Test
+    void testPostRescan() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        RescanJob job = new RescanJob("job-1", 1, 10, Instant.now());
+        when(rescanService.start(List.of("new"))).thenReturn(job);
+
+        ResponseEntity<?> response = newsController.postRescan(Map.of("words", List.of("new")));
+
+        assertEquals(HttpStatus.ACCEPTED, response.getStatusCode());
+        assertSame(job, response.getBody());
+        assertTrue(response.getHeaders().getLocation().toString().endsWith("/api/v1/content/rescan"));
+    }
+
+    @Test
+    void testPostRescanBlocklist() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        WordMatcher matcher = WordMatcher.compile(List.of("a", "b"));
+        when(blocklistRegistry.require(7)).thenReturn(matcher);
+        when(rescanService.start(matcher, 2)).thenReturn(new RescanJob("job-1", 2, 10, Instant.now()));
+
+        assertEquals(HttpStatus.ACCEPTED, newsController.postRescan(Map.of("blocklist", 7)).getStatusCode());
+    }
+
+    @Test
+    void testPostRescanErrors() {
+        when(rescanService.start(List.of())).thenThrow(new IllegalArgumentException("The list of words is empty"));
+        when(rescanService.start(List.of("new"))).thenThrow(new IllegalStateException("A rescan is already running"));
+
+        assertEquals(HttpStatus.BAD_REQUEST, newsController.postRescan(Map.of("words", List.of())).getStatusCode());
+        assertEquals(HttpStatus.CONFLICT, newsController.postRescan(Map.of("words", List.of("new"))).getStatusCode());
+    }
+
+    @Test
+    void testGetAndCancelRescan() {
+        assertEquals(HttpStatus.NOT_FOUND, newsController.getRescan().getStatusCode());
+        assertEquals(HttpStatus.NOT_FOUND, newsController.deleteRescan().getStatusCode());
+
+        RescanJob job = new RescanJob("job-1", 1, 10, Instant.now());
+        when(rescanService.current()).thenReturn(job);
+        when(rescanService.cancel()).thenReturn(job);
+
+        assertEquals(HttpStatus.OK, newsController.getRescan().getStatusCode());
+        assertSame(job, newsController.deleteRescan().getBody());
+    }
+
+    @Test
+    void testSearchTerms() throws Exception {
+        when(termIndexer.isEnabled()).thenReturn(true);
+        when(termIndexer.search(List.of("a", "b"), true)).thenReturn(new int[] { 1, 2, 3 });
+        when(termIndexer.indexedUpTo()).thenReturn(10L);
+        List<News> found = List.of(new News("http://a.com", true), new News("http://b.com", true));
+        when(h2Repository.readByIds(new int[] { 1, 2 })).thenReturn(found);
+
+        ResponseEntity<?> response = newsController.searchTerms(List.of("a", "b"), "all", 2);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        Map<String, Object> body = (Map<String, Object>) response.getBody();
+        assertEquals(3, body.get("total"));
+        assertEquals(10L, body.get("indexedUpTo"));
+        assertEquals(found, body.get("results"));
+    }
+
+    @Test
+    void testSearchTermsInvalid() throws Exception {
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, newsController.searchTerms(List.of("a"), "all", null).getStatusCode());
+
+        when(termIndexer.isEnabled()).thenReturn(true);
+        when(termIndexer.search(null, false)).thenThrow(new IllegalArgumentException("The list of terms is empty"));
+
+        assertEquals(HttpStatus.BAD_REQUEST, newsController.searchTerms(List.of("a"), "some", null).getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, newsController.searchTerms(null, "any", null).getStatusCode());
+        verify(h2Repository, never()).readByIds(any());
+    }
+
+    @Test
+    void testSearchWords() throws Exception {
+        when(termIndexer.isEnabled()).thenReturn(true);
+        when(termIndexer.containing(any())).thenReturn(new int[] { 5 });
+        when(h2Repository.readByIds(new int[] { 5 })).thenReturn(List.of(new News("http://a.com", true)));
+
+        ResponseEntity<?> response = newsController.searchWords(Map.of("words", List.of("word")));
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(1, ((Map<String, Object>) response.getBody()).get("total"));
+        assertEquals(HttpStatus.BAD_REQUEST,
+                newsController.searchWords(Map.of("words", List.of("word"), "limit", 0)).getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, newsController.searchWords(Map.of("words", List.of())).getStatusCode());
+    }
+
 }
@@ -0,0 +1,54 @@
+package IndexingSystem.models;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class BlocklistTest {
+
+    // test 1: the constructor sets the name and the words
+    @Test
+    void testConstructor() {
+        Blocklist blocklist = new Blocklist("slurs", List.of("a", "b"));
+
+        assertNull(blocklist.getId());
+        assertEquals("slurs", blocklist.getName());
+        assertEquals(List.of("a", "b"), blocklist.getWords());
+    }
+
+    // test 2: getters and setters
+    @Test
+    void testGettersAndSetters() {
+        LocalDateTime now = LocalDateTime.now();
+        Blocklist blocklist = new Blocklist();
+        blocklist.setId(3);
+        blocklist.setName("slurs");
+        blocklist.setSize(2);
+        blocklist.setVersion(4L);
+        blocklist.setUpdatedAt(now);
+
+        assertEquals(3, blocklist.getId());
+        assertEquals(2, blocklist.getSize());
+        assertEquals(4L, blocklist.getVersion());
+        assertEquals(now, blocklist.getUpdatedAt());
+        assertEquals("Blocklist{id=3, name='slurs', size=2, version=4}", blocklist.toString());
+    }
+
+    // test 3: a listing without words does not serialize them
+    @Test
+    void testJsonWithoutWords() throws Exception {
+        Blocklist blocklist = new Blocklist();
+        blocklist.setId(3);
+        blocklist.setName("slurs");
+        blocklist.setSize(2);
+
+        String json = new ObjectMapper().writeValueAsString(blocklist);
+
+        assertEquals("{\"id\":3,\"name\":\"slurs\",\"size\":2}", json);
+    }
+}
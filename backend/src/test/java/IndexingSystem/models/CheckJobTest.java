@@ -0,0 +1,36 @@
+package IndexingSystem.models;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CheckJobTest {
+
+    // This test checks that a new job is pending and has no verdict.
+    @Test
+    void testNewJobIsPending() {
+        Instant now = Instant.now();
+        CheckJob job = new CheckJob("1", "http://example.com", now);
+
+        assertEquals(CheckJob.Status.PENDING, job.getStatus());
+        assertEquals(now, job.getCreatedAt());
+        assertNull(job.getVerdict());
+        assertNull(job.getFinishedAt());
+    }
+
+    // This test checks that finishing a job sets its verdict.
+    @Test
+    void testFinish() {
+        CheckJob job = new CheckJob("1", "http://example.com", Instant.now());
+        CheckVerdict verdict = CheckVerdict.fromOutcome("http://example.com", 1, null);
+        Instant finishedAt = Instant.now();
+
+        job.finish(verdict, finishedAt);
+
+        assertEquals(CheckJob.Status.DONE, job.getStatus());
+        assertSame(verdict, job.getVerdict());
+        assertEquals(finishedAt, job.getFinishedAt());
+    }
+}
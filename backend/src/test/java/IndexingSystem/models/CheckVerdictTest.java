@@ -0,0 +1,45 @@
+package IndexingSystem.models;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CheckVerdictTest {
+
+    // This test checks the verdict of each value returned by
+    // H2Repository.create.
+    @Test
+    void testFromOutcome() {
+        String url = "http://example.com";
+
+        assertEquals(409, CheckVerdict.fromOutcome(url, -2, "word").getStatus());
+        assertEquals(Map.of("Error", "ALERT: 'word' was found in an indexed URL"),
+                CheckVerdict.fromOutcome(url, -2, "word").toBody());
+
+        assertEquals(200, CheckVerdict.fromOutcome(url, -1, "word").getStatus());
+        assertEquals(Map.of("state", "Rejected because 'word' found"),
+                CheckVerdict.fromOutcome(url, -1, "word").toBody());
+
+        assertEquals(409, CheckVerdict.fromOutcome(url, 0, null).getStatus());
+        assertEquals(Map.of("Error", "The news with URL 'http://example.com' already exists"),
+                CheckVerdict.fromOutcome(url, 0, null).toBody());
+
+        assertEquals(201, CheckVerdict.fromOutcome(url, 1, null).getStatus());
+        assertEquals(Map.of("state", "Accepted."), CheckVerdict.fromOutcome(url, 1, null).toBody());
+
+        assertEquals(500, CheckVerdict.fromOutcome(url, 7, null).getStatus());
+    }
+
+    // This test checks the error verdict.
+    @Test
+    void testError() {
+        CheckVerdict verdict = CheckVerdict.error("http://example.com", "Error checking word in URL: timeout");
+
+        assertEquals("http://example.com", verdict.getUrl());
+        assertEquals(500, verdict.getStatus());
+        assertNull(verdict.getState());
+        assertEquals(Map.of("Error", "Error checking word in URL: timeout"), verdict.toBody());
+    }
+}
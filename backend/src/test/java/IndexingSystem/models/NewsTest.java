@@ -2,6 +2,8 @@ package IndexingSystem.models;
 
 import org.junit.jupiter.api.Test;
 
+import java.time.LocalDateTime;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class NewsTest {
@@ -52,4 +54,17 @@ class NewsTest {
         String expectedString = "New{url='http://example.com', authorized=true}";
         assertEquals(expectedString, news.toString());
     }
+
+    // This test verifies the id and creation date used as pagination cursor.
+    @Test
+    void testIdAndCreatedAt() {
+        News news = new News();
+        LocalDateTime createdAt = LocalDateTime.of(2025, 1, 1, 12, 0);
+
+        news.setId(3);
+        news.setCreatedAt(createdAt);
+
+        assertEquals(3, news.getId());
+        assertEquals(createdAt, news.getCreatedAt());
+    }
 }
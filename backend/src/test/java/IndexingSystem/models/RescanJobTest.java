@@ -0,0 +1,60 @@
+package IndexingSystem.models;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RescanJobTest {
+
+    // This test checks that the counters add up to the scanned news.
+    @Test
+    void testCounters() {
+        RescanJob job = new RescanJob("1", 2, 10, Instant.now());
+
+        job.scannedFromSnapshot();
+        job.scannedFromSnapshot();
+        job.scannedFromFetch();
+        job.skipped();
+        job.failed();
+        job.revoked(2);
+
+        assertEquals(RescanJob.Status.RUNNING, job.getStatus());
+        assertEquals(5, job.getScanned());
+        assertEquals(2, job.getFromSnapshot());
+        assertEquals(1, job.getFetched());
+        assertEquals(1, job.getSkipped());
+        assertEquals(1, job.getErrors());
+        assertEquals(2, job.getRevoked());
+    }
+
+    // This test checks the throughput and the ETA of a running job.
+    @Test
+    void testThroughputAndEta() {
+        RescanJob job = new RescanJob("1", 1, 300, Instant.now().minusSeconds(10));
+        for (int i = 0; i < 100; i++) {
+            job.scannedFromSnapshot();
+        }
+
+        assertEquals(10.0, job.getThroughput(), 0.5);
+        assertEquals(20, job.getEtaSeconds(), 2);
+    }
+
+    // This test checks that a finished job has no ETA and keeps its throughput.
+    @Test
+    void testFinish() {
+        Instant startedAt = Instant.now().minusSeconds(4);
+        RescanJob job = new RescanJob("1", 1, 8, startedAt);
+        for (int i = 0; i < 8; i++) {
+            job.scannedFromSnapshot();
+        }
+
+        job.finish(RescanJob.Status.DONE, null, startedAt.plusSeconds(4));
+
+        assertFalse(job.isRunning());
+        assertEquals(2.0, job.getThroughput());
+        assertNull(job.getEtaSeconds());
+        assertNull(job.getError());
+    }
+}
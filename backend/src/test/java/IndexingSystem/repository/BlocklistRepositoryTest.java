@@ -0,0 +1,110 @@
+package IndexingSystem.repository;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.sql.DriverManager;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import IndexingSystem.models.Blocklist;
+
+class BlocklistRepositoryTest {
+
+    private BlocklistRepository blocklistRepository;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        String url = "jdbc:h2:mem:blocklist_repository_test_" + System.nanoTime() + ";DB_CLOSE_DELAY=-1";
+        ConnectionDBRepository database = mock(ConnectionDBRepository.class);
+        when(database.getConnection()).thenAnswer(invocation -> DriverManager.getConnection(url, "sa", ""));
+        blocklistRepository = new BlocklistRepository();
+        ReflectionTestUtils.setField(blocklistRepository, "connection", database);
+        blocklistRepository.createTable();
+    }
+
+    // test 1: a list is read back with its words in order
+    @Test
+    void testCreateAndRead() throws Exception {
+        int id = blocklistRepository.create(new Blocklist("slurs", List.of("zeta", "alpha", "mu")));
+
+        Blocklist blocklist = blocklistRepository.read(id);
+
+        assertEquals("slurs", blocklist.getName());
+        assertEquals(List.of("zeta", "alpha", "mu"), blocklist.getWords());
+        assertEquals(3, blocklist.getSize());
+        assertNotNull(blocklist.getUpdatedAt());
+        assertNull(blocklistRepository.read(id + 1));
+    }
+
+    // test 2: names are unique
+    @Test
+    void testCreateDuplicatedName() throws Exception {
+        blocklistRepository.create(new Blocklist("slurs", List.of("a")));
+
+        assertEquals(-1, blocklistRepository.create(new Blocklist("slurs", List.of("b"))));
+        assertEquals(1, blocklistRepository.readAll().size());
+    }
+
+    // test 3: listings carry the size but not the words
+    @Test
+    void testReadAll() throws Exception {
+        blocklistRepository.create(new Blocklist("first", List.of("a", "b")));
+        blocklistRepository.create(new Blocklist("second", List.of("c")));
+
+        List<Blocklist> blocklists = blocklistRepository.readAll();
+
+        assertEquals(2, blocklists.size());
+        assertEquals("first", blocklists.get(0).getName());
+        assertEquals(2, blocklists.get(0).getSize());
+        assertEquals(1, blocklists.get(1).getSize());
+        assertNull(blocklists.get(0).getWords());
+    }
+
+    // test 4: an update replaces the name and the words
+    @Test
+    void testUpdate() throws Exception {
+        int id = blocklistRepository.create(new Blocklist("slurs", List.of("a", "b", "c")));
+        blocklistRepository.create(new Blocklist("other", List.of("d")));
+
+        assertEquals(1, blocklistRepository.update(id, new Blocklist("renamed", List.of("e"))));
+        assertEquals(0, blocklistRepository.update(id + 10, new Blocklist("missing", List.of("e"))));
+        assertEquals(-1, blocklistRepository.update(id, new Blocklist("other", List.of("f"))));
+
+        Blocklist blocklist = blocklistRepository.read(id);
+        assertEquals("renamed", blocklist.getName());
+        assertEquals(List.of("e"), blocklist.getWords());
+    }
+
+    // test 6: every update increases the version
+    @Test
+    void testVersions() throws Exception {
+        int first = blocklistRepository.create(new Blocklist("first", List.of("a")));
+        int second = blocklistRepository.create(new Blocklist("second", List.of("b")));
+
+        blocklistRepository.update(second, new Blocklist("second", List.of("c")));
+        blocklistRepository.update(second, new Blocklist("second", List.of("d")));
+
+        assertEquals(Map.of(first, 1L, second, 3L), blocklistRepository.readVersions());
+        assertEquals(3L, blocklistRepository.read(second).getVersion());
+        assertEquals(1L, blocklistRepository.readAll().get(0).getVersion());
+    }
+
+    // test 5: deleting a list deletes its words
+    @Test
+    void testDelete() throws Exception {
+        int id = blocklistRepository.create(new Blocklist("slurs", List.of("a", "b")));
+
+        assertEquals(1, blocklistRepository.delete(id));
+        assertEquals(0, blocklistRepository.delete(id));
+        assertNull(blocklistRepository.read(id));
+
+        // The name can be used again
+        int again = blocklistRepository.create(new Blocklist("slurs", List.of("c")));
+        assertEquals(List.of("c"), blocklistRepository.read(again).getWords());
+    }
+}
@@ -0,0 +1,70 @@
+package IndexingSystem.repository;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+
+import org.junit.jupiter.api.Test;
+
+class BloomFilterTest {
+
+    // test 1: every added value is reported as present
+    @Test
+    void testNoFalseNegatives() {
+        BloomFilter filter = new BloomFilter(10000, 0.01);
+        for (int i = 0; i < 10000; i++) {
+            filter.put("http://example.com/news/" + i);
+        }
+
+        for (int i = 0; i < 10000; i++) {
+            assertTrue(filter.mightContain("http://example.com/news/" + i));
+        }
+    }
+
+    // test 2: the false positive rate stays close to the configured one
+    @Test
+    void testFalsePositiveRate() {
+        BloomFilter filter = new BloomFilter(10000, 0.01);
+        for (int i = 0; i < 10000; i++) {
+            filter.put("http://example.com/news/" + i);
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 100000; i++) {
+            if (filter.mightContain("http://example.org/other/" + i)) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 2000, "False positives: " + falsePositives);
+    }
+
+    // test 3: size and number of hashes follow the expected count and rate
+    @Test
+    void testSizing() {
+        BloomFilter filter = new BloomFilter(100000, 0.01);
+
+        assertTrue(filter.bitSize() >= 958506);
+        assertEquals(0, filter.bitSize() % 64);
+        assertEquals(7, filter.hashCount());
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter(10, 1.5));
+    }
+
+    // test 4: a filter read back holds the same values
+    @Test
+    void testWriteAndRead() throws Exception {
+        BloomFilter filter = new BloomFilter(1000, 0.01);
+        filter.put("http://example.com");
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        filter.writeTo(new DataOutputStream(bytes));
+        BloomFilter read = BloomFilter.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        assertTrue(read.mightContain("http://example.com"));
+        assertFalse(read.mightContain("http://example.org"));
+        assertEquals(filter.bitSize(), read.bitSize());
+        assertEquals(filter.hashCount(), read.hashCount());
+    }
+}
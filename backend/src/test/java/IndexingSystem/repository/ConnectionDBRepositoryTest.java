@@ -1,21 +1,23 @@
 package IndexingSystem.repository;
 
 import static org.junit.jupiter.api.Assertions.*;
-import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
+import java.sql.SQLException;
+
+import javax.sql.DataSource;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.MockedStatic;
-import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
 
 class ConnectionDBRepositoryTest {
 
     private ConnectionDBRepository connectionDBRepository;
 
+    private DataSource dataSource;
+
     @BeforeEach
     void setUp() {
         // This method sets up the environment for each test by creating an instance of
@@ -27,6 +29,9 @@ class ConnectionDBRepositoryTest {
         connectionDBRepository.setDriverClassName("org.h2.Driver");
         connectionDBRepository.setUsername("sa");
         connectionDBRepository.setPassword("");
+
+        dataSource = mock(DataSource.class);
+        ReflectionTestUtils.setField(connectionDBRepository, "dataSource", dataSource);
     }
 
     // test 1: test the constructor
@@ -38,30 +43,24 @@ class ConnectionDBRepositoryTest {
         assertEquals("", connectionDBRepository.getPassword());
     }
 
-    // test 2: test the getConnection method
+    // test 2: test the getConnection method borrows from the pool
     @Test
-    void testGetConnectionSuccess() {
-        try (MockedStatic<DriverManager> driverManagerMock = Mockito.mockStatic(DriverManager.class)) {
-            Connection mockConnection = mock(Connection.class);
-            driverManagerMock.when(() -> DriverManager.getConnection(anyString(), anyString(), anyString()))
-                    .thenReturn(mockConnection);
-
-            Connection connection = connectionDBRepository.getConnection();
-            assertNotNull(connection);
-        }
+    void testGetConnectionSuccess() throws Exception {
+        Connection mockConnection = mock(Connection.class);
+        when(dataSource.getConnection()).thenReturn(mockConnection);
+
+        Connection connection = connectionDBRepository.getConnection();
+        assertSame(mockConnection, connection);
     }
 
-    // test 3: test the getConnection method when DriverManager returns null
+    // test 3: test the getConnection method when the pool cannot provide a
+    // connection
     @Test
-    void testGetConnectionFailure() {
-        try (MockedStatic<DriverManager> driverManagerMock = Mockito.mockStatic(DriverManager.class)) {
-            Connection mockConnection = null;
-            driverManagerMock.when(() -> DriverManager.getConnection(anyString(), anyString(), anyString()))
-                    .thenReturn(mockConnection);
-
-            Connection connection = connectionDBRepository.getConnection();
-            assertNull(connection);
-        }
+    void testGetConnectionFailure() throws Exception {
+        when(dataSource.getConnection()).thenThrow(new SQLException("Connection is not available"));
+
+        Connection connection = connectionDBRepository.getConnection();
+        assertNull(connection);
     }
 
     @Test
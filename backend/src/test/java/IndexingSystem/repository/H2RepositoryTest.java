@@ -4,18 +4,28 @@ import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
+import java.nio.file.Path;
 import java.sql.Connection;
+import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import IndexingSystem.models.News;
 
@@ -37,6 +47,15 @@ class H2RepositoryTest {
     @Mock
     private ResultSet resultSet;
 
+    @Spy
+    private UrlFilter urlFilter = new UrlFilter();
+
+    @Spy
+    private UrlCanonicalizer urlCanonicalizer = new UrlCanonicalizer();
+
+    @Spy
+    private SnapshotStore snapshotStore = new SnapshotStore();
+
     @InjectMocks
     private H2Repository h2Repository;
 
@@ -51,7 +70,7 @@ class H2RepositoryTest {
     void testCreateTable() throws Exception {
         when(statement.execute(anyString())).thenReturn(true);
         assertDoesNotThrow(() -> h2Repository.createTable());
-        verify(statement, times(1)).execute(anyString());
+        verify(statement, times(3)).execute(anyString());
     }
 
     // test 2: Verify that the readAll method retrieves all news from the database
@@ -89,12 +108,13 @@ class H2RepositoryTest {
     void testCreate() throws Exception {
         when(connection.prepareStatement(anyString())).thenReturn(preparedStatement);
         when(preparedStatement.executeUpdate()).thenReturn(1);
-        when(preparedStatement.executeQuery()).thenReturn(resultSet); // read() function
-        when(resultSet.next()).thenReturn(false);
 
         News news = new News("http://example.com", true);
         int result = h2Repository.create(news, false);
         assertEquals(1, result);
+        // A single statement, no previous read
+        verify(connection, times(1)).prepareStatement(anyString());
+        verify(preparedStatement, never()).executeQuery();
     }
 
     // test 5: Verify that the delete method removes a news item from the database
@@ -181,4 +201,346 @@ class H2RepositoryTest {
         assertThrows(RuntimeException.class, () -> h2Repository.delete("http://example.com"));
     }
 
+    // test 14: Verify that createTable and readAll return their connection to
+    // the pool
+    @Test
+    void testConnectionsAreClosed() throws Exception {
+        when(statement.executeQuery(anyString())).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(false);
+
+        h2Repository.createTable();
+        h2Repository.readAll();
+
+        verify(connection, times(2)).close();
+        verify(resultSet).close();
+    }
+
+    // test 15: Verify that the create method returns 0 if the MERGE matched an
+    // existing URL
+    @Test
+    void testCreate_Duplicate() throws Exception {
+        when(connection.prepareStatement(anyString())).thenReturn(preparedStatement);
+        when(preparedStatement.executeUpdate()).thenReturn(0);
+
+        int result = h2Repository.create(new News("http://example.com", true), false);
+        assertEquals(0, result);
+    }
+
+    // test 16: Verify that a unique index violation is reported as already
+    // exists
+    @Test
+    void testCreate_UniqueViolation() throws Exception {
+        when(connection.prepareStatement(anyString())).thenReturn(preparedStatement);
+        when(preparedStatement.executeUpdate()).thenThrow(new SQLException("Unique index violation", "23505"));
+
+        int result = h2Repository.create(new News("http://example.com", true), false);
+        assertEquals(0, result);
+    }
+
+    // test 17: Verify that the create method returns -1 if the word is found and
+    // the news does not exist
+    @Test
+    void testCreate_FoundNotExists() throws Exception {
+        when(connection.prepareStatement(anyString())).thenReturn(preparedStatement);
+        when(preparedStatement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(false);
+
+        int result = h2Repository.create(new News("http://example.com", true), true);
+        assertEquals(-1, result);
+        verify(preparedStatement, never()).executeUpdate();
+    }
+
+    // test 18: Verify against a real H2 database that concurrent creates of the
+    // same URL insert it only once
+    @Test
+    void testCreate_ConcurrentSameUrl() throws Exception {
+        H2Repository repository = realRepository();
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int i = 0; i < 32; i++) {
+                results.add(executor.submit(() -> repository.create(new News("http://example.com", true), false)));
+            }
+
+            int created = 0;
+            for (Future<Integer> result : results) {
+                int value = result.get();
+                assertTrue(value == 1 || value == 0);
+                created += value;
+            }
+
+            assertEquals(1, created);
+            assertEquals(1, repository.readAll().size());
+            assertEquals(-2, repository.create(new News("http://example.com", true), true));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    // test 19: Verify that readPage uses the cursor and the limit
+    @Test
+    void testReadPage() throws Exception {
+        when(connection.prepareStatement(anyString())).thenReturn(preparedStatement);
+        when(preparedStatement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true, false);
+        when(resultSet.getInt("id")).thenReturn(8);
+        when(resultSet.getString("url")).thenReturn("http://example.com");
+        when(resultSet.getBoolean("authorized")).thenReturn(true);
+
+        List<News> page = h2Repository.readPage(7, 50);
+
+        verify(preparedStatement).setInt(1, 7);
+        verify(preparedStatement).setInt(2, 50);
+        assertEquals(1, page.size());
+        assertEquals(8, page.get(0).getId());
+    }
+
+    // test 20: Verify that forEach hands every row to the consumer
+    @Test
+    void testForEach() throws Exception {
+        when(connection.prepareStatement(anyString())).thenReturn(preparedStatement);
+        when(preparedStatement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true, true, false);
+        when(resultSet.getString("url")).thenReturn("http://example.com/1", "http://example.com/2");
+
+        List<String> urls = new ArrayList<>();
+        h2Repository.forEach(news -> urls.add(news.getUrl()));
+
+        assertEquals(List.of("http://example.com/1", "http://example.com/2"), urls);
+        verify(resultSet).close();
+        verify(connection).close();
+    }
+
+    // test 21: Verify keyset pagination against a real H2 database
+    @Test
+    void testReadPage_RealDatabase() throws Exception {
+        H2Repository repository = realRepository();
+        for (int i = 0; i < 5; i++) {
+            repository.create(new News("http://example.com/" + i, true), false);
+        }
+
+        List<News> first = repository.readPage(null, 2);
+        List<News> second = repository.readPage(first.get(1).getId(), 2);
+        List<News> third = repository.readPage(second.get(1).getId(), 2);
+
+        assertEquals("http://example.com/0", first.get(0).getUrl());
+        assertEquals("http://example.com/2", second.get(0).getUrl());
+        assertEquals(1, third.size());
+        assertNotNull(third.get(0).getCreatedAt());
+    }
+
+    // test 22: Verify createAll against a real H2 database
+    @Test
+    void testCreateAll_RealDatabase() throws Exception {
+        H2Repository repository = realRepository();
+        repository.create(new News("http://example.com/indexed", true), false);
+
+        List<News> news = List.of(new News("http://example.com/new", true),
+                new News("http://example.com/indexed", true),
+                new News("http://example.com/indexed", true),
+                new News("http://example.com/rejected", true),
+                new News("http://example.com/new", true));
+        int[] results = repository.createAll(news, List.of(false, false, true, true, false));
+
+        assertArrayEquals(new int[] { 1, 0, -2, -1, 0 }, results);
+        assertEquals(2, repository.readAll().size());
+    }
+
+    // test 23: Verify that a URL missing from the filter skips the lookup
+    @Test
+    void testReadSkippedByUrlFilter() throws Exception {
+        urlFilter.finishRebuild(urlFilter.beginRebuild(0));
+
+        assertNull(h2Repository.read("http://example.com"));
+        assertEquals(0, h2Repository.delete("http://example.com"));
+
+        verify(connectionDBRepository, never()).getConnection();
+        assertEquals(2, urlFilter.getSkipped());
+    }
+
+    // test 24: Verify the URL filter against a real H2 database: built from the
+    // table, updated on insert and rebuilt without the deleted URLs
+    @Test
+    void testUrlFilterWithRealDatabase() throws Exception {
+        H2Repository repository = realRepository();
+        UrlFilter filter = (UrlFilter) ReflectionTestUtils.getField(repository, "urlFilter");
+        UrlCanonicalizer canonicalizer = new UrlCanonicalizer();
+
+        assertEquals(1, repository.create(new News("http://a.com", true), false));
+        repository.rebuildUrlFilter();
+        assertTrue(filter.isReady());
+        assertTrue(filter.mightContain(canonicalizer.identity("http://a.com")));
+
+        assertEquals(1, repository.create(new News("http://b.com", true), false));
+        assertEquals(-2, repository.create(new News("http://b.com", true), true));
+        assertArrayEquals(new int[] { -2, -1 },
+                repository.createAll(List.of(new News("http://a.com", true), new News("http://c.com", true)),
+                        List.of(true, true)));
+        assertNotNull(repository.read("http://b.com"));
+
+        assertEquals(1, repository.delete("http://a.com"));
+        assertNull(repository.read("http://a.com"));
+        assertTrue(filter.mightContain(canonicalizer.identity("http://a.com")));
+
+        repository.rebuildUrlFilter();
+        assertFalse(filter.mightContain(canonicalizer.identity("http://a.com")));
+        assertTrue(filter.mightContain(canonicalizer.identity("http://b.com")));
+        assertEquals(2, filter.getRebuilds());
+    }
+
+    // test 25: Verify against a real H2 database that URLs with the same
+    // canonical form are indexed once
+    @Test
+    void testCanonicalUrls_RealDatabase() throws Exception {
+        H2Repository repository = realRepository();
+
+        assertEquals(1, repository.create(new News("https://Example.com/a/?utm_source=x#top", true), false));
+        assertEquals(0, repository.create(new News("http://example.com/a", true), false));
+        assertEquals(-2, repository.create(new News("https://example.com:443/a?fbclid=1", true), true));
+
+        assertEquals("https://example.com/a", repository.read("HTTP://EXAMPLE.COM/a/").getUrl());
+        assertEquals(1, repository.readAll().size());
+
+        String longUrl = "http://example.com/" + "a".repeat(1500);
+        assertEquals(1, repository.create(new News(longUrl, true), false));
+        assertEquals(longUrl, repository.read(longUrl).getUrl());
+
+        assertEquals(1, repository.delete("http://example.com/a?utm_medium=mail"));
+        assertNull(repository.read("https://example.com/a"));
+    }
+
+    // test 26: Verify against a real H2 database that the page text of created
+    // news is stored and read back, and that older tables get the new columns
+    @Test
+    void testSnapshots_RealDatabase(@TempDir Path dir) throws Exception {
+        H2Repository repository = realRepository();
+        ConnectionDBRepository database = (ConnectionDBRepository) ReflectionTestUtils.getField(repository,
+                "connection");
+        try (Connection conn = database.getConnection(); Statement stmt = conn.createStatement()) {
+            stmt.execute("ALTER TABLE authorized_news DROP COLUMN snapshot_segment");
+            stmt.execute("ALTER TABLE authorized_news DROP COLUMN snapshot_offset");
+        }
+        repository.createTable();
+
+        SnapshotStore store = new SnapshotStore();
+        store.setEnabled(true);
+        store.setDirectory(dir.toString());
+        ReflectionTestUtils.setField(repository, "snapshotStore", store);
+
+        try {
+            News first = new News("http://example.com/1", true);
+            first.setText("texto de la primera");
+            News second = new News("http://example.com/2", true);
+            second.setText("texto de la segunda");
+
+            assertEquals(1, repository.create(first, false));
+            assertArrayEquals(new int[] { 1, 1 },
+                    repository.createAll(List.of(second, new News("http://example.com/3", true)),
+                            List.of(false, false)));
+
+            assertEquals("texto de la primera", repository.readSnapshot("https://example.com/1/"));
+            assertEquals("texto de la segunda", repository.readSnapshot("http://example.com/2"));
+            assertNull(repository.readSnapshot("http://example.com/3"));
+            assertNull(repository.readSnapshot("http://example.com/4"));
+        } finally {
+            store.close();
+        }
+    }
+
+    // test 27: Verify against a real H2 database the pages of authorized news,
+    // their snapshots and the batch that revokes them
+    @Test
+    void testRescanQueries_RealDatabase(@TempDir Path dir) throws Exception {
+        H2Repository repository = realRepository();
+        SnapshotStore store = new SnapshotStore();
+        store.setEnabled(true);
+        store.setDirectory(dir.toString());
+        ReflectionTestUtils.setField(repository, "snapshotStore", store);
+
+        try {
+            for (int i = 0; i < 4; i++) {
+                News news = new News("http://example.com/" + i, true);
+                news.setText(i == 2 ? null : "text " + i);
+                repository.create(news, false);
+            }
+
+            List<News> first = repository.readAuthorizedPage(null, 3);
+            assertEquals(3, first.size());
+            assertEquals(4, repository.countAuthorized());
+
+            assertEquals(1, repository.revoke(List.of(first.get(0).getId())));
+            assertEquals(0, repository.revoke(List.of(first.get(0).getId())));
+            assertEquals(0, repository.revoke(List.of()));
+            assertEquals(3, repository.countAuthorized());
+
+            List<News> page = repository.readAuthorizedPage(null, 10);
+            assertEquals(List.of("http://example.com/1", "http://example.com/2", "http://example.com/3"),
+                    page.stream().map(News::getUrl).toList());
+
+            repository.loadSnapshots(page);
+            assertEquals("text 1", page.get(0).getText());
+            assertNull(page.get(1).getText());
+            assertEquals("text 3", page.get(2).getText());
+        } finally {
+            store.close();
+        }
+    }
+
+    // test 28: Verify against a real H2 database the lookup of news by id
+    @Test
+    void testReadByIds_RealDatabase() throws Exception {
+        H2Repository repository = realRepository();
+        assertEquals(0, repository.lastId());
+        for (int i = 0; i < 4; i++) {
+            repository.create(new News("http://example.com/" + i, true), false);
+        }
+
+        List<News> news = repository.readByIds(new int[] { 4, 2, 9 });
+
+        assertEquals(4, repository.lastId());
+        assertEquals(List.of(2, 4), news.stream().map(News::getId).toList());
+        assertEquals("http://example.com/1", news.get(0).getUrl());
+        assertTrue(repository.readByIds(new int[0]).isEmpty());
+    }
+
+    // test 29: Verify against a real H2 database that checking an indexed URL
+    // again does not append its page text to the snapshots
+    @Test
+    void testDuplicateSnapshots_RealDatabase(@TempDir Path dir) throws Exception {
+        H2Repository repository = realRepository();
+        SnapshotStore store = new SnapshotStore();
+        store.setEnabled(true);
+        store.setDirectory(dir.toString());
+        ReflectionTestUtils.setField(repository, "snapshotStore", store);
+
+        try {
+            News news = new News("http://example.com/1", true);
+            news.setText("texto de la noticia");
+            assertEquals(1, repository.create(news, false));
+            long size = store.size();
+            assertTrue(size > 0);
+
+            assertEquals(0, repository.create(news, false));
+            assertArrayEquals(new int[] { 0 }, repository.createAll(List.of(news), List.of(false)));
+            assertEquals(size, store.size());
+            assertEquals("texto de la noticia", repository.readSnapshot("http://example.com/1"));
+        } finally {
+            store.close();
+        }
+    }
+
+    private H2Repository realRepository() throws Exception {
+        String url = "jdbc:h2:mem:h2_repository_test_" + System.nanoTime() + ";DB_CLOSE_DELAY=-1";
+        ConnectionDBRepository database = mock(ConnectionDBRepository.class);
+        when(database.getConnection()).thenAnswer(invocation -> DriverManager.getConnection(url, "sa", ""));
+        H2Repository repository = new H2Repository();
+        ReflectionTestUtils.setField(repository, "connection", database);
+        ReflectionTestUtils.setField(repository, "urlFilter", new UrlFilter());
+        ReflectionTestUtils.setField(repository, "urlCanonicalizer", new UrlCanonicalizer());
+        ReflectionTestUtils.setField(repository, "snapshotStore", new SnapshotStore());
+        repository.createTable();
+        return repository;
+    }
+
 }
@@ -0,0 +1,67 @@
+package IndexingSystem.repository;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.sql.DriverManager;
+import java.time.Instant;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class RejectionRepositoryTest {
+
+    private static final Instant NOW = Instant.parse("2024-01-01T00:00:00Z");
+
+    private RejectionRepository rejectionRepository;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        String url = "jdbc:h2:mem:rejection_repository_test_" + System.nanoTime() + ";DB_CLOSE_DELAY=-1";
+        ConnectionDBRepository database = mock(ConnectionDBRepository.class);
+        when(database.getConnection()).thenAnswer(invocation -> DriverManager.getConnection(url, "sa", ""));
+        rejectionRepository = new RejectionRepository();
+        ReflectionTestUtils.setField(rejectionRepository, "connection", database);
+        ReflectionTestUtils.setField(rejectionRepository, "urlCanonicalizer", new UrlCanonicalizer());
+        rejectionRepository.createTable();
+        // Created twice at every start
+        rejectionRepository.createTable();
+    }
+
+    // test 1: a rejection is found by every form of the URL, for the same list only
+    @Test
+    void testSaveAndFind() throws Exception {
+        rejectionRepository.save("https://Example.com/page/?utm_source=x", "list", "word", NOW.plusSeconds(60));
+
+        RejectionRepository.Rejection rejection = rejectionRepository.find("http://example.com/page", "list", NOW);
+
+        assertEquals("word", rejection.getWord());
+        assertEquals(NOW.plusSeconds(60), rejection.getExpiresAt());
+        assertNull(rejectionRepository.find("http://example.com/page", "other", NOW));
+        assertNull(rejectionRepository.find("http://example.com/other", "list", NOW));
+    }
+
+    // test 2: a new rejection by the same list replaces the previous one
+    @Test
+    void testSaveReplaces() throws Exception {
+        rejectionRepository.save("http://example.com", "list", "first", NOW.plusSeconds(60));
+        rejectionRepository.save("http://example.com", "list", "second", NOW.plusSeconds(120));
+
+        RejectionRepository.Rejection rejection = rejectionRepository.find("http://example.com", "list", NOW.plusSeconds(90));
+
+        assertEquals("second", rejection.getWord());
+    }
+
+    // test 3: expired rejections are not found and are purged
+    @Test
+    void testExpiryAndPurge() throws Exception {
+        rejectionRepository.save("http://a.com", "list", "word", NOW.plusSeconds(60));
+        rejectionRepository.save("http://b.com", "list", "word", NOW.plusSeconds(120));
+
+        assertNull(rejectionRepository.find("http://a.com", "list", NOW.plusSeconds(60)));
+        assertEquals(1, rejectionRepository.purge(NOW.plusSeconds(60)));
+        assertNotNull(rejectionRepository.find("http://b.com", "list", NOW.plusSeconds(60)));
+        assertEquals(0, rejectionRepository.purge(NOW.plusSeconds(60)));
+    }
+}
@@ -0,0 +1,167 @@
+package IndexingSystem.repository;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class SnapshotStoreTest {
+
+    @TempDir
+    Path dir;
+
+    private final List<SnapshotStore> stores = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        stores.forEach(SnapshotStore::close);
+    }
+
+    // test 1: a text is read back from its location, compressed on disk
+    @Test
+    void testAppendAndRead() throws Exception {
+        SnapshotStore store = store(1024 * 1024);
+        String text = "Una noticia con tildes, ñ y emojis 📰 ".repeat(200);
+
+        SnapshotStore.Location first = store.append(text);
+        SnapshotStore.Location second = store.append("otra");
+
+        assertEquals(1, first.getSegment());
+        assertEquals(0, first.getOffset());
+        assertTrue(second.getOffset() > 0);
+        assertEquals(text, store.read(first.getSegment(), first.getOffset()));
+        assertEquals("otra", store.read(second.getSegment(), second.getOffset()));
+        SnapshotStore.Location empty = store.append("");
+        assertEquals("", store.read(empty.getSegment(), empty.getOffset()));
+        assertTrue(store.size() < text.length() / 4);
+    }
+
+    // test 2: nothing is written while disabled
+    @Test
+    void testDisabled() throws Exception {
+        SnapshotStore store = new SnapshotStore();
+        store.setDirectory(dir.toString());
+        stores.add(store);
+
+        assertNull(store.append("text"));
+        assertEquals(0, Files.list(dir).count());
+    }
+
+    // test 3: a full segment rolls over to a new one
+    @Test
+    void testSegmentRoll() throws Exception {
+        SnapshotStore store = store(256);
+        List<SnapshotStore.Location> locations = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            locations.add(store.append("page " + i + " " + Integer.toHexString(i * 7919).repeat(20)));
+        }
+
+        assertTrue(locations.get(19).getSegment() > 1);
+        assertTrue(Files.exists(dir.resolve("segment-000002.dat")));
+        for (int i = 0; i < 20; i++) {
+            SnapshotStore.Location location = locations.get(i);
+            assertTrue(store.read(location.getSegment(), location.getOffset()).startsWith("page " + i + " "));
+        }
+    }
+
+    // test 4: texts appended after a read are visible
+    @Test
+    void testReadWhileAppending() throws Exception {
+        SnapshotStore store = store(1024 * 1024);
+        SnapshotStore.Location first = store.append("first");
+        assertEquals("first", store.read(first.getSegment(), first.getOffset()));
+
+        SnapshotStore.Location second = store.append("second");
+        assertEquals("second", store.read(second.getSegment(), second.getOffset()));
+        assertEquals("first", store.read(first.getSegment(), first.getOffset()));
+    }
+
+    // test 5: a reopened store reads the old texts and truncates a torn record
+    @Test
+    void testRecoverAfterCrash() throws Exception {
+        SnapshotStore store = store(1024 * 1024);
+        SnapshotStore.Location kept = store.append("kept");
+        SnapshotStore.Location torn = store.append("torn ".repeat(100));
+        store.flush();
+        store.close();
+
+        Path segment = dir.resolve("segment-000001.dat");
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.truncate(torn.getOffset() + 20);
+        }
+
+        SnapshotStore reopened = store(1024 * 1024);
+        assertEquals("kept", reopened.read(kept.getSegment(), kept.getOffset()));
+        assertEquals(torn.getOffset(), Files.size(segment));
+
+        SnapshotStore.Location next = reopened.append("next");
+        assertEquals(torn.getOffset(), next.getOffset());
+        assertEquals("next", reopened.read(next.getSegment(), next.getOffset()));
+    }
+
+    // test 6: a location without a valid record is rejected
+    @Test
+    void testInvalidLocation() throws Exception {
+        SnapshotStore store = store(1024 * 1024);
+        SnapshotStore.Location location = store.append("some text");
+
+        assertThrows(IllegalArgumentException.class, () -> store.read(7, 0));
+        assertThrows(IOException.class, () -> store.read(location.getSegment(), location.getOffset() + 1));
+        assertThrows(IOException.class, () -> store.read(location.getSegment(), 4096));
+    }
+
+    // test 7: only full segments are mapped, the active one is read in place
+    @Test
+    void testActiveSegmentNotMapped() throws Exception {
+        SnapshotStore store = store(256);
+        List<SnapshotStore.Location> locations = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            SnapshotStore.Location location = store.append("page " + i + " " + Integer.toHexString(i * 7919).repeat(20));
+            locations.add(location);
+            assertTrue(store.read(location.getSegment(), location.getOffset()).startsWith("page " + i + " "));
+            assertFalse(store.isMapped(location.getSegment()));
+        }
+
+        SnapshotStore.Location first = locations.get(0);
+        assertTrue(store.read(first.getSegment(), first.getOffset()).startsWith("page 0 "));
+        assertTrue(store.isMapped(first.getSegment()));
+        store.close();
+
+        SnapshotStore reopened = store(256);
+        SnapshotStore.Location last = locations.get(19);
+        assertTrue(reopened.read(first.getSegment(), first.getOffset()).startsWith("page 0 "));
+        assertTrue(reopened.read(last.getSegment(), last.getOffset()).startsWith("page 19 "));
+        assertTrue(reopened.isMapped(first.getSegment()));
+        assertFalse(reopened.isMapped(last.getSegment()));
+    }
+
+    // test 8: segments must fit in the int offsets of a mapped buffer
+    @Test
+    void testSegmentSizeLimit() {
+        SnapshotStore store = new SnapshotStore();
+
+        assertThrows(IllegalArgumentException.class, () -> store.setSegmentSize(0));
+        assertThrows(IllegalArgumentException.class, () -> store.setSegmentSize(Integer.MAX_VALUE));
+        assertThrows(IllegalArgumentException.class, () -> store.setSegmentSize(4L * 1024 * 1024 * 1024));
+        store.setSegmentSize(Integer.MAX_VALUE - 1);
+        assertEquals(Integer.MAX_VALUE - 1, store.getSegmentSize());
+    }
+
+    private SnapshotStore store(long segmentSize) {
+        SnapshotStore store = new SnapshotStore();
+        store.setEnabled(true);
+        store.setDirectory(dir.toString());
+        store.setSegmentSize(segmentSize);
+        stores.add(store);
+        return store;
+    }
+}
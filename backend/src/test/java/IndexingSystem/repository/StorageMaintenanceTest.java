@@ -0,0 +1,121 @@
+package IndexingSystem.repository;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.DriverManager;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import IndexingSystem.models.News;
+
+class StorageMaintenanceTest {
+
+    @TempDir
+    Path dir;
+
+    // test 1: a restart loads the saved filter and only reads the newer rows
+    @Test
+    void testWarmRestart() throws Exception {
+        String url = "jdbc:h2:file:" + dir.resolve("db") + ";DB_CLOSE_ON_EXIT=FALSE";
+
+        StorageMaintenance first = storage(url);
+        H2Repository repository = repository(first);
+        first.warmUp();
+        repository.create(new News("http://example.com/1", true), false);
+        first.checkpoint();
+        assertTrue(Files.exists(dir.resolve("url-filter.bin")));
+
+        // Inserted after the checkpoint
+        repository.create(new News("http://example.com/2", true), false);
+
+        StorageMaintenance second = storage(url);
+        H2Repository restarted = repository(second);
+        UrlFilter filter = (UrlFilter) ReflectionTestUtils.getField(restarted, "urlFilter");
+        second.warmUp();
+
+        assertTrue(filter.isReady());
+        assertNotNull(restarted.read("http://example.com/1"));
+        assertNotNull(restarted.read("http://example.com/2"));
+        assertNull(restarted.read("http://example.com/3"));
+        assertEquals(1, filter.getSkipped());
+    }
+
+    // test 2: a snapshot newer than the table is ignored
+    @Test
+    void testSnapshotOfAnotherDatabase() throws Exception {
+        StorageMaintenance first = storage("jdbc:h2:file:" + dir.resolve("db") + ";DB_CLOSE_ON_EXIT=FALSE");
+        H2Repository repository = repository(first);
+        first.warmUp();
+        repository.create(new News("http://example.com/1", true), false);
+        repository.create(new News("http://example.com/2", true), false);
+        first.checkpoint();
+
+        StorageMaintenance other = storage("jdbc:h2:file:" + dir.resolve("other") + ";DB_CLOSE_ON_EXIT=FALSE");
+        H2Repository empty = repository(other);
+        empty.create(new News("http://example.com/3", true), false);
+        other.warmUp();
+
+        assertNotNull(empty.read("http://example.com/3"));
+        assertNull(empty.read("http://example.com/1"));
+    }
+
+    // test 3: backups are written and only the newest ones are kept
+    @Test
+    void testBackup() throws Exception {
+        StorageMaintenance storage = storage("jdbc:h2:file:" + dir.resolve("db") + ";DB_CLOSE_ON_EXIT=FALSE");
+        repository(storage).create(new News("http://example.com", true), false);
+        storage.setBackupsKept(2);
+
+        Files.createFile(dir.resolve("backup-20000101-000000.zip"));
+        Files.createFile(dir.resolve("backup-20000102-000000.zip"));
+        Path backup = storage.backup();
+
+        assertTrue(Files.size(backup) > 0);
+        assertFalse(Files.exists(dir.resolve("backup-20000101-000000.zip")));
+        assertTrue(Files.exists(dir.resolve("backup-20000102-000000.zip")));
+    }
+
+    // test 4: nothing is written while storage is in memory
+    @Test
+    void testInMemory() throws Exception {
+        StorageMaintenance storage = new StorageMaintenance();
+        storage.setDirectory(dir.toString());
+        H2Repository repository = mock(H2Repository.class);
+        ReflectionTestUtils.setField(storage, "h2Repository", repository);
+
+        storage.warmUp();
+        storage.checkpoint();
+
+        assertNull(storage.backup());
+        verify(repository).rebuildUrlFilter();
+        verifyNoMoreInteractions(repository);
+    }
+
+    private StorageMaintenance storage(String url) throws Exception {
+        ConnectionDBRepository database = mock(ConnectionDBRepository.class);
+        when(database.getConnection()).thenAnswer(invocation -> DriverManager.getConnection(url, "sa", ""));
+
+        StorageMaintenance storage = new StorageMaintenance();
+        storage.setDurable(true);
+        storage.setDirectory(dir.toString());
+        ReflectionTestUtils.setField(storage, "connection", database);
+        ReflectionTestUtils.setField(storage, "snapshotStore", new SnapshotStore());
+        return storage;
+    }
+
+    private H2Repository repository(StorageMaintenance storage) throws Exception {
+        H2Repository repository = new H2Repository();
+        ReflectionTestUtils.setField(repository, "connection", ReflectionTestUtils.getField(storage, "connection"));
+        ReflectionTestUtils.setField(repository, "urlFilter", new UrlFilter());
+        ReflectionTestUtils.setField(repository, "urlCanonicalizer", new UrlCanonicalizer());
+        ReflectionTestUtils.setField(repository, "snapshotStore", ReflectionTestUtils.getField(storage, "snapshotStore"));
+        ReflectionTestUtils.setField(storage, "h2Repository", repository);
+        repository.createTable();
+        return repository;
+    }
+}
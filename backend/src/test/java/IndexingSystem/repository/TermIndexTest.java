@@ -0,0 +1,183 @@
+package IndexingSystem.repository;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class TermIndexTest {
+
+    @TempDir
+    Path dir;
+
+    // test 1: postings of a term are read back from every segment in id order
+    @Test
+    void testPostings() throws Exception {
+        TermIndex index = index(8);
+        index.append(postings("apple", new int[] { 1, 3 }, "pear", new int[] { 2 }), 3);
+        index.append(postings("apple", new int[] { 5, 300, 70000 }), 70000);
+
+        assertArrayEquals(new int[] { 1, 3, 5, 300, 70000 }, index.postings("apple"));
+        assertArrayEquals(new int[] { 2 }, index.postings("pear"));
+        assertArrayEquals(new int[0], index.postings("plum"));
+        assertEquals(70000, index.lastId());
+    }
+
+    // test 2: all intersects the terms and any joins them
+    @Test
+    void testAllAndAny() throws Exception {
+        TermIndex index = index(8);
+        index.append(postings("a", new int[] { 1, 2, 3, 4 }, "b", new int[] { 2, 4, 6 }, "c", new int[] { 4, 7 }), 10);
+
+        assertArrayEquals(new int[] { 4 }, index.all(List.of("a", "b", "c")));
+        assertArrayEquals(new int[] { 2, 4 }, index.all(List.of("a", "b")));
+        assertArrayEquals(new int[0], index.all(List.of("a", "missing")));
+        assertArrayEquals(new int[] { 1, 2, 3, 4, 6, 7 }, index.any(List.of("a", "b", "c")));
+    }
+
+    // test 3: the dictionary is filtered instead of the texts
+    @Test
+    void testMatching() throws Exception {
+        TermIndex index = index(8);
+        index.append(postings("racist", new int[] { 1, 3 }, "racism", new int[] { 2, 3 }, "rain", new int[] { 4 }), 4);
+        index.append(postings("racists", new int[] { 5 }), 5);
+
+        assertArrayEquals(new int[] { 1, 2, 3, 5 }, index.matching(term -> term.contains("raci")));
+        assertArrayEquals(new int[0], index.matching(term -> false));
+    }
+
+    // test 4: segments beyond the limit are merged into one
+    @Test
+    void testMerge() throws Exception {
+        TermIndex index = index(2);
+        index.append(postings("a", new int[] { 1 }), 1);
+        index.append(postings("a", new int[] { 2 }, "b", new int[] { 2 }), 2);
+        index.append(postings("b", new int[] { 3 }), 3);
+
+        assertEquals(1, index.segmentTerms().size());
+        assertEquals(1, segmentFiles());
+        assertArrayEquals(new int[] { 1, 2 }, index.postings("a"));
+        assertArrayEquals(new int[] { 2, 3 }, index.postings("b"));
+    }
+
+    // test 5: a reopened index reads the segments on disk
+    @Test
+    void testReopen() throws Exception {
+        TermIndex index = index(8);
+        index.append(postings("a", new int[] { 1, 9 }), 10);
+        index.append(new TreeMap<>(), 12);
+
+        TermIndex reopened = index(8);
+        assertEquals(12, reopened.lastId());
+        assertArrayEquals(new int[] { 1, 9 }, reopened.postings("a"));
+
+        reopened.append(postings("a", new int[] { 13 }), 13);
+        assertArrayEquals(new int[] { 1, 9, 13 }, reopened.postings("a"));
+        assertThrows(IllegalArgumentException.class, () -> reopened.append(postings("a", new int[] { 13 }), 13));
+    }
+
+    // test 6: ids are stored as varint gaps
+    @Test
+    void testVarint() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        TermIndex.writeVarint(out, 1);
+        TermIndex.writeVarint(out, 300);
+        TermIndex.writeVarint(out, Integer.MAX_VALUE);
+        assertEquals(1 + 2 + 5, out.size());
+
+        ByteBuffer in = ByteBuffer.wrap(out.toByteArray());
+        assertEquals(1, TermIndex.readVarint(in));
+        assertEquals(300, TermIndex.readVarint(in));
+        assertEquals(Integer.MAX_VALUE, TermIndex.readVarint(in));
+    }
+
+    // test 7: sorted id lists are intersected and joined without duplicates
+    @Test
+    void testIntersectAndUnion() {
+        assertArrayEquals(new int[] { 3, 5 }, TermIndex.intersect(new int[] { 1, 3, 5 }, new int[] { 3, 4, 5, 6 }));
+        assertArrayEquals(new int[] { 1, 3, 4, 5, 6 }, TermIndex.union(new int[] { 1, 3, 5 }, new int[] { 3, 4, 5, 6 }));
+        assertArrayEquals(new int[] { 2 }, TermIndex.union(new int[0], new int[] { 2 }));
+    }
+
+    // test 8: only segments of the same size tier are merged
+    @Test
+    void testTieredMerge() throws Exception {
+        TermIndex index = index(100);
+        index.setMergeFactor(3);
+        int[] large = new int[200000];
+        for (int i = 0; i < large.length; i++) {
+            large[i] = i + 1;
+        }
+        index.append(postings("a", large), large.length);
+
+        index.append(postings("a", new int[] { 200001 }), 200001);
+        index.append(postings("b", new int[] { 200002 }), 200002);
+        assertEquals(3, index.segmentTerms().size());
+
+        index.append(postings("a", new int[] { 200003 }, "b", new int[] { 200003 }), 200003);
+        assertEquals(List.of(1, 2), index.segmentTerms());
+        assertEquals(2, segmentFiles());
+        assertEquals(200002, index.postings("a").length);
+        assertArrayEquals(new int[] { 200002, 200003 }, index.postings("b"));
+    }
+
+    // test 9: temporary files of an interrupted write are deleted on open
+    @Test
+    void testDeleteTemporaryFiles() throws Exception {
+        TermIndex index = index(8);
+        index.append(postings("a", new int[] { 1 }), 1);
+        Files.write(dir.resolve("terms-000002.seg.tmp"), new byte[] { 1, 2, 3 });
+        Files.write(dir.resolve("terms-000002.seg.postings.tmp"), new byte[] { 1, 2, 3 });
+
+        TermIndex reopened = index(8);
+        assertArrayEquals(new int[] { 1 }, reopened.postings("a"));
+        try (Stream<Path> files = Files.list(dir)) {
+            assertEquals(List.of("terms-000001.seg"), files.map(path -> path.getFileName().toString()).toList());
+        }
+    }
+
+    // test 10: merges that would exceed the segment size limit are skipped
+    @Test
+    void testMaxSegmentSize() throws Exception {
+        TermIndex index = index(1);
+        index.setMergeFactor(2);
+        index.setMaxSegmentSize(64);
+        index.append(postings("a", new int[] { 1 }), 1);
+        index.append(postings("a", new int[] { 2 }), 2);
+
+        assertEquals(2, segmentFiles());
+        assertArrayEquals(new int[] { 1, 2 }, index.postings("a"));
+        assertThrows(IllegalArgumentException.class, () -> index.setMaxSegmentSize(Integer.MAX_VALUE));
+        assertThrows(IllegalArgumentException.class, () -> index.setMaxSegmentSize(0));
+    }
+
+    private TermIndex index(int maxSegments) {
+        TermIndex index = new TermIndex();
+        index.setEnabled(true);
+        index.setDirectory(dir.toString());
+        index.setMaxSegments(maxSegments);
+        return index;
+    }
+
+    private long segmentFiles() throws Exception {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(path -> path.getFileName().toString().endsWith(".seg")).count();
+        }
+    }
+
+    private static TreeMap<String, int[]> postings(Object... entries) {
+        TreeMap<String, int[]> postings = new TreeMap<>();
+        for (int i = 0; i < entries.length; i += 2) {
+            postings.put((String) entries[i], (int[]) entries[i + 1]);
+        }
+        return postings;
+    }
+}
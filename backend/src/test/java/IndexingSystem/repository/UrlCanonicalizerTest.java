@@ -0,0 +1,54 @@
+package IndexingSystem.repository;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class UrlCanonicalizerTest {
+
+    private final UrlCanonicalizer canonicalizer = new UrlCanonicalizer();
+
+    // test 1: scheme, host, port, fragment and trailing slash are normalized
+    @Test
+    void testCanonicalize() {
+        assertEquals("https://example.com/news", canonicalizer.canonicalize(" HTTPS://Example.COM:443/news/#top "));
+        assertEquals("http://example.com/", canonicalizer.canonicalize("http://example.com"));
+        assertEquals("http://example.com/", canonicalizer.canonicalize("http://example.com:80/"));
+        assertEquals("http://example.com:8080/a", canonicalizer.canonicalize("http://example.com:8080/a//"));
+        assertEquals("http://example.com/A/b", canonicalizer.canonicalize("http://EXAMPLE.com./A/b"));
+    }
+
+    // test 2: tracking parameters are removed and the others keep their order
+    @Test
+    void testTrackingParameters() {
+        assertEquals("https://example.com/a?id=2&page=1",
+                canonicalizer.canonicalize("https://example.com/a?utm_source=x&id=2&UTM_Medium=y&&page=1&fbclid=z"));
+        assertEquals("https://example.com/a", canonicalizer.canonicalize("https://example.com/a?gclid=1"));
+
+        canonicalizer.setTrackingParameters(List.of("ref"));
+        assertEquals("https://example.com/a?utm_source=x",
+                canonicalizer.canonicalize("https://example.com/a?utm_source=x&ref=home"));
+    }
+
+    // test 3: http and https share the key, other differences do not
+    @Test
+    void testKey() {
+        assertArrayEquals(canonicalizer.key("http://example.com/a"),
+                canonicalizer.key("https://example.com/a/?utm_campaign=1"));
+        assertFalse(Arrays.equals(canonicalizer.key("https://example.com/a"),
+                canonicalizer.key("https://example.com/b")));
+        assertEquals(UrlCanonicalizer.KEY_LENGTH, canonicalizer.key("https://example.com/a").length);
+    }
+
+    // test 4: text that is not an absolute URL is only trimmed
+    @Test
+    void testNotUrl() {
+        assertEquals("not a url", canonicalizer.canonicalize(" not a url "));
+        assertEquals("example.com/a", canonicalizer.canonicalize("example.com/a"));
+        assertEquals("mailto:a@example.com", canonicalizer.canonicalize("mailto:a@example.com"));
+        assertNull(canonicalizer.canonicalize(null));
+    }
+}
@@ -0,0 +1,80 @@
+package IndexingSystem.repository;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class UrlFilterTest {
+
+    // test 1: before the first build every URL may be indexed
+    @Test
+    void testNotReady() {
+        UrlFilter filter = new UrlFilter();
+        filter.add("http://a.com");
+
+        assertFalse(filter.isReady());
+        assertTrue(filter.mightContain("http://b.com"));
+        assertEquals(0, filter.getSkipped());
+    }
+
+    // test 2: URLs added during a rebuild are kept by the new filter
+    @Test
+    void testAddDuringRebuild() {
+        UrlFilter filter = new UrlFilter();
+        filter.finishRebuild(filter.beginRebuild(0));
+        filter.add("http://a.com");
+
+        BloomFilter next = filter.beginRebuild(1);
+        filter.add("http://b.com");
+        filter.finishRebuild(next);
+
+        assertTrue(filter.mightContain("http://b.com"));
+        assertFalse(filter.mightContain("http://a.com"));
+        assertEquals(1, filter.getSkipped());
+    }
+
+    // test 3: an aborted rebuild keeps the current filter
+    @Test
+    void testAbortRebuild() {
+        UrlFilter filter = new UrlFilter();
+        filter.finishRebuild(filter.beginRebuild(0));
+        filter.add("http://a.com");
+
+        filter.beginRebuild(1);
+        filter.abortRebuild();
+
+        assertTrue(filter.mightContain("http://a.com"));
+        assertEquals(1, filter.getRebuilds());
+    }
+
+    // test 4: a saved filter is loaded with its last id, a missing or foreign
+    // file is ignored
+    @Test
+    void testSaveAndLoad(@TempDir Path dir) throws Exception {
+        UrlFilter filter = new UrlFilter();
+        Path file = dir.resolve("url-filter.bin");
+        assertFalse(filter.save(file, 0));
+
+        filter.finishRebuild(filter.beginRebuild(0));
+        filter.add("http://a.com");
+        assertTrue(filter.save(file, 7));
+
+        UrlFilter restarted = new UrlFilter();
+        UrlFilter.Snapshot snapshot = restarted.beginLoad(file);
+        assertEquals(7, snapshot.getLastId());
+        restarted.add("http://b.com");
+        restarted.finishRebuild(snapshot.getFilter());
+
+        assertTrue(restarted.mightContain("http://a.com"));
+        assertTrue(restarted.mightContain("http://b.com"));
+        assertFalse(restarted.mightContain("http://c.com"));
+
+        assertNull(restarted.beginLoad(dir.resolve("missing.bin")));
+        Files.writeString(dir.resolve("other.bin"), "not a filter");
+        assertNull(restarted.beginLoad(dir.resolve("other.bin")));
+    }
+}
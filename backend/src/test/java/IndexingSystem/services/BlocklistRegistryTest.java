@@ -0,0 +1,214 @@
+package IndexingSystem.services;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import IndexingSystem.models.Blocklist;
+import IndexingSystem.repository.BlocklistRepository;
+
+@ExtendWith(MockitoExtension.class)
+class BlocklistRegistryTest {
+
+    @Mock
+    private BlocklistRepository blocklistRepository;
+
+    @InjectMocks
+    private BlocklistRegistry blocklistRegistry;
+
+    @AfterEach
+    void tearDown() {
+        blocklistRegistry.shutdown();
+    }
+
+    // test 1: every stored list is compiled on load, invalid ones are skipped
+    @Test
+    void testLoad() throws Exception {
+        when(blocklistRepository.readVersions()).thenReturn(Map.of(1, 1L, 2, 1L));
+        when(blocklistRepository.read(1)).thenReturn(blocklist(1, 1, List.of("racist")));
+        when(blocklistRepository.read(2)).thenReturn(blocklist(2, 1, List.of("not valid")));
+
+        blocklistRegistry.load();
+
+        assertEquals(1, blocklistRegistry.size());
+        assertEquals("racist", blocklistRegistry.get(1).firstMatch("a RACIST page"));
+        assertNull(blocklistRegistry.get(2));
+    }
+
+    // test 2: a reload only compiles the lists whose version changed
+    @Test
+    void testReloadChangedVersions() throws Exception {
+        when(blocklistRepository.readVersions()).thenReturn(Map.of(1, 1L, 2, 1L), Map.of(1, 1L, 2, 2L));
+        when(blocklistRepository.read(1)).thenReturn(blocklist(1, 1, List.of("first")));
+        when(blocklistRepository.read(2)).thenReturn(blocklist(2, 1, List.of("old")), blocklist(2, 2, List.of("new")));
+
+        blocklistRegistry.load();
+        WordMatcher first = blocklistRegistry.get(1);
+        blocklistRegistry.reload().join();
+
+        assertSame(first, blocklistRegistry.get(1));
+        assertEquals(2, blocklistRegistry.version(2));
+        assertEquals("new", blocklistRegistry.get(2).firstMatch("a new page"));
+        verify(blocklistRepository, times(1)).read(1);
+        verify(blocklistRepository, times(2)).read(2);
+    }
+
+    // test 3: deleted lists are dropped on reload
+    @Test
+    void testReloadDeleted() throws Exception {
+        when(blocklistRepository.readVersions()).thenReturn(Map.of(1, 1L), Map.of());
+        when(blocklistRepository.read(1)).thenReturn(blocklist(1, 1, List.of("racist")));
+
+        blocklistRegistry.load();
+        blocklistRegistry.reload().join();
+
+        assertNull(blocklistRegistry.get(1));
+        assertEquals(0, blocklistRegistry.size());
+    }
+
+    // test 4: a stored list that is no longer valid keeps its previous matcher
+    @Test
+    void testReloadInvalidKeepsPrevious() throws Exception {
+        when(blocklistRepository.readVersions()).thenReturn(Map.of(1, 1L), Map.of(1, 2L));
+        when(blocklistRepository.read(1)).thenReturn(blocklist(1, 1, List.of("racist")),
+                blocklist(1, 2, List.of("not valid")));
+
+        blocklistRegistry.load();
+        WordMatcher previous = blocklistRegistry.get(1);
+        blocklistRegistry.reload().join();
+
+        assertSame(previous, blocklistRegistry.get(1));
+        assertEquals(1, blocklistRegistry.version(1));
+    }
+
+    // test 5: a refresh publishes a saved list and drops a deleted one
+    @Test
+    void testRefresh() throws Exception {
+        when(blocklistRepository.read(7)).thenReturn(blocklist(7, 1, List.of("racist")), (Blocklist) null);
+
+        blocklistRegistry.refresh(7).join();
+        assertEquals("racist", blocklistRegistry.get(7).firstMatch("racist"));
+
+        blocklistRegistry.refresh(7).join();
+        assertNull(blocklistRegistry.get(7));
+    }
+
+    // test 6: a check in progress keeps the matcher it started with
+    @Test
+    void testSwapKeepsMatcherInUse() throws Exception {
+        when(blocklistRepository.read(7)).thenReturn(blocklist(7, 1, List.of("old")), blocklist(7, 2, List.of("new")));
+
+        blocklistRegistry.refresh(7).join();
+        WordMatcher inUse = blocklistRegistry.require(7);
+        blocklistRegistry.refresh(7).join();
+
+        assertEquals("old", inUse.firstMatch("old and new"));
+        assertEquals("new", blocklistRegistry.require(7).firstMatch("old and new"));
+    }
+
+    // test 7: readers never see a missing list while it is being swapped
+    @Test
+    void testReadsDuringSwaps() throws Exception {
+        AtomicInteger version = new AtomicInteger();
+        when(blocklistRepository.read(7)).thenAnswer(
+                invocation -> blocklist(7, version.incrementAndGet(), List.of("word" + version.get())));
+        blocklistRegistry.refresh(7).join();
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicInteger missing = new AtomicInteger();
+        Thread reader = new Thread(() -> {
+            while (running.get()) {
+                if (blocklistRegistry.get(7) == null) {
+                    missing.incrementAndGet();
+                }
+            }
+        });
+        reader.start();
+
+        for (int i = 0; i < 200; i++) {
+            blocklistRegistry.refresh(7).join();
+        }
+        running.set(false);
+        reader.join();
+
+        assertEquals(0, missing.get());
+        assertEquals(201, blocklistRegistry.version(7));
+    }
+
+    // test 8: lists are referenced by a number or a string
+    @Test
+    void testRequire() throws Exception {
+        when(blocklistRepository.read(7)).thenReturn(blocklist(7, 1, List.of("racist")));
+        blocklistRegistry.refresh(7).join();
+        WordMatcher matcher = blocklistRegistry.get(7);
+
+        assertSame(matcher, blocklistRegistry.require(7));
+        assertSame(matcher, blocklistRegistry.require("7"));
+        assertSame(matcher, blocklistRegistry.require(7L));
+    }
+
+    // test 9: unknown lists and ids that are not numbers
+    @Test
+    void testRequireInvalid() {
+        Exception unknown = assertThrows(IllegalArgumentException.class, () -> blocklistRegistry.require(8));
+        assertEquals("The blocklist '8' does not exist", unknown.getMessage());
+
+        Exception invalid = assertThrows(IllegalArgumentException.class, () -> blocklistRegistry.require("abc"));
+        assertEquals("Blocklist id not valid: abc", invalid.getMessage());
+    }
+
+    // test 10: words are normalized as they are compiled, empty lists are not
+    // valid
+    @Test
+    void testNormalize() {
+        assertEquals(List.of("racist"), blocklistRegistry.normalize(List.of(" Racist ")));
+        assertThrows(IllegalArgumentException.class, () -> blocklistRegistry.normalize(null));
+        assertThrows(IllegalArgumentException.class, () -> blocklistRegistry.normalize(List.of()));
+        assertThrows(IllegalArgumentException.class, () -> blocklistRegistry.normalize(List.of("not valid")));
+    }
+
+    // test 11: a poll does not wait for the reload, and does not queue another
+    // one while it is running
+    @Test
+    void testPollDoesNotBlock() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(blocklistRepository.readVersions()).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return Map.of(1, 1L);
+        });
+        when(blocklistRepository.read(1)).thenReturn(blocklist(1, 1, List.of("racist")));
+
+        long start = System.nanoTime();
+        blocklistRegistry.poll();
+        blocklistRegistry.poll();
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+        assertEquals(0, blocklistRegistry.size());
+
+        release.countDown();
+        blocklistRegistry.reload().join();
+
+        assertEquals(1, blocklistRegistry.size());
+        // The polled reload and the one joined above
+        verify(blocklistRepository, times(2)).readVersions();
+    }
+
+    private Blocklist blocklist(int id, long version, List<String> words) {
+        Blocklist blocklist = new Blocklist("list " + id, words);
+        blocklist.setId(id);
+        blocklist.setVersion(version);
+        return blocklist;
+    }
+}
@@ -0,0 +1,70 @@
+package IndexingSystem.services;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class BoundedExecutorTest {
+
+    // test 1: no more tasks than the concurrency limit run at the same time
+    @ParameterizedTest
+    @ValueSource(booleans = { true, false })
+    void testConcurrencyLimit(boolean virtualThreads) throws Exception {
+        BoundedExecutor executor = new BoundedExecutor(virtualThreads, 3, -1);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int i = 0; i < 30; i++) {
+                int value = i;
+                results.add(executor.submit(() -> {
+                    maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    Thread.sleep(5);
+                    running.decrementAndGet();
+                    return value;
+                }));
+            }
+
+            for (int i = 0; i < results.size(); i++) {
+                assertEquals(i, results.get(i).get(5, TimeUnit.SECONDS));
+            }
+            assertTrue(maxRunning.get() <= 3);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    // test 2: tasks beyond the queue capacity are rejected
+    @ParameterizedTest
+    @ValueSource(booleans = { true, false })
+    void testQueueCapacity(boolean virtualThreads) throws Exception {
+        BoundedExecutor executor = new BoundedExecutor(virtualThreads, 1, 1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        try {
+            Future<Boolean> first = executor.submit(() -> release.await(5, TimeUnit.SECONDS));
+            Future<Boolean> second = executor.submit(() -> true);
+
+            assertThrows(RejectedExecutionException.class, () -> executor.submit(() -> true));
+
+            release.countDown();
+            assertTrue(first.get(5, TimeUnit.SECONDS));
+            assertTrue(second.get(5, TimeUnit.SECONDS));
+
+            // Room again once the tasks are done
+            assertTrue(executor.submit(() -> true).get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package IndexingSystem.services;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+class CaseFoldTest {
+
+    // test 1: upper and title case letters fold to lower case
+    @Test
+    void testFoldLetters() {
+        assertEquals('a', CaseFold.fold('A'));
+        assertEquals('ñ', CaseFold.fold('Ñ'));
+        assertEquals('ǆ', CaseFold.fold('ǅ'));
+        assertEquals('σ', CaseFold.fold('Σ'));
+        assertEquals('7', CaseFold.fold('7'));
+    }
+
+    // test 2: variants fold to their common form
+    @Test
+    void testFoldVariants() {
+        assertEquals('σ', CaseFold.fold('ς'));
+        assertEquals('s', CaseFold.fold('ſ'));
+        assertEquals('k', CaseFold.fold('K'));
+    }
+
+    // test 3: Turkish i forms
+    @Test
+    void testFoldTurkishI() {
+        assertEquals('i', CaseFold.fold('İ'));
+        assertEquals('ı', CaseFold.fold('ı'));
+        assertEquals('i', CaseFold.fold('I'));
+    }
+
+    // test 4: a string without chars to fold is returned as it is
+    @Test
+    void testFoldString() {
+        String folded = "ya en minúsculas";
+
+        assertSame(folded, CaseFold.fold(folded));
+        assertEquals("mayúsculas", CaseFold.fold("MAYÚSCULAS"));
+        assertEquals("𐐀", CaseFold.fold("𐐀"));
+    }
+}
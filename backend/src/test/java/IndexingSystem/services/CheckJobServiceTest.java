@@ -0,0 +1,134 @@
+package IndexingSystem.services;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import IndexingSystem.models.CheckJob;
+import IndexingSystem.models.News;
+import IndexingSystem.repository.H2Repository;
+
+@ExtendWith(MockitoExtension.class)
+class CheckJobServiceTest {
+
+    @Mock
+    private NewsCheck newsCheck;
+
+    @Mock
+    private H2Repository h2Repository;
+
+    @Mock
+    private RejectionCache rejectionCache;
+
+    @Spy
+    private WordListCache wordListCache = new WordListCache();
+
+    @Spy
+    private CheckJobStore checkJobStore = new CheckJobStore();
+
+    @Spy
+    private HostFetchScheduler hostFetchScheduler = new HostFetchScheduler();
+
+    @Spy
+    private CheckMetrics checkMetrics = new CheckMetrics();
+
+    @InjectMocks
+    private CheckJobService checkJobService;
+
+    @BeforeEach
+    void setUp() {
+        hostFetchScheduler.setMinDelay(Duration.ZERO);
+    }
+
+    @AfterEach
+    void tearDown() {
+        checkJobService.shutdown();
+        hostFetchScheduler.shutdown();
+    }
+
+    // test 1: the job is queued and its verdict is available once done
+    @Test
+    void testSubmit() throws Exception {
+        when(newsCheck.fetchPage(eq("http://example.com"), any())).thenReturn(new NewsCheck.ScanResult(null, null));
+        when(h2Repository.create(any(News.class), anyBoolean())).thenReturn(1);
+
+        CheckJob job = checkJobService.submit("http://example.com", List.of("word"));
+
+        CheckJob done = waitUntilDone(job.getId());
+        assertEquals(201, done.getVerdict().getStatus());
+        assertEquals("Accepted.", done.getVerdict().getState());
+    }
+
+    // test 2: a fetch error ends the job with an error verdict
+    @Test
+    void testSubmitFetchError() throws Exception {
+        when(newsCheck.fetchPage(any(), any())).thenThrow(new RuntimeException("Error connecting to URL: timeout"));
+
+        CheckJob job = checkJobService.submit("http://example.com", List.of("word"));
+
+        CheckJob done = waitUntilDone(job.getId());
+        assertEquals(500, done.getVerdict().getStatus());
+        assertTrue(done.getVerdict().getError().startsWith("Error checking word in URL"));
+        verifyNoInteractions(h2Repository);
+    }
+
+    // test 3: invalid requests fail before a job is created
+    @Test
+    void testSubmitInvalid() {
+        assertThrows(IllegalArgumentException.class, () -> checkJobService.submit(" ", List.of("word")));
+        assertThrows(IllegalArgumentException.class,
+                () -> checkJobService.submit("http://example.com", List.of("bad word")));
+        assertEquals(0, checkJobStore.size());
+    }
+
+    // test 4: a full queue rejects the job and removes it from the store
+    @Test
+    void testSubmitQueueFull() throws Exception {
+        checkJobService.setWorkers(1);
+        checkJobService.setQueueCapacity(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(newsCheck.fetchPage(any(), any())).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return new NewsCheck.ScanResult(null, null);
+        });
+        when(h2Repository.create(any(News.class), anyBoolean())).thenReturn(1);
+
+        CheckJob first = checkJobService.submit("http://a.com", List.of("word"));
+        CheckJob second = checkJobService.submit("http://b.com", List.of("word"));
+        assertThrows(RejectedExecutionException.class, () -> checkJobService.submit("http://c.com", List.of("word")));
+        assertEquals(2, checkJobStore.size());
+
+        release.countDown();
+        waitUntilDone(first.getId());
+        waitUntilDone(second.getId());
+    }
+
+    private CheckJob waitUntilDone(String id) throws InterruptedException {
+        for (int i = 0; i < 500; i++) {
+            CheckJob job = checkJobService.get(id);
+            if (job.getStatus() == CheckJob.Status.DONE) {
+                return job;
+            }
+            Thread.sleep(10);
+        }
+        fail("The job did not finish");
+        return null;
+    }
+}
@@ -0,0 +1,80 @@
+package IndexingSystem.services;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import IndexingSystem.models.CheckJob;
+import IndexingSystem.models.CheckVerdict;
+
+class CheckJobStoreTest {
+
+    private CheckJobStore checkJobStore;
+
+    private Instant now = Instant.parse("2025-01-01T00:00:00Z");
+
+    @BeforeEach
+    void setUp() {
+        checkJobStore = new CheckJobStore();
+        checkJobStore.setMaxSize(2);
+        checkJobStore.setTtl(Duration.ofMinutes(10));
+        setTime(now);
+    }
+
+    // test 1: a created job can be read back
+    @Test
+    void testCreateAndGet() {
+        CheckJob job = checkJobStore.create("http://example.com");
+
+        assertSame(job, checkJobStore.get(job.getId()));
+        assertNull(checkJobStore.get("unknown"));
+    }
+
+    // test 2: finished jobs expire after the TTL, pending jobs do not
+    @Test
+    void testTtl() {
+        CheckJob done = checkJobStore.create("http://a.com");
+        CheckJob pending = checkJobStore.create("http://b.com");
+        checkJobStore.finish(done, CheckVerdict.fromOutcome("http://a.com", 1, null));
+
+        setTime(now.plus(Duration.ofMinutes(11)));
+
+        assertNull(checkJobStore.get(done.getId()));
+        assertSame(pending, checkJobStore.get(pending.getId()));
+        assertEquals(1, checkJobStore.size());
+    }
+
+    // test 3: when full, the oldest finished job is evicted
+    @Test
+    void testEvictOldestFinished() {
+        CheckJob first = checkJobStore.create("http://a.com");
+        CheckJob second = checkJobStore.create("http://b.com");
+        checkJobStore.finish(second, CheckVerdict.fromOutcome("http://b.com", 1, null));
+
+        CheckJob third = checkJobStore.create("http://c.com");
+
+        assertSame(first, checkJobStore.get(first.getId()));
+        assertNull(checkJobStore.get(second.getId()));
+        assertSame(third, checkJobStore.get(third.getId()));
+    }
+
+    // test 4: a store full of pending jobs rejects new jobs
+    @Test
+    void testFullOfPendingJobs() {
+        checkJobStore.create("http://a.com");
+        checkJobStore.create("http://b.com");
+
+        assertThrows(IllegalStateException.class, () -> checkJobStore.create("http://c.com"));
+    }
+
+    private void setTime(Instant instant) {
+        ReflectionTestUtils.setField(checkJobStore, "clock", Clock.fixed(instant, ZoneOffset.UTC));
+    }
+}
@@ -0,0 +1,62 @@
+package IndexingSystem.services;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class CheckMetricsTest {
+
+    // test 1: checks are tagged with the outcome of their verdict
+    @Test
+    void testCheckedOutcome() {
+        CheckMetrics metrics = new CheckMetrics();
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        metrics.bindTo(registry);
+
+        Timer.Sample sample = metrics.start();
+        metrics.checked("http://a.com", sample, 201);
+        metrics.checked("http://a.com", sample, 200);
+        metrics.checked("http://a.com", sample, 409);
+        metrics.checked("http://a.com", sample, 500);
+        metrics.checked("http://a.com", sample, 201);
+
+        assertEquals(2, registry.get("indexing.check").tags("host", "a.com", "outcome", "accepted").timer().count());
+        assertEquals(1, registry.get("indexing.check").tag("outcome", "rejected").timer().count());
+        assertEquals(1, registry.get("indexing.check").tag("outcome", "conflict").timer().count());
+        assertEquals(1, registry.get("indexing.check").tag("outcome", "error").timer().count());
+    }
+
+    // test 2: hosts beyond the limit share the "other" tag
+    @Test
+    void testHostLimit() {
+        CheckMetrics metrics = new CheckMetrics();
+        metrics.setMaxHosts(2);
+
+        assertEquals("a.com", metrics.hostTag("http://a.com/1"));
+        assertEquals("b.com", metrics.hostTag("https://B.com"));
+        assertEquals(CheckMetrics.OTHER_HOST, metrics.hostTag("http://c.com"));
+        assertEquals("a.com", metrics.hostTag("http://a.com/2"));
+        assertEquals(CheckMetrics.OTHER_HOST, metrics.hostTag("not a url"));
+    }
+
+    // test 3: nothing is recorded until a registry is bound, and every bound
+    // registry records
+    @Test
+    void testBinding() {
+        CheckMetrics metrics = new CheckMetrics();
+        metrics.stored("create", metrics.start(), true);
+
+        SimpleMeterRegistry first = new SimpleMeterRegistry();
+        SimpleMeterRegistry second = new SimpleMeterRegistry();
+        metrics.bindTo(first);
+        metrics.bindTo(second);
+        metrics.stored("create", metrics.start(), false);
+
+        assertEquals(1, first.get("indexing.check.db").tags("operation", "create", "outcome", "error").timer().count());
+        assertEquals(1, second.get("indexing.check.db").timer().count());
+        assertEquals(0, first.get("indexing.check.db").tag("outcome", "success").timer().count());
+    }
+}
@@ -0,0 +1,133 @@
+package IndexingSystem.services;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class HostFetchSchedulerTest {
+
+    private HostFetchScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        scheduler = new HostFetchScheduler();
+        scheduler.setMinDelay(Duration.ZERO);
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdown();
+    }
+
+    // test 1: no more fetches than the per-host limit run at the same time
+    @Test
+    void testMaxPerHost() throws Exception {
+        scheduler.setMaxPerHost(2);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+
+        List<CompletableFuture<Integer>> results = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            int value = i;
+            results.add(scheduler.submit("http://example.com/" + i, () -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                Thread.sleep(5);
+                running.decrementAndGet();
+                return value;
+            }));
+        }
+
+        for (int i = 0; i < results.size(); i++) {
+            assertEquals(i, results.get(i).get(5, TimeUnit.SECONDS));
+        }
+        assertTrue(maxRunning.get() <= 2);
+    }
+
+    // test 2: two fetches to the same host are apart by the minimum delay
+    @Test
+    void testMinDelay() throws Exception {
+        scheduler.setMaxPerHost(1);
+        scheduler.setMinDelay(Duration.ofMillis(100));
+
+        CompletableFuture<Long> first = scheduler.submit("http://example.com/a", System::nanoTime);
+        CompletableFuture<Long> second = scheduler.submit("http://example.com/b", System::nanoTime);
+
+        long gap = second.get(5, TimeUnit.SECONDS) - first.get(5, TimeUnit.SECONDS);
+        assertTrue(gap >= TimeUnit.MILLISECONDS.toNanos(100), "Gap was " + gap + "ns");
+    }
+
+    // test 3: a host with a long queue does not delay the other hosts
+    @Test
+    void testRoundRobinBetweenHosts() throws Exception {
+        scheduler.setParallelism(1);
+        scheduler.setMaxPerHost(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+
+        // Holds the only slot until every fetch is queued
+        CompletableFuture<Boolean> blocker = scheduler.submit("http://blocker.com",
+                () -> release.await(5, TimeUnit.SECONDS));
+
+        List<CompletableFuture<Boolean>> results = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            results.add(scheduler.submit("http://big.com/" + i, () -> order.add("big")));
+        }
+        results.add(scheduler.submit("http://small.com", () -> order.add("small")));
+
+        release.countDown();
+        assertTrue(blocker.get(5, TimeUnit.SECONDS));
+        for (CompletableFuture<Boolean> result : results) {
+            result.get(5, TimeUnit.SECONDS);
+        }
+
+        assertEquals(List.of("big", "small", "big", "big"), order);
+    }
+
+    // test 4: the exception of a fetch completes its future
+    @Test
+    void testFetchError() {
+        CompletableFuture<String> result = scheduler.submit("http://example.com", () -> {
+            throw new RuntimeException("Error connecting to URL");
+        });
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+        assertEquals("Error connecting to URL", e.getCause().getMessage());
+    }
+
+    // test 5: hosts are compared in lowercase and invalid URLs share one queue
+    @Test
+    void testHostOf() {
+        assertEquals("example.com", HostFetchScheduler.hostOf("https://Example.COM/news?id=1"));
+        assertEquals("example.com", HostFetchScheduler.hostOf(" http://example.com:8080 "));
+        assertEquals("", HostFetchScheduler.hostOf("not a url"));
+        assertEquals("", HostFetchScheduler.hostOf("example.com"));
+    }
+
+    // test 6: idle hosts are forgotten and a stopped scheduler rejects fetches
+    @Test
+    void testIdleHostsAndShutdown() throws Exception {
+        scheduler.submit("http://example.com", () -> true).get(5, TimeUnit.SECONDS);
+        scheduler.submit("http://example.org", () -> true).get(5, TimeUnit.SECONDS);
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (scheduler.hostCount() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(0, scheduler.hostCount());
+
+        scheduler.shutdown();
+        assertThrows(IllegalStateException.class, () -> scheduler.submit("http://example.com", () -> true));
+    }
+}
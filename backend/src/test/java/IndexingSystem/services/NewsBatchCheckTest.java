@@ -0,0 +1,151 @@
+package IndexingSystem.services;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import IndexingSystem.models.CheckVerdict;
+import IndexingSystem.models.News;
+import IndexingSystem.repository.H2Repository;
+
+@ExtendWith(MockitoExtension.class)
+class NewsBatchCheckTest {
+
+    @Mock
+    private NewsCheck newsCheck;
+
+    @Mock
+    private H2Repository h2Repository;
+
+    @Mock
+    private RejectionCache rejectionCache;
+
+    @Spy
+    private WordListCache wordListCache = new WordListCache();
+
+    @Spy
+    private HostFetchScheduler hostFetchScheduler = new HostFetchScheduler();
+
+    @Spy
+    private CheckMetrics checkMetrics = new CheckMetrics();
+
+    @InjectMocks
+    private NewsBatchCheck newsBatchCheck;
+
+    @BeforeEach
+    void setUp() {
+        hostFetchScheduler.setMinDelay(Duration.ZERO);
+    }
+
+    @AfterEach
+    void tearDown() {
+        hostFetchScheduler.shutdown();
+    }
+
+    // test 1: every URL gets a verdict, in order, and results are written once
+    @Test
+    void testCheck() throws Exception {
+        when(newsCheck.fetchPage(eq("http://a.com"), any())).thenReturn(new NewsCheck.ScanResult(null, null));
+        when(newsCheck.fetchPage(eq("http://b.com"), any())).thenReturn(new NewsCheck.ScanResult("bad", null));
+        when(newsCheck.fetchPage(eq("http://c.com"), any())).thenReturn(new NewsCheck.ScanResult(null, null));
+        when(h2Repository.createAll(anyList(), anyList())).thenReturn(new int[] { 1, -1, 0 });
+
+        List<CheckVerdict> verdicts = newsBatchCheck.check(List.of("http://a.com", "http://b.com", "http://c.com"),
+                List.of("bad"));
+
+        assertEquals(3, verdicts.size());
+        assertEquals("Accepted.", verdicts.get(0).getState());
+        assertEquals("Rejected because 'bad' found", verdicts.get(1).getState());
+        assertEquals(409, verdicts.get(2).getStatus());
+
+        ArgumentCaptor<List<Boolean>> found = ArgumentCaptor.forClass(List.class);
+        verify(h2Repository, times(1)).createAll(anyList(), found.capture());
+        assertEquals(List.of(false, true, false), found.getValue());
+        assertEquals(1, wordListCache.getMisses());
+    }
+
+    // test 2: a URL that cannot be fetched does not fail the batch
+    @Test
+    void testCheckFetchError() throws Exception {
+        when(newsCheck.fetchPage(eq("http://a.com"), any())).thenThrow(new RuntimeException("Error connecting to URL"));
+        when(newsCheck.fetchPage(eq("http://b.com"), any())).thenReturn(new NewsCheck.ScanResult(null, null));
+        when(h2Repository.createAll(anyList(), anyList())).thenReturn(new int[] { 1 });
+
+        List<CheckVerdict> verdicts = newsBatchCheck.check(List.of("http://a.com", "http://b.com"), List.of("bad"));
+
+        assertEquals(500, verdicts.get(0).getStatus());
+        assertTrue(verdicts.get(0).getError().startsWith("Error checking word in URL"));
+        assertEquals(201, verdicts.get(1).getStatus());
+
+        ArgumentCaptor<List<News>> news = ArgumentCaptor.forClass(List.class);
+        verify(h2Repository).createAll(news.capture(), anyList());
+        assertEquals("http://b.com", news.getValue().get(0).getUrl());
+    }
+
+    // test 3: a database error is reported on every scanned URL
+    @Test
+    void testCheckDatabaseError() throws Exception {
+        when(newsCheck.fetchPage(any(), any())).thenReturn(new NewsCheck.ScanResult(null, null));
+        when(h2Repository.createAll(anyList(), anyList())).thenThrow(new RuntimeException("DB error"));
+
+        List<CheckVerdict> verdicts = newsBatchCheck.check(List.of("http://a.com", "http://b.com"), List.of("bad"));
+
+        assertTrue(verdicts.stream().allMatch(v -> v.getError().startsWith("Error creating news")));
+    }
+
+    // test 4: invalid lists are rejected before fetching anything
+    @Test
+    void testCheckInvalidLists() {
+        newsBatchCheck.setMaxUrls(1);
+
+        assertThrows(IllegalArgumentException.class, () -> newsBatchCheck.check(List.of(), List.of("bad")));
+        assertThrows(IllegalArgumentException.class,
+                () -> newsBatchCheck.check(List.of("http://a.com", "http://b.com"), List.of("bad")));
+        assertThrows(IllegalArgumentException.class,
+                () -> newsBatchCheck.check(List.of("http://a.com"), List.of("bad word")));
+        verifyNoInteractions(newsCheck);
+    }
+
+    // test 5: URLs rejected by the same list are answered without waiting for
+    // their host
+    @Test
+    void testCachedRejectionsNotDelayed() throws Exception {
+        hostFetchScheduler.setMinDelay(Duration.ofSeconds(10));
+        List<String> urls = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            urls.add("http://example.com/" + i);
+        }
+        when(rejectionCache.get(anyString(), any())).thenReturn("bad");
+        int[] outcomes = new int[urls.size()];
+        Arrays.fill(outcomes, -1);
+        when(h2Repository.createAll(anyList(), anyList())).thenReturn(outcomes);
+
+        long start = System.nanoTime();
+        List<CheckVerdict> verdicts = newsBatchCheck.check(urls, List.of("bad"));
+
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).compareTo(Duration.ofSeconds(5)) < 0);
+        assertTrue(verdicts.stream().allMatch(v -> "Rejected because 'bad' found".equals(v.getState())));
+        ArgumentCaptor<List<Boolean>> found = ArgumentCaptor.forClass(List.class);
+        verify(h2Repository).createAll(anyList(), found.capture());
+        assertTrue(found.getValue().stream().allMatch(Boolean::booleanValue));
+        verify(newsCheck, never()).fetchPage(any(), any());
+    }
+}
@@ -4,25 +4,51 @@ import org.jsoup.Connection;
 import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
-import org.junit.jupiter.api.BeforeEach;
+import org.jsoup.parser.Parser;
+import org.jsoup.parser.StreamParser;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockedStatic;
 import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import IndexingSystem.repository.SnapshotStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 
 import java.io.IOException;
+import java.io.Reader;
 import java.util.ArrayList;
 import java.util.Arrays;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 public class NewsCheckTest {
 
+    @Spy
+    private WordListCache wordListCache = new WordListCache();
+
+    @Spy
+    private CheckMetrics checkMetrics = new CheckMetrics();
+
+    @Spy
+    private SnapshotStore snapshotStore = new SnapshotStore();
+
+    @Spy
+    private VerdictCache verdictCache = new VerdictCache();
+
+    @Mock
+    private RejectionCache rejectionCache;
+
+    @InjectMocks
     private NewsCheck newsCheck;
 
     @Mock
@@ -31,11 +57,6 @@ public class NewsCheckTest {
     @Mock
     private Element mockBody;
 
-    @BeforeEach
-    public void setUp() {
-        newsCheck = new NewsCheck();
-    }
-
     @Test
     public void testNullUrl() {
         ArrayList<String> words = new ArrayList<>(Arrays.asList("test"));
@@ -103,8 +124,11 @@ public class NewsCheckTest {
 
         try (MockedStatic<Jsoup> jsoupMockedStatic = Mockito.mockStatic(Jsoup.class)) {
             Connection mockConnection = mock(Connection.class);
+            Connection.Response mockResponse = mock(Connection.Response.class);
             jsoupMockedStatic.when(() -> Jsoup.connect(anyString())).thenReturn(mockConnection);
-            when(mockConnection.get()).thenReturn(mockDocument);
+            when(mockConnection.execute()).thenReturn(mockResponse);
+            when(mockResponse.bodyAsBytes()).thenReturn(pageContent.getBytes());
+            when(mockResponse.parse()).thenReturn(mockDocument);
             when(mockDocument.body()).thenReturn(mockBody);
             when(mockBody.text()).thenReturn(pageContent);
 
@@ -124,8 +148,11 @@ public class NewsCheckTest {
 
         try (MockedStatic<Jsoup> jsoupMockedStatic = Mockito.mockStatic(Jsoup.class)) {
             Connection mockConnection = mock(Connection.class);
+            Connection.Response mockResponse = mock(Connection.Response.class);
             jsoupMockedStatic.when(() -> Jsoup.connect(anyString())).thenReturn(mockConnection);
-            when(mockConnection.get()).thenReturn(mockDocument);
+            when(mockConnection.execute()).thenReturn(mockResponse);
+            when(mockResponse.bodyAsBytes()).thenReturn(pageContent.getBytes());
+            when(mockResponse.parse()).thenReturn(mockDocument);
             when(mockDocument.body()).thenReturn(mockBody);
             when(mockBody.text()).thenReturn(pageContent);
 
@@ -145,8 +172,11 @@ public class NewsCheckTest {
 
         try (MockedStatic<Jsoup> jsoupMockedStatic = Mockito.mockStatic(Jsoup.class)) {
             Connection mockConnection = mock(Connection.class);
+            Connection.Response mockResponse = mock(Connection.Response.class);
             jsoupMockedStatic.when(() -> Jsoup.connect(anyString())).thenReturn(mockConnection);
-            when(mockConnection.get()).thenReturn(mockDocument);
+            when(mockConnection.execute()).thenReturn(mockResponse);
+            when(mockResponse.bodyAsBytes()).thenReturn(pageContent.getBytes());
+            when(mockResponse.parse()).thenReturn(mockDocument);
             when(mockDocument.body()).thenReturn(mockBody);
             when(mockBody.text()).thenReturn(pageContent);
 
@@ -166,8 +196,11 @@ public class NewsCheckTest {
 
         try (MockedStatic<Jsoup> jsoupMockedStatic = Mockito.mockStatic(Jsoup.class)) {
             Connection mockConnection = mock(Connection.class);
+            Connection.Response mockResponse = mock(Connection.Response.class);
             jsoupMockedStatic.when(() -> Jsoup.connect(anyString())).thenReturn(mockConnection);
-            when(mockConnection.get()).thenReturn(mockDocument);
+            when(mockConnection.execute()).thenReturn(mockResponse);
+            when(mockResponse.bodyAsBytes()).thenReturn(pageContent.getBytes());
+            when(mockResponse.parse()).thenReturn(mockDocument);
             when(mockDocument.body()).thenReturn(mockBody);
             when(mockBody.text()).thenReturn(pageContent);
 
@@ -187,7 +220,7 @@ public class NewsCheckTest {
         try (MockedStatic<Jsoup> jsoupMockedStatic = Mockito.mockStatic(Jsoup.class)) {
             Connection mockConnection = mock(Connection.class);
             jsoupMockedStatic.when(() -> Jsoup.connect(anyString())).thenReturn(mockConnection);
-            when(mockConnection.get()).thenThrow(new IOException("Connection failed"));
+            when(mockConnection.execute()).thenThrow(new IOException("Connection failed"));
 
             Exception exception = assertThrows(RuntimeException.class, () -> {
                 newsCheck.searchWordsInUrl(testUrl, words);
@@ -205,8 +238,11 @@ public class NewsCheckTest {
 
         try (MockedStatic<Jsoup> jsoupMockedStatic = Mockito.mockStatic(Jsoup.class)) {
             Connection mockConnection = mock(Connection.class);
+            Connection.Response mockResponse = mock(Connection.Response.class);
             jsoupMockedStatic.when(() -> Jsoup.connect(anyString())).thenReturn(mockConnection);
-            when(mockConnection.get()).thenReturn(mockDocument);
+            when(mockConnection.execute()).thenReturn(mockResponse);
+            when(mockResponse.bodyAsBytes()).thenReturn(pageContent.getBytes());
+            when(mockResponse.parse()).thenReturn(mockDocument);
             when(mockDocument.body()).thenReturn(mockBody);
             when(mockBody.text()).thenReturn(pageContent);
 
@@ -226,8 +262,11 @@ public class NewsCheckTest {
 
         try (MockedStatic<Jsoup> jsoupMockedStatic = Mockito.mockStatic(Jsoup.class)) {
             Connection mockConnection = mock(Connection.class);
+            Connection.Response mockResponse = mock(Connection.Response.class);
             jsoupMockedStatic.when(() -> Jsoup.connect(anyString())).thenReturn(mockConnection);
-            when(mockConnection.get()).thenReturn(mockDocument);
+            when(mockConnection.execute()).thenReturn(mockResponse);
+            when(mockResponse.bodyAsBytes()).thenReturn(pageContent.getBytes());
+            when(mockResponse.parse()).thenReturn(mockDocument);
             when(mockDocument.body()).thenReturn(mockBody);
             when(mockBody.text()).thenReturn(pageContent);
 
@@ -238,4 +277,289 @@ public class NewsCheckTest {
             assertEquals("don't", result.get(1));
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testRepeatedWordListUsesCache() throws Exception {
+        String testUrl = "http://example.com";
+        String pageContent = "This is a test page content";
+
+        try (MockedStatic<Jsoup> jsoupMockedStatic = Mockito.mockStatic(Jsoup.class)) {
+            Connection mockConnection = mock(Connection.class);
+            Connection.Response mockResponse = mock(Connection.Response.class);
+            jsoupMockedStatic.when(() -> Jsoup.connect(anyString())).thenReturn(mockConnection);
+            when(mockConnection.execute()).thenReturn(mockResponse);
+            when(mockResponse.bodyAsBytes()).thenReturn(pageContent.getBytes());
+            when(mockResponse.parse()).thenReturn(mockDocument);
+            when(mockDocument.body()).thenReturn(mockBody);
+            when(mockBody.text()).thenReturn(pageContent);
+
+            newsCheck.searchWordsInUrl(testUrl, new ArrayList<>(Arrays.asList("notfound", "page")));
+            ArrayList<Object> result = newsCheck.searchWordsInUrl(testUrl,
+                    new ArrayList<>(Arrays.asList("notfound", "page")));
+
+            assertEquals(true, result.get(0));
+            assertEquals("page", result.get(1));
+            assertEquals(1, wordListCache.getHits());
+            assertEquals(1, wordListCache.getMisses());
+        }
+    }
+
+    @Test
+    public void testStreamingWordFound() throws Exception {
+        ArrayList<Object> result = searchStreaming("<html><head><title>t</title></head><body>"
+                + "<p>This is a test</p><div>page <b>content</b></div></body></html>",
+                new ArrayList<>(Arrays.asList("content")));
+
+        assertEquals(true, result.get(0));
+        assertEquals("content", result.get(1));
+    }
+
+    @Test
+    public void testStreamingWordNotFound() throws Exception {
+        ArrayList<Object> result = searchStreaming("<html><body><p>This is a test page content</p></body></html>",
+                new ArrayList<>(Arrays.asList("notfound")));
+
+        assertEquals(false, result.get(0));
+        assertEquals("", result.get(1));
+    }
+
+    @Test
+    public void testStreamingWordSplitByInlineElement() throws Exception {
+        ArrayList<Object> result = searchStreaming("<html><body><p>A ra<b>cis</b>t page</p></body></html>",
+                new ArrayList<>(Arrays.asList("RACIST")));
+
+        assertEquals(true, result.get(0));
+        assertEquals("racist", result.get(1));
+    }
+
+    @Test
+    public void testStreamingDoesNotJoinBlocks() throws Exception {
+        ArrayList<Object> result = searchStreaming("<html><body><div>ab<p>x</p>cd</div></body></html>",
+                new ArrayList<>(Arrays.asList("abcd", "bx")));
+
+        assertEquals(false, result.get(0));
+    }
+
+    @Test
+    public void testStreamingIgnoresHead() throws Exception {
+        ArrayList<Object> result = searchStreaming(
+                "<html><head><title>secret</title></head><body><p>public</p></body></html>",
+                new ArrayList<>(Arrays.asList("secret")));
+
+        assertEquals(false, result.get(0));
+    }
+
+    @Test
+    public void testStreamingStopsReadingAfterMatch() throws Exception {
+        ReflectionTestUtils.setField(newsCheck, "streaming", true);
+        long pageSize = 64L * 1024 * 1024;
+        long[] consumed = { 0 };
+
+        // 64 MB page with the word in its first paragraph
+        Reader page = new Reader() {
+            private final String start = "<html><body><p>a blocked word</p>";
+            private final String filler = "<p>some filler text</p>";
+
+            @Override
+            public int read(char[] cbuf, int off, int len) {
+                if (consumed[0] >= pageSize) {
+                    return -1;
+                }
+                for (int i = 0; i < len; i++) {
+                    long pos = consumed[0] + i;
+                    cbuf[off + i] = pos < start.length() ? start.charAt((int) pos)
+                            : filler.charAt((int) ((pos - start.length()) % filler.length()));
+                }
+                consumed[0] += len;
+                return len;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        StreamParser streamParser = new StreamParser(Parser.htmlParser()).parse(page, "http://example.com");
+
+        try (MockedStatic<Jsoup> jsoupMockedStatic = Mockito.mockStatic(Jsoup.class)) {
+            Connection mockConnection = mock(Connection.class);
+            Connection.Response mockResponse = mock(Connection.Response.class);
+            jsoupMockedStatic.when(() -> Jsoup.connect(anyString())).thenReturn(mockConnection);
+            when(mockConnection.execute()).thenReturn(mockResponse);
+            when(mockResponse.streamParser()).thenReturn(streamParser);
+
+            ArrayList<Object> result = newsCheck.searchWordsInUrl("http://example.com",
+                    new ArrayList<>(Arrays.asList("blocked")));
+
+            assertEquals(true, result.get(0));
+            assertEquals("blocked", result.get(1));
+            assertTrue(consumed[0] < 1024 * 1024);
+        }
+    }
+
+    @Test
+    public void testPhaseMetrics() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        checkMetrics.bindTo(registry);
+        String pageContent = "This is a test page content";
+
+        try (MockedStatic<Jsoup> jsoupMockedStatic = Mockito.mockStatic(Jsoup.class)) {
+            Connection mockConnection = mock(Connection.class);
+            Connection.Response mockResponse = mock(Connection.Response.class);
+            jsoupMockedStatic.when(() -> Jsoup.connect(anyString())).thenReturn(mockConnection);
+            when(mockConnection.execute()).thenReturn(mockResponse);
+            when(mockResponse.bodyAsBytes()).thenReturn(pageContent.getBytes());
+            when(mockResponse.parse()).thenReturn(mockDocument);
+            when(mockDocument.body()).thenReturn(mockBody);
+            when(mockBody.text()).thenReturn(pageContent);
+
+            newsCheck.searchWordsInUrl("http://example.com/news", new ArrayList<>(Arrays.asList("page")));
+        }
+
+        assertEquals(1, registry.get("indexing.check.fetch").tags("host", "example.com", "outcome", "success").timer()
+                .count());
+        assertEquals(1, registry.get("indexing.check.parse").timer().count());
+        assertEquals(1, registry.get("indexing.check.match").tag("outcome", "found").timer().count());
+        assertEquals(pageContent.length(), registry.get("indexing.check.fetched.bytes").counter().count());
+        assertEquals(pageContent.length(), registry.get("indexing.check.scanned.chars").counter().count());
+    }
+
+    @Test
+    public void testSnapshotTextKeptForCleanPage() throws Exception {
+        snapshotStore.setEnabled(true);
+        String pageContent = "This is a test page content";
+
+        try (MockedStatic<Jsoup> jsoupMockedStatic = Mockito.mockStatic(Jsoup.class)) {
+            Connection mockConnection = mock(Connection.class);
+            Connection.Response mockResponse = mock(Connection.Response.class);
+            jsoupMockedStatic.when(() -> Jsoup.connect(anyString())).thenReturn(mockConnection);
+            when(mockConnection.execute()).thenReturn(mockResponse);
+            when(mockResponse.bodyAsBytes()).thenReturn(pageContent.getBytes());
+            when(mockResponse.parse()).thenReturn(mockDocument);
+            when(mockDocument.body()).thenReturn(mockBody);
+            when(mockBody.text()).thenReturn(pageContent);
+
+            NewsCheck.ScanResult clean = newsCheck.scanPage("http://example.com", WordMatcher.compile(Arrays.asList("other")));
+            NewsCheck.ScanResult found = newsCheck.scanPage("http://example.com", WordMatcher.compile(Arrays.asList("test")));
+
+            assertNull(clean.getWord());
+            assertEquals(pageContent, clean.getText());
+            assertEquals("test", found.getWord());
+            assertNull(found.getText());
+        }
+    }
+
+    @Test
+    public void testStreamingSnapshotText() throws Exception {
+        snapshotStore.setEnabled(true);
+        ArrayList<Object> result = searchStreaming(
+                "<html><head><title>t</title></head><body><p>First <b>block</b></p><div>second</div></body></html>",
+                new ArrayList<>(Arrays.asList("notfound")));
+
+        assertEquals(3, result.size());
+        assertEquals(false, result.get(0));
+        assertEquals("First block second", result.get(2));
+    }
+
+    private ArrayList<Object> searchStreaming(String html, ArrayList<String> words) throws Exception {
+        ReflectionTestUtils.setField(newsCheck, "streaming", true);
+        StreamParser streamParser = new StreamParser(Parser.htmlParser()).parse(html, "http://example.com");
+
+        try (MockedStatic<Jsoup> jsoupMockedStatic = Mockito.mockStatic(Jsoup.class)) {
+            Connection mockConnection = mock(Connection.class);
+            Connection.Response mockResponse = mock(Connection.Response.class);
+            jsoupMockedStatic.when(() -> Jsoup.connect(anyString())).thenReturn(mockConnection);
+            when(mockConnection.execute()).thenReturn(mockResponse);
+            when(mockResponse.streamParser()).thenReturn(streamParser);
+
+            return newsCheck.searchWordsInUrl("http://example.com", words);
+        }
+    }
+
+    @Test
+    public void testSameTextAtAnotherUrlUsesVerdictCache() throws Exception {
+        String pageContent = "This is a test page content";
+
+        try (MockedStatic<Jsoup> jsoupMockedStatic = Mockito.mockStatic(Jsoup.class)) {
+            Connection mockConnection = mock(Connection.class);
+            Connection.Response mockResponse = mock(Connection.Response.class);
+            jsoupMockedStatic.when(() -> Jsoup.connect(anyString())).thenReturn(mockConnection);
+            when(mockConnection.execute()).thenReturn(mockResponse);
+            when(mockResponse.bodyAsBytes()).thenReturn(pageContent.getBytes());
+            when(mockResponse.parse()).thenReturn(mockDocument);
+            when(mockDocument.body()).thenReturn(mockBody);
+            when(mockBody.text()).thenReturn(pageContent);
+
+            WordMatcher matcher = spy(WordMatcher.compile(Arrays.asList("page")));
+            assertEquals("page", newsCheck.scan("http://example.com/a", matcher));
+            assertEquals("page", newsCheck.scan("http://example.org/b", matcher));
+
+            verify(matcher, times(1)).firstMatch(pageContent);
+            assertEquals(1, verdictCache.getHits());
+            assertEquals(1, verdictCache.getMisses());
+            jsoupMockedStatic.verify(() -> Jsoup.connect(anyString()), times(2));
+        }
+    }
+
+    @Test
+    public void testVerdictCacheDisabled() throws Exception {
+        verdictCache.setEnabled(false);
+        String pageContent = "This is a test page content";
+
+        try (MockedStatic<Jsoup> jsoupMockedStatic = Mockito.mockStatic(Jsoup.class)) {
+            Connection mockConnection = mock(Connection.class);
+            Connection.Response mockResponse = mock(Connection.Response.class);
+            jsoupMockedStatic.when(() -> Jsoup.connect(anyString())).thenReturn(mockConnection);
+            when(mockConnection.execute()).thenReturn(mockResponse);
+            when(mockResponse.bodyAsBytes()).thenReturn(pageContent.getBytes());
+            when(mockResponse.parse()).thenReturn(mockDocument);
+            when(mockDocument.body()).thenReturn(mockBody);
+            when(mockBody.text()).thenReturn(pageContent);
+
+            WordMatcher matcher = spy(WordMatcher.compile(Arrays.asList("other")));
+            assertNull(newsCheck.scan("http://example.com/a", matcher));
+            assertNull(newsCheck.scan("http://example.org/b", matcher));
+
+            verify(matcher, times(2)).firstMatch(pageContent);
+            assertEquals(0, verdictCache.size());
+        }
+    }
+
+    @Test
+    public void testRejectedUrlNotFetchedAgain() throws Exception {
+        WordMatcher matcher = WordMatcher.compile(Arrays.asList("page"));
+        when(rejectionCache.get("http://example.com", matcher)).thenReturn("page");
+
+        try (MockedStatic<Jsoup> jsoupMockedStatic = Mockito.mockStatic(Jsoup.class)) {
+            NewsCheck.ScanResult result = newsCheck.scanPage("http://example.com", matcher);
+
+            assertEquals("page", result.getWord());
+            assertNull(result.getText());
+            jsoupMockedStatic.verifyNoInteractions();
+            verify(rejectionCache, never()).put(anyString(), any(), anyString());
+        }
+    }
+
+    @Test
+    public void testRejectionRecorded() throws Exception {
+        String pageContent = "This is a test page content";
+
+        try (MockedStatic<Jsoup> jsoupMockedStatic = Mockito.mockStatic(Jsoup.class)) {
+            Connection mockConnection = mock(Connection.class);
+            Connection.Response mockResponse = mock(Connection.Response.class);
+            jsoupMockedStatic.when(() -> Jsoup.connect(anyString())).thenReturn(mockConnection);
+            when(mockConnection.execute()).thenReturn(mockResponse);
+            when(mockResponse.bodyAsBytes()).thenReturn(pageContent.getBytes());
+            when(mockResponse.parse()).thenReturn(mockDocument);
+            when(mockDocument.body()).thenReturn(mockBody);
+            when(mockBody.text()).thenReturn(pageContent);
+
+            WordMatcher rejecting = WordMatcher.compile(Arrays.asList("page"));
+            WordMatcher accepting = WordMatcher.compile(Arrays.asList("other"));
+            newsCheck.scanPage("http://example.com", rejecting);
+            newsCheck.scanPage("http://example.com", accepting);
+
+            verify(rejectionCache).put("http://example.com", rejecting, "page");
+            verify(rejectionCache, never()).put(anyString(), eq(accepting), any());
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package IndexingSystem.services;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+class ObfuscationFoldTest {
+
+    // test 1: diacritics are removed and case is folded
+    @Test
+    void testFoldDiacritics() {
+        assertEquals("aeiounc", ObfuscationFold.fold("ÁéÏôÙñÇ"));
+        assertEquals("olidi", ObfuscationFold.fold("øłıđİ"));
+    }
+
+    // test 2: look-alike digits and symbols map to letters
+    @Test
+    void testFoldLookAlikes() {
+        assertEquals("racist", ObfuscationFold.fold("r4c1st"));
+        assertEquals("assassin", ObfuscationFold.fold("@$$a5$!n"));
+        assertEquals("test", ObfuscationFold.fold("73st"));
+    }
+
+    // test 3: separators and combining marks are skipped, whitespace is not
+    @Test
+    void testFoldSkipsSeparators() {
+        assertEquals("racist", ObfuscationFold.fold("r-a_c.i*s|t"));
+        assertEquals("racist", ObfuscationFold.fold("r\u00ADa\u200Bcist"));
+        assertEquals("racist", ObfuscationFold.fold("ra\u0301cist"));
+        assertEquals("rac ist", ObfuscationFold.fold("rac ist"));
+        assertEquals(ObfuscationFold.SKIP, ObfuscationFold.fold('-'));
+    }
+}
@@ -0,0 +1,99 @@
+package IndexingSystem.services;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import IndexingSystem.repository.RejectionRepository;
+import IndexingSystem.repository.UrlCanonicalizer;
+
+class RejectionCacheTest {
+
+    private static final Instant NOW = Instant.parse("2024-01-01T00:00:00Z");
+
+    private RejectionRepository rejectionRepository;
+    private RejectionCache rejectionCache;
+    private WordMatcher matcher;
+
+    @BeforeEach
+    void setUp() {
+        rejectionRepository = mock(RejectionRepository.class);
+        rejectionCache = new RejectionCache();
+        rejectionCache.setTtl(Duration.ofMinutes(1));
+        ReflectionTestUtils.setField(rejectionCache, "rejectionRepository", rejectionRepository);
+        ReflectionTestUtils.setField(rejectionCache, "urlCanonicalizer", new UrlCanonicalizer());
+        at(NOW);
+        matcher = WordMatcher.compile(List.of("word"));
+    }
+
+    // test 1: a rejection is stored and then answered from memory for every form of the URL
+    @Test
+    void testPutAndGet() throws Exception {
+        rejectionCache.put("http://example.com/page", matcher, "word");
+
+        assertEquals("word", rejectionCache.get("https://EXAMPLE.com/page/", matcher));
+        assertNull(rejectionCache.get("http://example.com/page", WordMatcher.compile(List.of("other"))));
+        verify(rejectionRepository).save("http://example.com/page", matcher.fingerprint(), "word", NOW.plusSeconds(60));
+        verify(rejectionRepository, never()).find(eq("https://EXAMPLE.com/page/"), anyString(), any());
+        assertEquals(1, rejectionCache.getHits());
+        assertEquals(1, rejectionCache.getMisses());
+    }
+
+    // test 2: a rejection stored by another instance or before a restart is read
+    // from the database and kept in memory until it expires
+    @Test
+    void testStoredRejection() throws Exception {
+        when(rejectionRepository.find("http://example.com", matcher.fingerprint(), NOW))
+                .thenReturn(new RejectionRepository.Rejection("word", NOW.plusSeconds(30)));
+
+        assertEquals("word", rejectionCache.get("http://example.com", matcher));
+        at(NOW.plusSeconds(29));
+        assertEquals("word", rejectionCache.get("http://example.com", matcher));
+        at(NOW.plusSeconds(30));
+        assertNull(rejectionCache.get("http://example.com", matcher));
+
+        assertEquals(1, rejectionCache.getStoredHits());
+        assertEquals(1, rejectionCache.getHits());
+        assertEquals(0, rejectionCache.size());
+    }
+
+    // test 3: a database error is a miss, the check goes on
+    @Test
+    void testDatabaseError() throws Exception {
+        when(rejectionRepository.find(anyString(), anyString(), any())).thenThrow(new RuntimeException("down"));
+        doThrow(new RuntimeException("down")).when(rejectionRepository).save(anyString(), anyString(), anyString(), any());
+
+        assertNull(rejectionCache.get("http://example.com", matcher));
+        rejectionCache.put("http://example.com", matcher, "word");
+        assertEquals("word", rejectionCache.get("http://example.com", matcher));
+        assertEquals(0, rejectionCache.purge());
+    }
+
+    // test 4: nothing is read or stored while disabled
+    @Test
+    void testDisabled() throws Exception {
+        rejectionCache.setEnabled(false);
+
+        rejectionCache.put("http://example.com", matcher, "word");
+
+        assertNull(rejectionCache.get("http://example.com", matcher));
+        assertEquals(0, rejectionCache.purge());
+        verifyNoInteractions(rejectionRepository);
+    }
+
+    private void at(Instant instant) {
+        ReflectionTestUtils.setField(rejectionCache, "clock", Clock.fixed(instant, ZoneOffset.UTC));
+    }
+}
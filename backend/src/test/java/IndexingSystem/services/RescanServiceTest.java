@@ -0,0 +1,189 @@
+package IndexingSystem.services;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.nio.file.Path;
+import java.sql.DriverManager;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import IndexingSystem.models.News;
+import IndexingSystem.models.RescanJob;
+import IndexingSystem.repository.ConnectionDBRepository;
+import IndexingSystem.repository.H2Repository;
+import IndexingSystem.repository.SnapshotStore;
+import IndexingSystem.repository.UrlCanonicalizer;
+import IndexingSystem.repository.UrlFilter;
+
+class RescanServiceTest {
+
+    @TempDir
+    Path dir;
+
+    private H2Repository repository;
+    private SnapshotStore snapshotStore;
+    private NewsCheck newsCheck;
+    private RejectionCache rejectionCache;
+    private HostFetchScheduler hostFetchScheduler;
+    private RescanService rescanService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        String url = "jdbc:h2:mem:rescan_service_test_" + System.nanoTime() + ";DB_CLOSE_DELAY=-1";
+        ConnectionDBRepository database = mock(ConnectionDBRepository.class);
+        when(database.getConnection()).thenAnswer(invocation -> DriverManager.getConnection(url, "sa", ""));
+
+        snapshotStore = new SnapshotStore();
+        snapshotStore.setEnabled(true);
+        snapshotStore.setDirectory(dir.toString());
+
+        repository = new H2Repository();
+        ReflectionTestUtils.setField(repository, "connection", database);
+        ReflectionTestUtils.setField(repository, "urlFilter", new UrlFilter());
+        ReflectionTestUtils.setField(repository, "urlCanonicalizer", new UrlCanonicalizer());
+        ReflectionTestUtils.setField(repository, "snapshotStore", snapshotStore);
+        repository.createTable();
+
+        newsCheck = mock(NewsCheck.class);
+        rejectionCache = mock(RejectionCache.class);
+        hostFetchScheduler = new HostFetchScheduler();
+        hostFetchScheduler.setMinDelay(Duration.ZERO);
+
+        rescanService = new RescanService();
+        rescanService.setChunkSize(2);
+        ReflectionTestUtils.setField(rescanService, "h2Repository", repository);
+        ReflectionTestUtils.setField(rescanService, "newsCheck", newsCheck);
+        ReflectionTestUtils.setField(rescanService, "wordListCache", new WordListCache());
+        ReflectionTestUtils.setField(rescanService, "hostFetchScheduler", hostFetchScheduler);
+        ReflectionTestUtils.setField(rescanService, "rejectionCache", rejectionCache);
+    }
+
+    @AfterEach
+    void tearDown() {
+        rescanService.shutdown();
+        hostFetchScheduler.shutdown();
+        snapshotStore.close();
+    }
+
+    // test 1: news with a snapshot are scanned without downloading them, the
+    // ones with a new word are no longer authorized
+    @Test
+    void testRescanSnapshots() throws Exception {
+        for (int i = 0; i < 7; i++) {
+            create("http://example.com/" + i, i % 3 == 0 ? "page with a newword" : "clean page");
+        }
+
+        RescanJob job = finished(rescanService.start(List.of("NewWord")));
+
+        assertEquals(RescanJob.Status.DONE, job.getStatus());
+        assertEquals(7, job.getTotal());
+        assertEquals(7, job.getScanned());
+        assertEquals(7, job.getFromSnapshot());
+        assertEquals(3, job.getRevoked());
+        assertEquals(1, job.getTerms());
+        assertNull(job.getEtaSeconds());
+        assertEquals(4, repository.countAuthorized());
+        assertFalse(repository.read("http://example.com/3").getAuthorized());
+        assertTrue(repository.read("http://example.com/4").getAuthorized());
+        verifyNoInteractions(newsCheck);
+    }
+
+    // test 2: news without a snapshot are downloaded again, a failed download
+    // is counted and the news is kept
+    @Test
+    void testRescanFetchesMissingSnapshots() throws Exception {
+        create("http://a.com", null);
+        create("http://b.com", null);
+        create("http://c.com", "clean page");
+        // The rows hold the canonical URLs
+        when(newsCheck.fetchPage(eq(repository.read("http://a.com").getUrl()), any()))
+                .thenReturn(new NewsCheck.ScanResult("newword", null));
+        when(newsCheck.fetchPage(eq(repository.read("http://b.com").getUrl()), any()))
+                .thenThrow(new RuntimeException("Error connecting to URL"));
+
+        RescanJob job = finished(rescanService.start(List.of("newword")));
+
+        assertEquals(3, job.getScanned());
+        assertEquals(1, job.getFetched());
+        assertEquals(1, job.getErrors());
+        assertEquals(1, job.getFromSnapshot());
+        assertEquals(1, job.getRevoked());
+        assertFalse(repository.read("http://a.com").getAuthorized());
+        assertTrue(repository.read("http://b.com").getAuthorized());
+    }
+
+    // test 3: with fetch-missing disabled the news without a snapshot are skipped
+    @Test
+    void testRescanSkipsMissingSnapshots() throws Exception {
+        rescanService.setFetchMissing(false);
+        create("http://a.com", null);
+        create("http://b.com", "newword");
+
+        RescanJob job = finished(rescanService.start(List.of("newword")));
+
+        assertEquals(1, job.getSkipped());
+        assertEquals(1, job.getRevoked());
+        verifyNoInteractions(newsCheck);
+    }
+
+    // test 4: only one rescan runs at a time and it can be cancelled
+    @Test
+    void testSingleRunningRescanAndCancel() throws Exception {
+        // One worker, the second chunk waits for the first and sees the cancel
+        rescanService.setWorkers(1);
+        CountDownLatch release = new CountDownLatch(1);
+        create("http://a.com", null);
+        create("http://b.com", null);
+        create("http://c.com", null);
+        when(newsCheck.fetchPage(any(), any())).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return new NewsCheck.ScanResult(null, null);
+        });
+
+        RescanJob job = rescanService.start(List.of("newword"));
+        assertThrows(IllegalStateException.class, () -> rescanService.start(List.of("other")));
+        assertSame(job, rescanService.current());
+
+        assertSame(job, rescanService.cancel());
+        release.countDown();
+        finished(job);
+
+        assertEquals(RescanJob.Status.CANCELLED, job.getStatus());
+        assertTrue(job.getScanned() < 3);
+        assertNull(rescanService.cancel());
+    }
+
+    // test 5: an invalid word list starts no job
+    @Test
+    void testInvalidWords() {
+        assertThrows(IllegalArgumentException.class, () -> rescanService.start(List.of()));
+        assertThrows(IllegalArgumentException.class, () -> rescanService.start((List<String>) null));
+        assertNull(rescanService.current());
+    }
+
+    private void create(String url, String text) throws Exception {
+        News news = new News(url, true);
+        news.setText(text);
+        repository.create(news, false);
+    }
+
+    private RescanJob finished(RescanJob job) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (job.isRunning() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertFalse(job.isRunning());
+        return job;
+    }
+}
@@ -0,0 +1,137 @@
+package IndexingSystem.services;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.nio.file.Path;
+import java.sql.DriverManager;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import IndexingSystem.models.News;
+import IndexingSystem.repository.ConnectionDBRepository;
+import IndexingSystem.repository.H2Repository;
+import IndexingSystem.repository.SnapshotStore;
+import IndexingSystem.repository.TermIndex;
+import IndexingSystem.repository.UrlCanonicalizer;
+import IndexingSystem.repository.UrlFilter;
+
+class TermIndexerTest {
+
+    @TempDir
+    Path dir;
+
+    private H2Repository repository;
+    private SnapshotStore snapshotStore;
+    private TermIndex termIndex;
+    private TermIndexer termIndexer;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        String url = "jdbc:h2:mem:term_indexer_test_" + System.nanoTime() + ";DB_CLOSE_DELAY=-1";
+        ConnectionDBRepository database = mock(ConnectionDBRepository.class);
+        when(database.getConnection()).thenAnswer(invocation -> DriverManager.getConnection(url, "sa", ""));
+
+        snapshotStore = new SnapshotStore();
+        snapshotStore.setEnabled(true);
+        snapshotStore.setDirectory(dir.resolve("snapshots").toString());
+
+        repository = new H2Repository();
+        ReflectionTestUtils.setField(repository, "connection", database);
+        ReflectionTestUtils.setField(repository, "urlFilter", new UrlFilter());
+        ReflectionTestUtils.setField(repository, "urlCanonicalizer", new UrlCanonicalizer());
+        ReflectionTestUtils.setField(repository, "snapshotStore", snapshotStore);
+        repository.createTable();
+
+        termIndex = new TermIndex();
+        termIndex.setEnabled(true);
+        termIndex.setDirectory(dir.resolve("terms").toString());
+
+        termIndexer = new TermIndexer();
+        ReflectionTestUtils.setField(termIndexer, "h2Repository", repository);
+        ReflectionTestUtils.setField(termIndexer, "termIndex", termIndex);
+    }
+
+    @AfterEach
+    void tearDown() {
+        snapshotStore.close();
+    }
+
+    // test 1: news are indexed one refresh after they are seen, those without
+    // a snapshot are skipped
+    @Test
+    void testRefresh() throws Exception {
+        create("http://example.com/1", "The racist comment was removed");
+        create("http://example.com/2", "A comment about the weather");
+        create("http://example.com/3", null);
+
+        assertEquals(0, termIndexer.refresh());
+        assertEquals(0, termIndexer.indexedUpTo());
+        assertEquals(2, termIndexer.refresh());
+        assertEquals(3, termIndexer.indexedUpTo());
+
+        create("http://example.com/4", "More WEATHER news");
+        assertEquals(0, termIndexer.refresh());
+        assertEquals(1, termIndexer.refresh());
+
+        assertArrayEquals(new int[] { 1, 2 }, termIndexer.search(List.of("Comment"), true));
+        assertArrayEquals(new int[] { 2 }, termIndexer.search(List.of("comment", "weather"), true));
+        assertArrayEquals(new int[] { 1, 2, 4 }, termIndexer.search(List.of("racist", "weather"), false));
+    }
+
+    // test 2: a word list finds the news a check would reject, the word may be
+    // part of a longer term
+    @Test
+    void testContaining() throws Exception {
+        create("http://example.com/1", "The racists were there");
+        create("http://example.com/2", "Nothing to see");
+        create("http://example.com/3", "RACIST");
+        termIndexer.refresh();
+        termIndexer.refresh();
+
+        assertArrayEquals(new int[] { 1, 3 }, termIndexer.containing(WordMatcher.compile(List.of("racist"))));
+        assertArrayEquals(new int[] { 1, 2, 3 },
+                termIndexer.containing(WordMatcher.compile(List.of("racist", "nothing"))));
+        assertArrayEquals(new int[0], termIndexer.containing(WordMatcher.compile(List.of("absent"))));
+    }
+
+    // test 3: a refresh writes a segment every segment-news news
+    @Test
+    void testSegments() throws Exception {
+        ReflectionTestUtils.setField(termIndexer, "segmentNews", 2);
+        for (int i = 1; i <= 5; i++) {
+            create("http://example.com/" + i, "common term" + i);
+        }
+        termIndexer.refresh();
+        termIndexer.refresh();
+
+        assertEquals(3, termIndex.segmentTerms().size());
+        assertArrayEquals(new int[] { 1, 2, 3, 4, 5 }, termIndexer.search(List.of("common"), true));
+        assertArrayEquals(new int[] { 5 }, termIndexer.search(List.of("term5"), true));
+    }
+
+    // test 4: nothing is indexed while disabled, invalid terms are rejected
+    @Test
+    void testDisabledAndInvalid() throws Exception {
+        termIndex.setEnabled(false);
+        create("http://example.com/1", "text");
+
+        assertEquals(0, termIndexer.refresh());
+        assertEquals(0, termIndexer.refresh());
+        assertFalse(termIndexer.isEnabled());
+        assertThrows(IllegalArgumentException.class, () -> termIndexer.search(List.of(), true));
+        assertThrows(IllegalArgumentException.class, () -> termIndexer.search(null, true));
+        assertThrows(IllegalArgumentException.class, () -> termIndexer.search(List.of("two words"), true));
+    }
+
+    private void create(String url, String text) throws Exception {
+        News news = new News(url, true);
+        news.setText(text);
+        repository.create(news, false);
+    }
+}
@@ -0,0 +1,44 @@
+package IndexingSystem.services;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+class TokenizerTest {
+
+    // test 1: terms are runs of letters, digits and apostrophes, case folded
+    @Test
+    void testTerms() {
+        Set<String> terms = Tokenizer.terms("El CAMIÓN, de O'Brien: 24h y (más)... el camión");
+
+        assertEquals(List.of("el", "camión", "de", "o'brien", "24h", "y", "más"), List.copyOf(terms));
+    }
+
+    // test 2: empty text and text without words have no terms
+    @Test
+    void testNoTerms() {
+        assertTrue(Tokenizer.terms("").isEmpty());
+        assertTrue(Tokenizer.terms(" -- !! ").isEmpty());
+    }
+
+    // test 3: long terms are cut to the limit
+    @Test
+    void testLongTerm() {
+        Set<String> terms = Tokenizer.terms("a".repeat(100) + " b");
+
+        assertEquals(Set.of("a".repeat(Tokenizer.MAX_TERM_LENGTH), "b"), terms);
+    }
+
+    // test 4: query terms are folded as the text and must be single words
+    @Test
+    void testQueryTerm() {
+        assertEquals("camión", Tokenizer.term(" CAMIÓN "));
+        assertEquals("a".repeat(Tokenizer.MAX_TERM_LENGTH), Tokenizer.term("a".repeat(70)));
+        assertThrows(IllegalArgumentException.class, () -> Tokenizer.term("two words"));
+        assertThrows(IllegalArgumentException.class, () -> Tokenizer.term(" "));
+        assertThrows(IllegalArgumentException.class, () -> Tokenizer.term(null));
+    }
+}
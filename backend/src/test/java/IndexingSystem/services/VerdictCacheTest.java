@@ -0,0 +1,138 @@
+package IndexingSystem.services;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.HexFormat;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class VerdictCacheTest {
+
+    private VerdictCache verdictCache;
+    private WordMatcher matcher;
+
+    @BeforeEach
+    void setUp() {
+        verdictCache = new VerdictCache();
+        matcher = WordMatcher.compile(List.of("blocked"));
+    }
+
+    // test 1: the same text is a hit for the same list only
+    @Test
+    void testExactHit() {
+        verdictCache.put(verdictCache.key("a blocked page", matcher), "blocked");
+        verdictCache.put(verdictCache.key("a clean page", matcher), null);
+
+        VerdictCache.Verdict rejected = verdictCache.get(verdictCache.key("a blocked page", matcher));
+        VerdictCache.Verdict clean = verdictCache.get(verdictCache.key("a clean page", matcher));
+
+        assertEquals("blocked", rejected.getWord());
+        assertFalse(rejected.isNearDuplicate());
+        assertNull(clean.getWord());
+        assertNull(verdictCache.get(verdictCache.key("a blocked page", WordMatcher.compile(List.of("other")))));
+        assertNull(verdictCache.get(verdictCache.key("a blocked page!", matcher)));
+        assertEquals(2, verdictCache.getHits());
+        assertEquals(2, verdictCache.getMisses());
+    }
+
+    // test 2: verdicts expire after the TTL
+    @Test
+    void testExpiry() {
+        Instant now = Instant.parse("2024-01-01T00:00:00Z");
+        verdictCache.setTtl(Duration.ofMinutes(1));
+        ReflectionTestUtils.setField(verdictCache, "clock", Clock.fixed(now, ZoneOffset.UTC));
+        verdictCache.put(verdictCache.key("page", matcher), null);
+
+        ReflectionTestUtils.setField(verdictCache, "clock", Clock.fixed(now.plusSeconds(59), ZoneOffset.UTC));
+        assertNotNull(verdictCache.get(verdictCache.key("page", matcher)));
+
+        ReflectionTestUtils.setField(verdictCache, "clock", Clock.fixed(now.plusSeconds(60), ZoneOffset.UTC));
+        assertNull(verdictCache.get(verdictCache.key("page", matcher)));
+        assertEquals(0, verdictCache.size());
+    }
+
+    // test 3: the least recently used verdict is evicted
+    @Test
+    void testEviction() {
+        verdictCache.setMaxSize(2);
+        verdictCache.put(verdictCache.key("a", matcher), null);
+        verdictCache.put(verdictCache.key("b", matcher), null);
+        verdictCache.get(verdictCache.key("a", matcher));
+        verdictCache.put(verdictCache.key("c", matcher), null);
+
+        assertEquals(2, verdictCache.size());
+        assertEquals(1, verdictCache.getEvictions());
+        assertNotNull(verdictCache.get(verdictCache.key("a", matcher)));
+        assertNull(verdictCache.get(verdictCache.key("b", matcher)));
+    }
+
+    // test 4: a page that only differs in its boilerplate reuses the verdict
+    // when near duplicates are enabled
+    @Test
+    void testNearDuplicate() {
+        String article = article();
+        verdictCache.put(verdictCache.key("Site A menu " + article + " Copyright A", matcher), "blocked");
+
+        assertNull(verdictCache.get(verdictCache.key("Site B home " + article + " Copyright B", matcher)));
+
+        verdictCache.setNearDuplicates(true);
+        verdictCache.put(verdictCache.key("Site A menu " + article + " Copyright A", matcher), "blocked");
+        VerdictCache.Verdict near = verdictCache.get(verdictCache.key("Site B home " + article + " Copyright B", matcher));
+
+        assertEquals("blocked", near.getWord());
+        assertTrue(near.isNearDuplicate());
+        assertEquals(1, verdictCache.getNearHits());
+        assertNull(verdictCache.get(verdictCache.key(otherArticle(), matcher)));
+        assertNull(verdictCache.get(verdictCache.key("Site B home " + article + " Copyright B",
+                WordMatcher.compile(List.of("other")))));
+    }
+
+    // test 5: the SimHash ignores case and punctuation, short texts have none
+    @Test
+    void testSimHash() {
+        String article = article();
+        Long simHash = VerdictCache.simHash(article);
+
+        assertNotNull(simHash);
+        assertEquals(simHash, VerdictCache.simHash(article.toUpperCase().replace(" ", ", ")));
+        assertTrue(Long.bitCount(simHash ^ VerdictCache.simHash("Home " + article + " footer")) <= VerdictCache.MAX_DISTANCE);
+        assertTrue(Long.bitCount(simHash ^ VerdictCache.simHash(otherArticle())) > VerdictCache.MAX_DISTANCE);
+        assertNull(VerdictCache.simHash("a short page with a few words"));
+    }
+
+    // test 6: the text is hashed in chunks with the bytes of String.getBytes
+    @Test
+    void testSha256Chunks() throws Exception {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        // Emojis across the chunk boundaries and an unpaired surrogate
+        for (String text : List.of("", "a clean page", "noticia 📰 ñ ".repeat(1000), "a\ud800b".repeat(3000))) {
+            String expected = HexFormat.of().formatHex(digest.digest(text.getBytes(StandardCharsets.UTF_8)));
+            assertEquals(expected, VerdictCache.sha256(text));
+        }
+    }
+
+    private static String article() {
+        StringBuilder article = new StringBuilder();
+        for (int i = 0; i < 2000; i++) {
+            article.append("word").append(i % 37).append(' ').append("term").append(i % 11).append(' ');
+        }
+        return article.toString().trim();
+    }
+
+    private static String otherArticle() {
+        StringBuilder article = new StringBuilder();
+        for (int i = 0; i < 2000; i++) {
+            article.append("other").append(i % 29).append(' ').append("text").append(i % 13).append(' ');
+        }
+        return article.toString().trim();
+    }
+}
@@ -0,0 +1,103 @@
+package IndexingSystem.services;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class WordListCacheTest {
+
+    private WordListCache wordListCache;
+
+    @BeforeEach
+    void setUp() {
+        wordListCache = new WordListCache();
+        wordListCache.setMaxSize(2);
+    }
+
+    // test 1: the same list is compiled once
+    @Test
+    void testHit() {
+        WordMatcher first = wordListCache.get(Arrays.asList("test", "page"));
+        WordMatcher second = wordListCache.get(Arrays.asList("test", "page"));
+
+        assertSame(first, second);
+        assertEquals(1, wordListCache.getHits());
+        assertEquals(1, wordListCache.getMisses());
+    }
+
+    // test 2: the least recently used list is evicted
+    @Test
+    void testEviction() {
+        WordMatcher a = wordListCache.get(List.of("a"));
+        wordListCache.get(List.of("b"));
+        wordListCache.get(List.of("a"));
+        wordListCache.get(List.of("c"));
+
+        assertEquals(2, wordListCache.size());
+        assertEquals(1, wordListCache.getEvictions());
+        assertSame(a, wordListCache.get(List.of("a")));
+        assertNotSame(wordListCache.get(List.of("b")), wordListCache.get(List.of("c")));
+    }
+
+    // test 3: invalid lists throw and are not cached
+    @Test
+    void testInvalidListNotCached() {
+        assertThrows(IllegalArgumentException.class, () -> wordListCache.get(List.of("test@123")));
+        assertThrows(IllegalArgumentException.class, () -> wordListCache.get(List.of("test@123")));
+
+        assertEquals(0, wordListCache.size());
+        assertEquals(2, wordListCache.getMisses());
+    }
+
+    // test 4: the fingerprint depends on the order and the boundaries of the words
+    @Test
+    void testFingerprint() {
+        assertEquals(WordListCache.fingerprint(List.of("ab", "c")), WordListCache.fingerprint(List.of("ab", "c")));
+        assertNotEquals(WordListCache.fingerprint(List.of("ab", "c")), WordListCache.fingerprint(List.of("a", "bc")));
+        assertNotEquals(WordListCache.fingerprint(List.of("a", "b")), WordListCache.fingerprint(List.of("b", "a")));
+        assertNotEquals(WordListCache.fingerprint(Arrays.asList("a", null)), WordListCache.fingerprint(List.of("a")));
+    }
+
+    // test 5: counters are published to the meter registry
+    @Test
+    void testMetrics() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        wordListCache.bindTo(registry);
+
+        wordListCache.get(List.of("a"));
+        wordListCache.get(List.of("a"));
+
+        assertEquals(1.0, registry.get("indexing.word_list_cache.hits").functionCounter().count());
+        assertEquals(1.0, registry.get("indexing.word_list_cache.misses").functionCounter().count());
+        assertEquals(1.0, registry.get("indexing.word_list_cache.size").gauge().value());
+    }
+
+    // test 6: null and empty lists
+    @Test
+    void testNullOrEmptyList() {
+        Exception nullList = assertThrows(IllegalArgumentException.class, () -> wordListCache.get(null));
+        assertEquals("Word list cannot be null", nullList.getMessage());
+
+        Exception emptyList = assertThrows(IllegalArgumentException.class, () -> wordListCache.get(List.of()));
+        assertEquals("The list of words is empty", emptyList.getMessage());
+    }
+
+    // test 7: lists are compiled with obfuscation folding when it is enabled
+    @Test
+    void testFoldObfuscation() {
+        assertFalse(wordListCache.get(List.of("racist")).isFoldObfuscation());
+
+        ReflectionTestUtils.setField(wordListCache, "foldObfuscation", true);
+        WordMatcher matcher = wordListCache.get(List.of("test"));
+
+        assertTrue(matcher.isFoldObfuscation());
+        assertEquals("test", matcher.firstMatch("a t3st page"));
+    }
+}
@@ -0,0 +1,206 @@
+package IndexingSystem.services;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class WordMatcherTest {
+
+    // test 1: the first word of the list wins, not the first one in the text
+    @Test
+    void testFirstMatchFollowsListOrder() {
+        WordMatcher matcher = WordMatcher.compile(Arrays.asList("page", "test"));
+
+        assertEquals("page", matcher.firstMatch("this is a test page content"));
+    }
+
+    // test 2: no word in the text
+    @Test
+    void testFirstMatchNotFound() {
+        WordMatcher matcher = WordMatcher.compile(Arrays.asList("notfound", "other"));
+
+        assertNull(matcher.firstMatch("this is a test page content"));
+    }
+
+    // test 3: overlapping words and words that are suffixes of others are all
+    // reported
+    @Test
+    void testFindAllOverlapping() {
+        WordMatcher matcher = WordMatcher.compile(Arrays.asList("she", "he", "hers", "his", "x"));
+
+        assertEquals(List.of("she", "he", "hers"), matcher.findAll("ushers"));
+    }
+
+    // test 4: words are trimmed and lowercased
+    @Test
+    void testCompileNormalizesWords() {
+        WordMatcher matcher = WordMatcher.compile(Arrays.asList("  TEST ", "Don't"));
+
+        assertEquals(List.of("test", "don't"), matcher.getWords());
+        assertEquals("don't", matcher.firstMatch("i don't know"));
+    }
+
+    // test 5: validation rules
+    @Test
+    void testCompileInvalidWords() {
+        Exception nullWord = assertThrows(IllegalArgumentException.class,
+                () -> WordMatcher.compile(Arrays.asList("test", null)));
+        assertEquals("Word cannot be null", nullWord.getMessage());
+
+        Exception emptyWord = assertThrows(IllegalArgumentException.class,
+                () -> WordMatcher.compile(Arrays.asList("  ")));
+        assertEquals("Word cannot be empty", emptyWord.getMessage());
+
+        Exception invalidWord = assertThrows(IllegalArgumentException.class,
+                () -> WordMatcher.compile(Arrays.asList("test@123")));
+        assertEquals("Word not valid: test@123", invalidWord.getMessage());
+    }
+
+    // test 6: duplicated words report the first position
+    @Test
+    void testDuplicatedWords() {
+        WordMatcher matcher = WordMatcher.compile(Arrays.asList("a", "b", "a"));
+
+        assertEquals(List.of("a", "b"), matcher.findAll("ab"));
+        assertEquals("a", matcher.firstMatch("ba"));
+    }
+
+    // test 7: same result as checking each word with contains
+    @Test
+    void testMatchesContainsOnRandomInput() {
+        Random random = new Random(42);
+
+        for (int round = 0; round < 200; round++) {
+            List<String> words = new ArrayList<>();
+            for (int i = 0; i < 1 + random.nextInt(20); i++) {
+                words.add(randomString(random, 1 + random.nextInt(4)));
+            }
+            String text = randomString(random, random.nextInt(200));
+
+            WordMatcher matcher = WordMatcher.compile(words);
+
+            String expected = null;
+            List<String> expectedAll = new ArrayList<>();
+            for (String word : words) {
+                if (text.contains(word)) {
+                    if (expected == null) {
+                        expected = word;
+                    }
+                    if (!expectedAll.contains(word)) {
+                        expectedAll.add(word);
+                    }
+                }
+            }
+
+            assertEquals(expected, matcher.firstMatch(text));
+            assertEquals(expectedAll, matcher.findAll(text));
+        }
+    }
+
+    // test 8: the scanner keeps its state between pieces of text
+    @Test
+    void testScannerAcrossPieces() {
+        WordMatcher.Scanner scanner = WordMatcher.compile(Arrays.asList("racist")).scanner();
+
+        assertFalse(scanner.feed("a RA"));
+        assertTrue(scanner.feed("Cist page"));
+        assertEquals("racist", scanner.match());
+    }
+
+    // test 9: words are not matched across a boundary
+    @Test
+    void testScannerSeparate() {
+        WordMatcher.Scanner scanner = WordMatcher.compile(Arrays.asList("abcd")).scanner();
+
+        scanner.feed("ab");
+        scanner.separate();
+        scanner.feed("cd");
+
+        assertFalse(scanner.found());
+        assertNull(scanner.match());
+    }
+
+    // test 10: matching does not depend on the default locale
+    @Test
+    void testMatchIgnoresDefaultLocale() {
+        Locale locale = Locale.getDefault();
+        try {
+            Locale.setDefault(Locale.forLanguageTag("tr"));
+            WordMatcher matcher = WordMatcher.compile(Arrays.asList("TITLE"));
+
+            assertEquals(List.of("title"), matcher.getWords());
+            assertEquals("title", matcher.firstMatch("A NEW TITLE"));
+            assertEquals("title", matcher.findAll("a new Title").get(0));
+        } finally {
+            Locale.setDefault(locale);
+        }
+    }
+
+    // test 11: the text is folded as it is scanned, without lowercasing it first
+    @Test
+    void testMatchFoldsText() {
+        WordMatcher matcher = WordMatcher.compile(Arrays.asList("ΣΟΦΟΣ", "straße", "istanbul"));
+
+        assertEquals("σοφοσ", matcher.firstMatch("el σοφος griego"));
+        assertEquals("straße", matcher.firstMatch("STRAßE"));
+        assertEquals("istanbul", matcher.firstMatch("İSTANBUL"));
+        assertNull(matcher.firstMatch("ıstanbul"));
+    }
+
+    // test 12: obfuscated variants are found in one scan
+    @Test
+    void testFoldObfuscation() {
+        WordMatcher matcher = WordMatcher.compile(Arrays.asList("racist", "Don't"), true);
+
+        assertEquals(List.of("racist", "don't"), matcher.getWords());
+        assertEquals("racist", matcher.firstMatch("a R4C1ST page"));
+        assertEquals("racist", matcher.firstMatch("a r-a-c-i-s-t page"));
+        assertEquals("racist", matcher.firstMatch("a r.á.c.í.s.t page"));
+        assertEquals("racist", matcher.firstMatch("a rac\u200Bist page"));
+        assertEquals("don't", matcher.firstMatch("i dont know"));
+        assertNull(matcher.firstMatch("a rac ist page"));
+    }
+
+    // test 13: without obfuscation folding variants are not found
+    @Test
+    void testNoFoldObfuscation() {
+        WordMatcher matcher = WordMatcher.compile(Arrays.asList("racist"));
+
+        assertFalse(matcher.isFoldObfuscation());
+        assertNull(matcher.firstMatch("a r4c1st page"));
+        assertNull(matcher.firstMatch("a r-a-c-i-s-t page"));
+    }
+
+    // test 14: a word made only of ignored chars is not valid
+    @Test
+    void testFoldObfuscationEmptyWord() {
+        Exception exception = assertThrows(IllegalArgumentException.class,
+                () -> WordMatcher.compile(Arrays.asList("''"), true));
+
+        assertEquals("Word not valid: ''", exception.getMessage());
+    }
+
+    // test 15: the fingerprint ignores case and spaces around the words, not the order or the folding
+    @Test
+    void testFingerprint() {
+        String fingerprint = WordMatcher.compile(Arrays.asList("Test", "page")).fingerprint();
+
+        assertEquals(fingerprint, WordMatcher.compile(Arrays.asList(" test ", "PAGE")).fingerprint());
+        assertNotEquals(fingerprint, WordMatcher.compile(Arrays.asList("page", "test")).fingerprint());
+        assertNotEquals(fingerprint, WordMatcher.compile(Arrays.asList("test", "page"), true).fingerprint());
+    }
+
+    private String randomString(Random random, int length) {
+        StringBuilder sb = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            sb.append((char) ('a' + random.nextInt(3)));
+        }
+        return sb.toString();
+    }
+}
@@ -1,12 +1,14 @@
 import { useEffect } from 'react';
 import { useAppDispatch, useAppSelector } from '../../hooks/useStore';
-import { selectUrls, selectUrlsStatus, fetchUrlsAsync, removeUrlAsync } from '../../redux/slices/urlsSlice';
+import { selectUrls, selectUrlsStatus, selectUrlsNext, selectUrlsLoadingMore, fetchUrlsAsync, removeUrlAsync } from '../../redux/slices/urlsSlice';
 import './UrlsListStyle.css';
 
 function UrlsList() {
     const dispatch = useAppDispatch();
     const urls = useAppSelector(selectUrls);
     const status = useAppSelector(selectUrlsStatus);
+    const next = useAppSelector(selectUrlsNext);
+    const loadingMore = useAppSelector(selectUrlsLoadingMore);
 
     useEffect(() => {
         if (!status) {
@@ -60,6 +62,15 @@ function UrlsList() {
                     );
                 })}
             </div>
+            {next && (
+                <button
+                    className={`load-more-button ${loadingMore ? 'button-disabled' : 'button-enabled'}`}
+                    onClick={() => dispatch(fetchUrlsAsync(next))}
+                    disabled={loadingMore}
+                >
+                    {loadingMore ? 'Cargando...' : 'Cargar más'}
+                </button>
+            )}
         </div>
     );
 }
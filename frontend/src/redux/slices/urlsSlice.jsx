@@ -2,12 +2,16 @@ import { createSlice, createAsyncThunk } from '@reduxjs/toolkit';
 import axios from 'axios';
 import { showNotification } from './uiSlice';
 
+// Without a cursor the first page is loaded, with the "next" cursor of the previous page the
+// following one is appended
 export const fetchUrlsAsync = createAsyncThunk(
     'urls/fetchUrls',
 
-    async (_, { dispatch, rejectWithValue }) => {
+    async (after, { dispatch, rejectWithValue }) => {
         try {
-            const response = await axios.get('/api/v1/content');
+            const response = after
+                ? await axios.get('/api/v1/content', { params: { after } })
+                : await axios.get('/api/v1/content');
 
             if (response.status === 200) {
                 const extractUrls = (data) => {
@@ -32,10 +36,10 @@ export const fetchUrlsAsync = createAsyncThunk(
                 };
 
                 const urls = extractUrls(response.data);
-                return urls;
+                return { urls, next: response.data.next ?? null };
             }
             if (response.status === 204) {
-                return [];
+                return { urls: [], next: null };
             }
 
         } catch (error) {
@@ -110,6 +114,8 @@ export const urlsSlice = createSlice({
         urls: [],
         status: null, // 'loading' | 'succeeded' | 'failed'
         error: null,
+        next: null, // cursor of the next page, null on the last one
+        loadingMore: false,
     },
     reducers: {
         restartState: (state) => {
@@ -124,16 +130,27 @@ export const urlsSlice = createSlice({
     },
     extraReducers: (builder) => {
         builder
-            .addCase(fetchUrlsAsync.pending, (state) => {
-                state.status = 'loading';
+            .addCase(fetchUrlsAsync.pending, (state, action) => {
+                // The loaded pages stay visible while the next one is loading
+                if (action.meta.arg) {
+                    state.loadingMore = true;
+                } else {
+                    state.status = 'loading';
+                }
                 state.error = null;
             })
             .addCase(fetchUrlsAsync.fulfilled, (state, action) => {
                 state.status = 'succeeded';
-                state.urls = action.payload;
+                state.loadingMore = false;
+                state.urls = action.meta.arg ? [...state.urls, ...action.payload.urls] : action.payload.urls;
+                state.next = action.payload.next;
             })
             .addCase(fetchUrlsAsync.rejected, (state, action) => {
-                state.status = 'failed';
+                if (action.meta.arg) {
+                    state.loadingMore = false;
+                } else {
+                    state.status = 'failed';
+                }
                 state.error = action.payload;
             });
     },
@@ -144,5 +161,7 @@ export const { restartState, removeUrl } = urlsSlice.actions;
 export const selectUrls = (state) => state.urls.urls;
 export const selectUrlsStatus = (state) => state.urls.status;
 export const selectUrlsError = (state) => state.urls.error;
+export const selectUrlsNext = (state) => state.urls.next;
+export const selectUrlsLoadingMore = (state) => state.urls.loadingMore;
 
 export default urlsSlice.reducer;
\ No newline at end of file
@@ -15,6 +15,8 @@ jest.mock('../../hooks/useStore', () => ({
 jest.mock('../../redux/slices/urlsSlice', () => ({
     selectUrls: jest.fn(),
     selectUrlsStatus: jest.fn(),
+    selectUrlsNext: jest.fn(),
+    selectUrlsLoadingMore: jest.fn(),
     fetchUrlsAsync: jest.fn(),
     removeUrlAsync: jest.fn()
 }));
@@ -279,4 +281,48 @@ describe('UrlsList Component', () => {
         expect(mockDispatch).toHaveBeenCalledWith(mockFetchAction);
         expect(urlsSlice.fetchUrlsAsync).toHaveBeenCalled();
     });
-});
\ No newline at end of file
+
+    // 11. Load more tests
+    test('loads the next page with the cursor of the response', () => {
+        reduxHooks.useAppSelector.mockImplementation(selector => {
+            if (selector === urlsSlice.selectUrlsStatus) return 'succeeded';
+            if (selector === urlsSlice.selectUrls) return ['https://example.com/page1'];
+            if (selector === urlsSlice.selectUrlsNext) return 100;
+            if (selector === urlsSlice.selectUrlsLoadingMore) return false;
+            return null;
+        });
+
+        render(<UrlsList />);
+
+        fireEvent.click(screen.getByText('Cargar más'));
+
+        expect(urlsSlice.fetchUrlsAsync).toHaveBeenCalledWith(100);
+        expect(mockDispatch).toHaveBeenCalledWith(mockFetchAction);
+    });
+
+    test('does not show the load more button on the last page', () => {
+        reduxHooks.useAppSelector.mockImplementation(selector => {
+            if (selector === urlsSlice.selectUrlsStatus) return 'succeeded';
+            if (selector === urlsSlice.selectUrls) return ['https://example.com/page1'];
+            return null;
+        });
+
+        render(<UrlsList />);
+
+        expect(screen.queryByText('Cargar más')).not.toBeInTheDocument();
+    });
+
+    test('disables the load more button while the next page is loading', () => {
+        reduxHooks.useAppSelector.mockImplementation(selector => {
+            if (selector === urlsSlice.selectUrlsStatus) return 'succeeded';
+            if (selector === urlsSlice.selectUrls) return ['https://example.com/page1'];
+            if (selector === urlsSlice.selectUrlsNext) return 100;
+            if (selector === urlsSlice.selectUrlsLoadingMore) return true;
+            return null;
+        });
+
+        render(<UrlsList />);
+
+        expect(screen.getByText('Cargando...')).toBeDisabled();
+    });
+});